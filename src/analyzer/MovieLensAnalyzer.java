@@ -2,13 +2,24 @@ package analyzer;
 import graph.*;
 import java.util.Scanner;
 import java.util.Map;
+import data.Genres;
 import data.Movie;
+import data.RatingMatrix;
+import data.Similarity;
+import data.TagIndex;
+import data.TitleIndex;
 import data.Reviewer;
 import util.DataLoader;
-import java.util.Set;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import util.Pair;
+import util.Parallel;
+import util.RatingTailer;
+import util.Snapshot;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Arrays;
 
 /* ================================================================================
  Name        : MovieLensAnalyzer
@@ -20,112 +31,228 @@ import java.util.HashSet;
 public class MovieLensAnalyzer {
 	private static Map<Integer, Movie> movies;
 	private static Map<Integer, Reviewer> reviewers;
-	private static Graph<Integer> G = new Graph<Integer>(); //Graph for movies
-	private static int INF = 9999;
+	private static RatingMatrix ratings; //every rating, indexed by movie and by reviewer
+	private static GraphIfc<Integer> G = new Graph<Integer>(); //Graph for movies
+	private static CsrGraph csr; //compact copy of G used by the graph algorithms
+	private static final PathCache pathCache = new PathCache(); //shortest path trees of csr from the most used sources
+	private static CoRatingGraphBuilder.Adjacency adjacency; //adjacency option G was built with
+	private static WeightedGraph weighted; //G weighted by 1 - cosine similarity, made when first needed
+	private static final PathCache similarPathCache = new PathCache(); //shortest path trees of weighted
+	private static int threshold = CoRatingGraphBuilder.DEFAULT_THRESHOLD; //number of shared reviewers for an edge
+	private static int parallelism = 0; //number of worker threads, 0 uses every processor
+	private static SimilarityIndex similar; //the most similar movies of every movie, made when first needed
+	private static final int SIMILAR_MOVIES = 10; //number of similar movies listed per movie
+	private static Path snapshots; //directory of saved data sets and graphs, null if they are not saved
+	private static long dataKey; //checksum of the input files
+	private static CoRatingGraphUpdater updater; //keeps G current as ratings are added, made when first needed
+	private static DataLoader loader; //the loader that read the files
+	private static String ratingsFile, movieFile; //the files being used
+	private static long loadedBytes; //size of the ratings file when it was loaded
+	private static RatingTailer tailer; //applies lines appended to the ratings file, once started
+	private static final Object model = new Object(); //held while the data or G is read or changed
+	private static TitleIndex titles; //index of the movie titles for keyword searches
+	private static TagIndex tags; //tags given to the movies, null if there is no tags file
+	private static GenreFilter genreFilter; //genres the queries are restricted to, null for every movie
+	private static PathQuery filteredPaths; //answers path queries under genreFilter, made for csr when first needed
+	private static CommunityPathQuery communityPaths; //answers path queries through the communities of csr, made when first needed
+	private static CsrGraph filtered, filteredFrom; //the movies of genreFilter in csr, and the csr they were taken from
+	private static Centrality centrality; //scores of the last graph ranked, made when first needed
+	private static final int TOP_MOVIES = 10; //number of movies listed per centrality score
+	private static final int LISTED_COMMUNITIES = 5; //number of the largest communities described
 	
 /**
- * Helper function, adds all movies to the graph G
+ * If the user chose option one
+ */
+public static void graphOption1() {
+	adjacency = CoRatingGraphBuilder.Adjacency.SAME_RATING;
+	G = csr = buildGraph(adjacency);
+}
+/**
+ * If the user chooses option 2
  */
-public static void addVertices() {
-	for(Movie movie : movies.values()) {
-		G.addVertex(movie.getMovieId()); //add each movie as vertex 
+public static void graphOption2() {
+	adjacency = CoRatingGraphBuilder.Adjacency.ANY_RATING;
+	G = csr = buildGraph(adjacency);
+}
+/**
+ * If the user chooses option 3, movies are adjacent when they share a tag
+ */
+public static void graphOption3() {
+	adjacency = null; //the graph is not made from ratings
+	weighted = null;
+	updater = null;
+	G = csr = TagGraphBuilder.build(tags, TagGraphBuilder.DEFAULT_THRESHOLD, parallelism);
+}
+/**
+ * Loads the tags file next to the ratings file, if there is one
+ */
+public static void loadTags() {
+	Path file = Paths.get(ratingsFile).resolveSibling("tags.csv");
+	if(!Files.exists(file)) {
+		return;
+	}
+	try {
+		tags = loader.loadTags(file.toString(), movieFile, parallelism);
+	} catch(IOException e) {
+		System.out.println("Could not read " + file + ": " + e);
 	}
 }
 /**
- * If the user chose option one
+ * Tells the user when an option needs a graph built from ratings
+ * @return true if G was built from ratings
  */
-public static void graphOption1() {
-	addVertices();
-	for(Movie movie0 : movies.values()) {
-		for(Movie movie1 : movies.values()) { //for each pair of movies
-			int movieID0 = movie0.getMovieId(), movieID1 = movie1.getMovieId();
-			int count = 0;
-			if(movieID0 != movieID1) { //check we are not looking at the same movie
-				for(Reviewer R : reviewers.values()) {
-					int id = R.getReviewerId();
-					if(movie0.rated(id) && movie1.rated(id) && R.getMovieRating(movieID0) == R.getMovieRating(movieID1)){
-						//if both movies were rated by user and given the same rating 
-							count++;
-							if(count == 12) {
-								G.addEdge(movieID0, movieID1);
-							}
-					}
-						
-				}
-				
+public static boolean ratingGraph() {
+	if(adjacency == null) {
+		System.out.println("This option needs a graph built from ratings (option 1 or 2)\n");
+		return false;
+	}
+	return true;
+}
+
+/**
+ * Reads the graph for an adjacency option from its snapshot, or builds it and saves a
+ * snapshot for the next run
+ * @param adjacency the adjacency option
+ * @return the graph
+ */
+public static CsrGraph buildGraph(CoRatingGraphBuilder.Adjacency adjacency) {
+	weighted = null;
+	updater = null;
+	Path file = null;
+	if(snapshots != null) {
+		long key = Snapshot.graphKey(dataKey, adjacency.name(), threshold);
+		file = Snapshot.file(snapshots, key);
+		try {
+			CsrGraph graph = Snapshot.readGraph(file, key);
+			if(graph != null) {
+				return graph;
 			}
-				
+		} catch(IOException e) {
+			System.out.println("Could not read " + file + ": " + e);
+		}
+	}
+	CsrGraph graph = CsrGraph.fromGraph(new CoRatingGraphBuilder(ratings).build(adjacency, threshold, parallelism));
+	if(file != null) {
+		try {
+			Snapshot.writeGraph(file, Snapshot.graphKey(dataKey, adjacency.name(), threshold), graph);
+		} catch(IOException e) {
+			System.out.println("Could not save " + file + ": " + e);
 		}
 	}
+	return graph;
 }
+
 /**
- * If the user chooses option 2
+ * Loads the data set from its snapshot, or parses the files and saves a snapshot for the
+ * next run
+ * @param p the loader to fill in
+ * @param ratingsFile the ratings file
+ * @param movieFile the movie titles file
  */
-public static void graphOption2() {
-	addVertices();
-	for(Movie movie0 : movies.values()) { //for each pair of movies
-		for(Movie movie1 : movies.values()) {
-			int movieID0 = movie0.getMovieId(), movieID1 = movie1.getMovieId();
-				int count = 0;
-				if(movieID0 != movieID1) {
-					for(Reviewer R : reviewers.values()) {
-						int id = R.getReviewerId();
-						if(movie0.rated(id) && movie1.rated(id)){ //only checking if both users rated each movie
-							count++;
-							if(count == 12) {
-								G.addEdge(movieID0, movieID1);
-							}
-						}
-							
-					}
-					
-					
-				}
+public static void loadData(DataLoader p, String ratingsFile, String movieFile) {
+	Path file = null;
+	try {
+		dataKey = Snapshot.checksum(ratingsFile, movieFile);
+		snapshots = Snapshot.directoryFor(ratingsFile);
+		file = Snapshot.file(snapshots, dataKey);
+		if(Snapshot.readData(file, dataKey, p)) {
+			return;
+		}
+	} catch(IOException e) {
+		System.out.println("Could not read snapshot: " + e);
+	}
+	p.loadDataMapped(ratingsFile, movieFile, parallelism);
+	if(file != null) {
+		try {
+			Snapshot.writeData(file, dataKey, p);
+		} catch(IOException e) {
+			System.out.println("Could not save " + file + ": " + e);
 		}
 	}
 }
 
+/**
+ * Returns a compressed copy of G, making it the first time it is needed after G is built
+ * @return G in compressed sparse row form
+ */
+public static CsrGraph csrGraph() {
+	if(csr == null) {
+		csr = G instanceof ConcurrentGraph ? ((ConcurrentGraph) G).snapshot() : CsrGraph.fromGraph(G);
+	}
+	return csr;
+}
+/**
+ * Returns the graph the statistics are about: the movies of the chosen genres and the
+ * edges between them, or the whole graph if no genres were chosen
+ * @return the graph, in compressed sparse row form
+ */
+public static CsrGraph filteredGraph() {
+	if(genreFilter == null) {
+		return csrGraph();
+	}
+	if(filtered == null || filteredFrom != csrGraph()) { //made again once the graph is rebuilt
+		filteredFrom = csrGraph();
+		filtered = genreFilter.subgraph(filteredFrom);
+	}
+	return filtered;
+}
 /**
  * Prints graph statistics 
  */
 public static void graphStatistics() {
-	float numerator = 2 * G.numEdges();
-	float denom = G.numVertices() * (G.numVertices() - 1);
+	CsrGraph graph = filteredGraph();
+	float numerator = 2 * graph.numEdges();
+	float denom = graph.numVertices() * (graph.numVertices() - 1);
 	int maxDegree = 0;
 	int node = 0;
-	for(Integer movieID : G.getVertices()) {
-		if(G.degree(movieID) > maxDegree) { //we have found a new max degree
-			maxDegree = G.degree(movieID); 
+	for(Integer movieID : graph.getVertices()) {
+		if(graph.degree(movieID) > maxDegree) { //we have found a new max degree
+			maxDegree = graph.degree(movieID); 
 			node = movieID + 1;
 		}
 	}
-	int [][] shortestPaths = GraphAlgorithms.floydWarshall(G);  //running floydWarshall
-	int diameter = 0;
-	int src = 0, dst = 0;
-	float sum = 0, numPaths = 0;
-	for(int i = 0; i < G.numVertices(); i++) {
-		for(int j = 0; j < G.numVertices(); j++) {
-			if(shortestPaths[i][j] != INF) { //
-				sum += shortestPaths[i][j];
-				numPaths++;
-				if(shortestPaths[i][j] > diameter) { //found a new longest path 
-					diameter = shortestPaths[i][j];
-					src = i + 1;
-					dst = j + 1;
-				}
-				
-			}
-		}
-	}
-	float avgPathLen = sum/numPaths;
-	System.out.println("|V| = " + G.numVertices());
-	System.out.println("|E| = " + G.numEdges());
+	PathStatistics paths = AllPairsBfs.run(graph, parallelism); //one BFS per source
+	int diameter = paths.diameter();
+	int src = paths.diameterSource() + 1, dst = paths.diameterTarget() + 1;
+	float avgPathLen = (float) paths.averagePathLength();
+	System.out.println("|V| = " + graph.numVertices());
+	System.out.println("|E| = " + graph.numEdges());
 	System.out.println("Density: " + numerator / denom);
 	System.out.println("Max degree = " + maxDegree + " (node " + node + ")");
 	System.out.println("Diameter = " +  diameter + " (from node " + src + " to " + dst + ")");
-	System.out.println("Avg. path length = " + avgPathLen + "\n");
+	System.out.println("Avg. path length = " + avgPathLen + " (over " + paths.numPaths() + " of " + (long) graph.numVertices() * (graph.numVertices() - 1) + " pairs, the rest are unreachable)");
+	printComponents(graph);
 	
 }
+/**
+ * Prints approximate graph statistics, for graphs too large for the exact all-pairs search
+ */
+public static void approximateStatistics() {
+	CsrGraph graph = filteredGraph();
+	ApproximateStatistics stats = ApproximateStatistics.compute(graph, 0.05, 64, parallelism);
+	System.out.println("|V| = " + stats.numVertices());
+	System.out.println("|E| = " + stats.numEdges());
+	System.out.println("Density: " + (float) stats.density());
+	System.out.println("Max degree = " + stats.maxDegree() + " (node " + (stats.maxDegreeVertex() + 1) + ")");
+	if(stats.isDiameterExact()) {
+		System.out.println("Diameter = " + stats.diameter() + " (exact for the component of node " + (stats.maxDegreeVertex() + 1) + ")");
+	} else {
+		System.out.println("Diameter ~ " + stats.diameter() + " (at most " + stats.diameterUpperBound() + ", for the component of node " + (stats.maxDegreeVertex() + 1) + ")");
+	}
+	System.out.printf("Avg. path length ~ %.3f (+/- %.3f at 95%% confidence)%n", stats.averagePathLength(), stats.averagePathLengthMargin());
+	System.out.println("Computed in " + stats.elapsedMillis() + " ms");
+	printComponents(graph);
+}
+/**
+ * Prints how many pieces a graph falls into and how large they are
+ * @param graph the graph
+ */
+public static void printComponents(CsrGraph graph) {
+	Components weak = Components.weak(graph, parallelism);
+	Components strong = Components.strong(graph);
+	System.out.println("Weakly connected: " + weak + " (largest has " + weak.largestSize() + " movies)");
+	System.out.println("Strongly connected: " + strong + " (largest has " + strong.largestSize() + " movies)\n");
+}
 /**
  * Prints information about a node
  * @param scan scanner being used
@@ -136,12 +263,27 @@ public static void nodeInformation(Scanner scan){
 	while(flag) {
 		try {
 			int choice = Integer.parseInt(scan.nextLine()) - 1;
-			System.out.println(movies.get(choice));
-			System.out.println("Neighbors: ");
-			flag = false;
-		
-			for (Integer movieID : G.getNeighbors(choice)) {
-				System.out.println("\t" + movies.get(movieID).getTitle());
+			synchronized(model) {
+				System.out.println(movies.get(choice));
+				if(tags != null && choice >= 0 && choice < tags.numMovies()) {
+					System.out.print("Tags: ");
+					for(int tag : tags.tagsOf(choice)) {
+						System.out.print("[" + tags.name(tag) + "] ");
+					}
+					System.out.println();
+				}
+				System.out.println(genreFilter == null ? "Neighbors: " : "Neighbors in " + genreFilter + ": ");
+				flag = false;
+			
+				if(genreFilter == null) {
+					for (Integer movieID : G.getNeighbors(choice)) {
+						System.out.println("\t" + movies.get(movieID).getTitle());
+					}
+				} else { //only the neighbors with one of the genres
+					for (int movieID : genreFilter.neighbors(csrGraph(), choice)) {
+						System.out.println("\t" + movies.get(movieID).getTitle());
+					}
+				}
 			}
 			System.out.println();
 				
@@ -151,27 +293,24 @@ public static void nodeInformation(Scanner scan){
 	}
 }
 /**
- * print the path found from Dijkstra's algorithm
- * @param prev list of previous nodes
+ * print a path between two movies
+ * @param path the movies on the path, empty if there is no path
  * @param src source node
  * @param dest destination node
  */
-public static void printPath(Integer[] prev, int src, int dest) {
-	int end = dest;
-	ArrayList<Integer> path = new ArrayList<Integer>();
-	while(prev[dest] != src && prev[dest] != null ) { //if the current node is on the path
-		dest = prev[dest];
-		path.add(dest);
+public static void printPath(List<Integer> path, int src, int dest) {
+	if(path.isEmpty()) {
+		System.out.println("\nThere is no path from " + movies.get(src).getTitle() + " to " + movies.get(dest).getTitle() + "\n");
+		return;
 	}
-	Collections.reverse(path); //reverse the path
 	System.out.print("\n" + movies.get(src).getTitle() + "-> ");
-	for(int i = 0; i < path.size(); i++) {
+	for(int i = 1; i < path.size() - 1; i++) { //the movies between src and dest
 		System.out.println(movies.get(path.get(i)).getTitle() + "-> ");
-	}//
-	System.out.println(movies.get(end).getTitle() + "\n");
+	}
+	System.out.println(movies.get(dest).getTitle() + "\n");
 }
 /**
- * User chose option 3, and now we run Dijkstra's algorithm
+ * User chose option 3, and now we search for the shortest path between two movies
  * @param scan scanner being used
  */
 public static void printDijkstra(Scanner scan) {
@@ -184,17 +323,333 @@ public static void printDijkstra(Scanner scan) {
 			System.out.print("Enter destination node (1-1000): ");
 			dest = Integer.parseInt(scan.nextLine()) - 1;
 			
-			Integer[] prev = GraphAlgorithms.dijkstrasAlgorithm(G, src);
-			printPath(prev, src, dest);
+			synchronized(model) {
+				List<Integer> path;
+				if(genreFilter == null) {
+					path = pathCache.shortestPath(csrGraph(), null, src, dest); //cached for sources asked about before
+				} else { //only through movies with one of the genres
+					path = filteredPathQuery().shortestPath(src, dest, genreFilter);
+				}
+				printPath(path, src, dest);
+				if(genreFilter == null && !path.isEmpty()) { //the path found searching only the communities on the way
+					CommunityPathQuery communities = communityPathQuery();
+					int hops = communities.shortestPath(src, dest).size() - 1;
+					System.out.println("Through the communities on the way: " + hops + " hop(s), " + communities.lastQueryVisited() + " movies reached\n");
+				}
+			}
 			flag = false;
 			
-		} catch(NumberFormatException e) {
+		} catch(IllegalArgumentException e) { //not a number or not a movie in the graph
+			flag = true;
+		}
+		
+	}while(flag);
+	
+}
+/**
+ * Prints the movies with the highest PageRank, betweenness and closeness
+ */
+public static void printCentrality() {
+	CsrGraph graph = filteredGraph();
+	if(centrality == null) {
+		centrality = new Centrality(parallelism);
+	}
+	long start = System.nanoTime();
+	printTop("PageRank", centrality.pageRank(graph));
+	printTop("Betweenness (estimated)", centrality.betweenness(graph));
+	printTop("Closeness (estimated)", centrality.closeness(graph));
+	System.out.println("Computed in " + (System.nanoTime() - start) / 1000000 + " ms\n");
+}
+/**
+ * Prints the movies with the highest scores
+ * @param name name of the score
+ * @param scores a score per movie
+ */
+public static void printTop(String name, double[] scores) {
+	System.out.println(name + ":");
+	for(int movieID : Centrality.top(scores, TOP_MOVIES)) {
+		System.out.printf("\t%.6g\t%s%n", scores[movieID], movies.get(movieID).getTitle());
+	}
+}
+/**
+ * Groups the movies into communities and describes the largest ones
+ */
+public static void printCommunities() {
+	CsrGraph graph = filteredGraph();
+	long start = System.nanoTime();
+	Communities propagated = Communities.labelPropagation(graph, 1, parallelism);
+	long middle = System.nanoTime();
+	Communities louvain = Communities.louvain(graph);
+	long end = System.nanoTime();
+	System.out.println("Label propagation: " + propagated + " (" + (middle - start) / 1000000 + " ms)");
+	System.out.println("Louvain: " + louvain + " (" + (end - middle) / 1000000 + " ms)");
+	CsrGraph condensed = louvain.condense(graph);
+	System.out.println("Condensed graph: " + condensed.numVertices() + " communities, " + condensed.numEdges() + " edges between them");
+	int[] largest = louvain.bySize();
+	for(int i = 0; i < Math.min(LISTED_COMMUNITIES, largest.length); i++) {
+		int[] members = louvain.members(largest[i]);
+		Integer[] byRatings = new Integer[members.length];
+		for(int k = 0; k < members.length; k++) {
+			byRatings[k] = members[k];
+		}
+		Arrays.sort(byRatings, (a, b) -> movies.get(b).numRatings() - movies.get(a).numRatings()); //most rated first
+		System.out.print("Community " + (i + 1) + " (" + members.length + (members.length == 1 ? " movie): " : " movies): "));
+		for(int k = 0; k < Math.min(3, byRatings.length); k++) {
+			System.out.print((k > 0 ? "; " : "") + movies.get(byRatings[k]).getTitle());
+		}
+		System.out.println(byRatings.length > 3 ? "; ..." : "");
+	}
+	System.out.println();
+}
+/**
+ * Returns the path queries used when genres are chosen, making them again whenever the
+ * graph has been rebuilt
+ * @return path queries over csrGraph()
+ */
+public static PathQuery filteredPathQuery() {
+	CsrGraph graph = csrGraph();
+	if(filteredPaths == null || filteredPaths.graph() != graph) {
+		filteredPaths = new PathQuery(graph);
+	}
+	return filteredPaths;
+}
+/**
+ * Returns the path queries that keep to the communities on the way, finding the
+ * communities again whenever the graph has been rebuilt
+ * @return path queries over csrGraph()
+ */
+public static CommunityPathQuery communityPathQuery() {
+	CsrGraph graph = csrGraph();
+	if(communityPaths == null || communityPaths.graph() != graph) {
+		communityPaths = new CommunityPathQuery(graph, Communities.louvain(graph));
+	}
+	return communityPaths;
+}
+/**
+ * Asks for the genres the queries should be restricted to
+ * @param scan scanner being used
+ */
+public static void chooseGenres(Scanner scan) {
+	System.out.println("Genres: " + String.join(", ", Genres.names(-1L)));
+	System.out.print("Enter genres separated by | (blank for every movie): ");
+	boolean flag = true; //used to end while loop for incorrect user input
+	while(flag) {
+		try {
+			long mask = Genres.mask(scan.nextLine());
+			synchronized(model) {
+				genreFilter = mask == 0 ? null : new GenreFilter(Genres.masks(movies), mask);
+				filtered = null;
+			}
+			System.out.println(genreFilter == null ? "Queries cover every movie\n" : "Queries are restricted to " + genreFilter + "\n");
+			flag = false;
+		} catch(IllegalArgumentException e) { //a genre that no movie has
+			System.out.print("Please enter known genres separated by |: ");
+		}
+	}
+}
+/**
+ * Returns the ratings the structures derived from G are built from: the loaded matrix, or
+ * once ratings have been added, a matrix of every rating kept by the updater
+ * @return the current ratings
+ */
+public static RatingMatrix currentRatings() {
+	return updater == null ? ratings : updater.getRatings();
+}
+/**
+ * Returns G weighted by 1 - cosine similarity, making it the first time it is needed
+ * @return the weighted graph
+ */
+public static WeightedGraph weightedGraph() {
+	if(weighted == null) {
+		weighted = new CoRatingGraphBuilder(currentRatings()).buildWeighted(adjacency, threshold, Similarity.COSINE, parallelism);
+	}
+	return weighted;
+}
+/**
+ * User chose option 6, and now we search for the path between two movies that passes
+ * through the most similar movies
+ * @param scan scanner being used
+ */
+public static void printSimilarPath(Scanner scan) {
+	if(!ratingGraph()) {
+		return;
+	}
+	boolean flag = true; //used to terminate while loop
+	int src = 0, dest = 0;
+	do {
+		System.out.print("Enter starting node (1-1000): ");
+		try {
+			src = Integer.parseInt(scan.nextLine()) - 1;
+			System.out.print("Enter destination node (1-1000): ");
+			dest = Integer.parseInt(scan.nextLine()) - 1;
+			
+			synchronized(model) {
+				WeightedGraph graph = weightedGraph();
+				List<Integer> path = similarPathCache.shortestPath(graph, graph.getWeights(), src, dest);
+				printPath(path, src, dest);
+				if(path.size() > 1) {
+					float length = 0;
+					for(int i = 1; i < path.size(); i++) {
+						length += graph.weight(path.get(i - 1), path.get(i));
+					}
+					System.out.printf("Total distance (1 - cosine similarity per hop): %.4f%n%n", length);
+				}
+			}
+			flag = false;
+			
+		} catch(IllegalArgumentException e) { //not a number or not a movie in the graph
 			flag = true;
 		}
 		
 	}while(flag);
 	
 }
+/**
+ * Returns the index of the most similar movies by cosine similarity, reading it from its
+ * snapshot or building it and saving a snapshot the first time it is needed
+ * @return the similarity index
+ */
+public static SimilarityIndex similarityIndex() {
+	if(similar != null) {
+		return similar;
+	}
+	long key = Snapshot.indexKey(dataKey, Similarity.COSINE.name(), SIMILAR_MOVIES, threshold);
+	Path file = snapshots == null ? null : Snapshot.file(snapshots, key);
+	if(file != null) {
+		try {
+			similar = Snapshot.readIndex(file, key);
+		} catch(IOException e) {
+			System.out.println("Could not read " + file + ": " + e);
+		}
+	}
+	if(similar == null) {
+		similar = SimilarityIndex.build(currentRatings(), Similarity.COSINE, SIMILAR_MOVIES, threshold, parallelism);
+		if(file != null) {
+			try {
+				Snapshot.writeIndex(file, key, similar);
+			} catch(IOException e) {
+				System.out.println("Could not save " + file + ": " + e);
+			}
+		}
+	}
+	return similar;
+}
+/**
+ * Prints the movies most similar to a movie, with their cosine similarity
+ * @param scan scanner being used
+ */
+public static void printSimilarMovies(Scanner scan) {
+	System.out.print("Enter movie id (1-1000): ");
+	boolean flag = true; //used to end while loop for incorrect user input
+	while(flag) {
+		try {
+			int choice = Integer.parseInt(scan.nextLine()) - 1;
+			synchronized(model) {
+				List<Pair<Float, Integer>> neighbors = similarityIndex().neighbors(choice);
+				flag = false;
+				System.out.println("Movies most similar to " + movies.get(choice).getTitle() + ": ");
+				for(Pair<Float, Integer> neighbor : neighbors) {
+					System.out.printf("\t%.3f  %s%n", neighbor.priority, movies.get(neighbor.element).getTitle());
+				}
+				if(neighbors.isEmpty()) {
+					System.out.println("\tNo movie shares " + threshold + " reviewers with it");
+				}
+			}
+			System.out.println();
+		} catch(IllegalArgumentException e) { //not a number or not a movie
+			System.out.print("Please enter a movie id (1-1000): ");
+		}
+	}
+}
+/**
+ * Adds a rating to the data and updates G in place. The first rating switches G to a
+ * mutable graph kept current by a {@link CoRatingGraphUpdater}; the structures derived from
+ * G are rebuilt from the updater's ratings when next needed, and no longer saved since they
+ * no longer match the files.
+ * @param userId the reviewer id
+ * @param movieId the movie id
+ * @param rating the rating
+ * @return the number of pairs of movies whose edge was added or removed
+ */
+public static int addRating(int userId, int movieId, double rating) {
+	if(updater == null) {
+		updater = new CoRatingGraphUpdater(movies, reviewers, ratings, adjacency, threshold);
+		G = updater.getGraph();
+	}
+	int changed = updater.addRating(userId, movieId, rating);
+	snapshots = null;
+	if(changed > 0) { //the path caches see the new csr and drop their trees
+		csr = null;
+	}
+	weighted = null;
+	similar = null;
+	return changed;
+}
+/**
+ * User chose option 8, and now we add a rating and update the graph
+ * @param scan scanner being used
+ */
+public static void printAddRating(Scanner scan) {
+	if(!ratingGraph()) {
+		return;
+	}
+	boolean flag = true; //used to terminate while loop
+	do {
+		try {
+			System.out.print("Enter user id: ");
+			int userId = Integer.parseInt(scan.nextLine());
+			System.out.print("Enter movie id (1-1000): ");
+			int movieId = Integer.parseInt(scan.nextLine()) - 1;
+			System.out.print("Enter rating (0.5-5.0): ");
+			double rating = Double.parseDouble(scan.nextLine());
+			synchronized(model) {
+				int changed = addRating(userId, movieId, rating);
+				System.out.println("Rating added, " + changed + " edge(s) changed, |E| = " + G.numEdges() + "\n");
+			}
+			flag = false;
+		} catch(IllegalArgumentException e) { //not a number or not a movie in the graph
+			System.out.println("Please enter a valid user, movie and rating");
+		}
+	} while(flag);
+}
+/**
+ * User chose option 9: starts following the ratings file, adding every rating appended to
+ * it to the data and to G, or prints the progress of the tailer if it is already running
+ */
+public static void followRatings() {
+	if(tailer == null) {
+		if(!ratingGraph()) {
+			return;
+		}
+		try {
+			tailer = new RatingTailer(loader, ratingsFile, movieFile, loadedBytes, batch -> {
+				for(int i = 0; i < batch.size(); i++) {
+					addRating(batch.userId(i), batch.movieId(i), batch.rating(i));
+				}
+			});
+			Path offsets = Snapshot.directoryFor(ratingsFile);
+			Files.createDirectories(offsets);
+			tailer.setOffsetFile(offsets.resolve(Paths.get(ratingsFile).getFileName() + ".offset"));
+			tailer.setLock(model);
+			tailer.start(200);
+			System.out.println("Following " + ratingsFile + " from byte " + tailer.getOffset() + "\n");
+		} catch(IOException e) {
+			System.out.println("Could not follow " + ratingsFile + ": " + e + "\n");
+			tailer = null;
+		}
+		return;
+	}
+	System.out.println("Ratings applied: " + tailer.ratingsApplied() + " in " + tailer.batchesApplied() + " batches");
+	System.out.printf("Throughput: %.1f ratings/s (%.0f ratings/s while applying)%n", tailer.ratingsPerSecond(), tailer.applyRatingsPerSecond());
+	System.out.println("Lag: " + tailer.bytesBehind() + " bytes behind, oldest pending rating " + tailer.lagMillis() + " ms old");
+	if(tailer.ratingsSkipped() > 0) {
+		System.out.println("Skipped " + tailer.ratingsSkipped() + " rejected rating(s), last: " + tailer.getRejection().getMessage());
+	}
+	if(tailer.getFailure() != null) {
+		System.out.println("Last error: " + tailer.getFailure());
+	}
+	System.out.println("|E| = " + G.numEdges() + "\n");
+}
 /**
  * Searches through each movie title, and compares each word in the movie title to the search key entered. 
  * If the key is found in a movie title, it is added to a set of movies titles with that word, which
@@ -202,25 +657,21 @@ public static void printDijkstra(Scanner scan) {
  * @param scan scanner being used in main
  */
 public static void searchByKeyword(Scanner scan) {
-	System.out.print("Enter a keyword: ");
+	System.out.print("Enter keywords (word* matches the start of a word, OR matches either side): ");
 	String str = scan.nextLine();
-	Set<String> moviesFound = new HashSet<String>();
+	synchronized(model) {
+		int[] found = titles.search(str); //most rated first
 
-		for(Movie movie : movies.values()) { 
-			for(String word : movie.getTitle().split("\\s+")) { //split movie by white spaces
-				if(word.contains(str)) { //if we have found a match
-				moviesFound.add(movie.getTitle());
-				}	
-			}
-		}
-		if(moviesFound.size() == 0) { //if no movies were found
+		if(found.length == 0) { //if no movies were found
 			System.out.println("No movies were found with the word [" + str + "]");
 		} else {
 			System.out.println("Movies found with the word [" + str + "]: ");
-			for(String found : moviesFound) {
-				System.out.println("\t" + found);
+			for(int id : found) {
+				Movie movie = movies.get(id);
+				System.out.println("\t" + movie.getTitle() + " (" + movie.numRatings() + " ratings)");
 			}
 		}
+	}
 
 		System.out.println();
 }
@@ -230,17 +681,24 @@ public static void searchByKeyword(Scanner scan) {
  */
 public static void graphOptions(Scanner scan) {
 	boolean flag = true; //used to terminate determine if menu options should be printed again
+	int options = tags == null ? 2 : 3; //the tag graph is only offered when there are tags
 	do {
 		if(flag) {
-		System.out.println("There are 2 choices for defining adjacency: ");
-		System.out.println("[Option 1] u and v are adjacent if the same 12 users gave the same rating to both movies");
-		System.out.println("[Option 2] u and v are adjacent if the same 12 users watched both movies (regardless of rating)" + "\n");
-		System.out.print("Choose an option to build the graph (1-2): ");
+		System.out.println("There are " + options + " choices for defining adjacency: ");
+		System.out.println("[Option 1] u and v are adjacent if the same " + threshold + " users gave the same rating to both movies");
+		System.out.println("[Option 2] u and v are adjacent if the same " + threshold + " users watched both movies (regardless of rating)" + (tags == null ? "\n" : ""));
+		if(tags != null) {
+			System.out.println("[Option 3] u and v are adjacent if users gave both movies at least " + TagGraphBuilder.DEFAULT_THRESHOLD + " of the same tags" + "\n");
+		}
+		System.out.print("Choose an option to build the graph (1-" + options + "): ");
 		flag = false; //
 		}
 		int choice;
 		try {
 			choice = Integer.parseInt(scan.nextLine());
+			if(choice > options) {
+				choice = 0; //not offered, so treated as invalid
+			}
 			System.out.print("Creating graph... ");
 			switch(choice) {
 			case 1: 
@@ -253,13 +711,18 @@ public static void graphOptions(Scanner scan) {
 				System.out.println("graph has been created \n");
 				exploreGraph(scan); //next menu
 				break;
-			default: //user entered number that wasn't 1 or 2
-				System.out.println("\nPlease enter a valid option (1-2) \n");
+			case 3:
+				graphOption3(); //build graph
+				System.out.println("graph has been created \n");
+				exploreGraph(scan); //next menu
+				break;
+			default: //user entered number that wasn't an option
+				System.out.println("\nPlease enter a valid option (1-" + options + ") \n");
 				flag = true;					
 			}
 			
 		} catch (NumberFormatException e) { //user entered something that couldnt be converted to an integer
-			System.out.println("\nPlease enter a valid option (1-2) \n");
+			System.out.println("\nPlease enter a valid option (1-" + options + ") \n");
 			flag = true;
 		}
 	}	while(true); //infinite loop because terminating condition is in next menu
@@ -276,14 +739,26 @@ public static void graphOptions(Scanner scan) {
 		System.out.println("[Option 2] Print node information");
 		System.out.println("[Option 3] Display shortest path between two nodes");
 		System.out.println("[Option 4] Search for movie by keyword");
-		System.out.println("[Option 5] Quit");
-		System.out.print("Choose an option (1-5): ");
+		System.out.println("[Option 5] Print approximate statistics about the graph");
+		System.out.println("[Option 6] Display the most similar path between two nodes");
+		System.out.println("[Option 7] List the movies most similar to a movie");
+		System.out.println("[Option 8] Add a rating and update the graph");
+		System.out.println("[Option 9] Follow ratings appended to the ratings file");
+		System.out.println("[Option 10] Restrict queries to genres (now " + (genreFilter == null ? "every movie" : genreFilter) + ")");
+		System.out.println("[Option 11] List the most central movies");
+		System.out.println("[Option 12] Find communities of movies");
+		System.out.println("[Option 13] Quit");
+		System.out.print("Choose an option (1-13): ");
 			try {
 				choice = Integer.parseInt(scan.nextLine());
 				System.out.println();
+				//the options read their input first and hold model only while they use the data,
+				//so ratings being followed wait for a query but not for the user to type
 				switch(choice) {
 				case 1:
-					graphStatistics();
+					synchronized(model) {
+						graphStatistics();
+					}
 					break;
 					//FW
 				case 2:
@@ -298,28 +773,133 @@ public static void graphOptions(Scanner scan) {
 					searchByKeyword(scan);
 					break;
 				case 5:
+					synchronized(model) {
+						approximateStatistics();
+					}
+					break;
+				case 6:
+					printSimilarPath(scan);
+					break;
+				case 7:
+					printSimilarMovies(scan);
+					break;
+				case 8:
+					printAddRating(scan);
+					break;
+				case 9:
+					synchronized(model) {
+						followRatings();
+					}
+					break;
+				case 10:
+					chooseGenres(scan);
+					break;
+				case 11:
+					synchronized(model) {
+						printCentrality();
+					}
+					break;
+				case 12:
+					synchronized(model) {
+						printCommunities();
+					}
+					break;
+				case 13:
 					scan.close();
 					System.out.println("Exiting program... Goodbye :)");
 					System.exit(0);
-				default: System.out.print("Please enter a valid option (1-5): ");
-					
+				default: System.out.print("Please enter a valid option (1-13): ");
+				
 				}
 			} catch(NumberFormatException e) {
-				System.out.print("Please enter a valid option (1-4): ");
+				System.out.print("Please enter a valid option (1-13): ");
 			}
-		} while(choice != 5);
+		} while(choice != 13);
 
 	}
-	public static void main(String[] args) {
-		if (args.length != 2) {
-			System.err.println("Usage: java MovieLensAnalyzer [ratings_file] [movie_title_file]");
+	/**
+	 * Builds the graph for an adjacency option and answers queries about it over a local
+	 * socket until the program is stopped
+	 * @param port the port to listen on, 0 picks a free one
+	 * @param option the adjacency option from the graph menu, 1 or 2
+	 */
+	public static void serve(int port, int option) {
+		if(option == 1) {
+			graphOption1();
+		} else if(option == 2) {
+			graphOption2();
+		} else {
+			graphOption3();
+		}
+		System.out.println("Graph has " + csr.numVertices() + " movies and " + csr.numEdges() + " edges");
+		QueryServer server = new QueryServer(csr, movies, titles, parallelism);
+		try {
+			port = server.start(port);
+		} catch(IOException e) {
+			System.err.println("Could not listen on port " + port + ": " + e);
 			System.exit(-1);
 		}
+		System.out.println("Answering queries on 127.0.0.1:" + port + (Parallel.hasVirtualThreads() ? " with virtual threads" : ""));
+		try {
+			server.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	/**
+	 * Prints how to run the program and exits
+	 */
+	public static void usage() {
+		System.err.println("Usage: java MovieLensAnalyzer [--serve port [--adjacency 1|2|3]] [ratings_file] [movie_title_file] [threshold] [parallelism]");
+		System.exit(-1);
+	}
+	public static void main(String[] args) {
+		int port = -1, option = 1; //port is -1 unless the graph is served
+		try {
+			if (args.length >= 2 && args[0].equals("--serve")) {
+				port = Integer.parseInt(args[1]);
+				args = Arrays.copyOfRange(args, 2, args.length);
+				if (args.length >= 2 && args[0].equals("--adjacency")) {
+					option = Integer.parseInt(args[1]);
+					args = Arrays.copyOfRange(args, 2, args.length);
+				}
+			}
+			if (args.length >= 3) {
+				threshold = Integer.parseInt(args[2]);
+			}
+			if (args.length == 4) {
+				parallelism = Integer.parseInt(args[3]);
+			}
+		} catch (NumberFormatException e) { //port, option, threshold or parallelism is not a number
+			usage();
+		}
+		if (args.length < 2 || args.length > 4 || option < 1 || option > 3 || port < -1 || port > 65535 || threshold < 1 || parallelism < 0) {
+			usage();
+		}
 		
 		DataLoader p = new DataLoader();
-		p.loadData(args[0], args[1]);
+		loader = p;
+		ratingsFile = args[0];
+		movieFile = args[1];
+		try {
+			loadedBytes = Files.size(Paths.get(ratingsFile)); //lines appended later are followed
+		} catch(IOException e) {
+			loadedBytes = 0;
+		}
+		loadData(p, args[0], args[1]);
 		reviewers = p.getReviewers();
 		movies = p.getMovies();
+		ratings = p.getRatingMatrix();
+		titles = new TitleIndex(movies);
+		loadTags();
+		if (option == 3 && tags == null) {
+			System.err.println("Option 3 needs a tags.csv file next to the ratings file");
+			System.exit(-1);
+		}
+		if (port >= 0) {
+			serve(port, option);
+			return;
+		}
 		
 		Scanner scan = new Scanner(System.in);
 		System.out.println("========= Welcome to MovieLens Analyzer =========");
@@ -0,0 +1,471 @@
+package analyzer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import data.Genres;
+import data.Movie;
+import data.TitleIndex;
+import graph.ApproximateStatistics;
+import graph.Centrality;
+import graph.CsrGraph;
+import graph.GenreFilter;
+import graph.PathQuery;
+import util.Parallel;
+
+/* ================================================================================
+ Name        : QueryServer
+ Authors     : Madison Sanchez-Forman
+ Version     : 10.17.26
+ Description : Answers queries about a movie graph over a local socket, so many
+ clients can explore the same graph at once.
+ ================================================================================ */
+
+/**
+ * Serves a loaded movie graph to any number of clients. Every connection is handled on a
+ * thread of its own from {@link Parallel#newThreadPerTaskExecutor()}, a virtual thread on
+ * Java 21 and later, and all of them share one immutable {@link CsrGraph}, so requests need
+ * no locking.
+ *
+ * The protocol is one request per line and one JSON object per response line. Movie ids
+ * are numbered from 1 as in the interactive menu.
+ *
+ * <pre>
+ * neighbors ID [GENRES]      the movie and its neighbors
+ * path SRC DEST [GENRES]     a shortest path between two movies, length -1 if there is none
+ * stats [GENRES]             size, density, max degree, diameter and average path length
+ * search QUERY               the 100 most rated movies matching a {@link TitleIndex} query
+ * top SCORE [N]              the N (default 10) movies with the highest pagerank,
+ *                            betweenness or closeness
+ * ping                       an empty response
+ * quit                       closes the connection
+ * </pre>
+ *
+ * GENRES, such as Comedy|Drama, restricts a request to the movies with any of the genres:
+ * only those neighbors are listed, paths only pass through them and the statistics are
+ * those of the subgraph they induce. The endpoints of a path need not have the genres.
+ *
+ * Successful responses have "ok":true; errors have "ok":false and an "error" message.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class QueryServer implements AutoCloseable {
+	private static final int SEARCH_LIMIT = 100; // most movies listed for a search
+	private static final int TOP_DEFAULT = 10; // movies listed by top unless another number is given
+
+	private final CsrGraph graph;
+	private final Map<Integer, Movie> movies;
+	private final TitleIndex titles;
+	private final PathQuery paths;
+	private final Centrality centrality; // the scores, computed on the first request for each
+	private final int parallelism;
+	private final long[] genres; // genre mask of every movie, indexed by movie id
+	private final Map<Long, CompletableFuture<String>> stats = new ConcurrentHashMap<>(); // stats responses by genre mask, 0 for every movie
+
+	private ServerSocket server;
+	private ExecutorService executor;
+	private Thread acceptor;
+	private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+	private final AtomicLong connections = new AtomicLong(), requests = new AtomicLong();
+
+	/**
+	 * Prepares to serve a graph
+	 *
+	 * @param graph       the graph, whose vertices are movie ids
+	 * @param movies      map from movie id to movie; it must not change while serving
+	 * @param titles      the index of the movie titles
+	 * @param parallelism the number of threads used to compute the statistics, 0 uses every
+	 *                    processor
+	 */
+	public QueryServer(CsrGraph graph, Map<Integer, Movie> movies, TitleIndex titles, int parallelism) {
+		this.graph = graph;
+		this.movies = movies;
+		this.titles = titles;
+		this.paths = new PathQuery(graph);
+		this.genres = Genres.masks(movies);
+		this.centrality = new Centrality(parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Starts accepting connections on the loopback interface
+	 *
+	 * @param port the port, or 0 for any free port
+	 * @return the port the server listens on
+	 * @throws IOException if the port cannot be opened
+	 */
+	public synchronized int start(int port) throws IOException {
+		if (server != null) {
+			throw new IllegalStateException("server is already running, cannot start()");
+		}
+		server = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress());
+		executor = Parallel.newThreadPerTaskExecutor();
+		ServerSocket listening = server;
+		acceptor = new Thread(() -> {
+			while (!listening.isClosed()) {
+				try {
+					Socket socket = listening.accept();
+					connections.incrementAndGet();
+					open.add(socket);
+					executor.execute(() -> serve(socket));
+				} catch (IOException e) {
+					if (!listening.isClosed()) {
+						System.out.println("Could not accept a connection: " + e);
+					}
+				}
+			}
+		}, "query-server-accept");
+		acceptor.start();
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Stops accepting connections and closes the open ones
+	 *
+	 * @throws IOException if the server socket cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		ServerSocket listening;
+		synchronized (this) {
+			listening = server;
+			server = null;
+		}
+		if (listening == null) {
+			return;
+		}
+		listening.close();
+		for (Socket socket : open) {
+			socket.close();
+		}
+		executor.shutdown();
+		try {
+			acceptor.join();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits until the server is closed
+	 *
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public void join() throws InterruptedException {
+		Thread t;
+		synchronized (this) {
+			t = acceptor;
+		}
+		if (t != null) {
+			t.join();
+		}
+	}
+
+	/**
+	 * Returns the number of connections accepted so far
+	 *
+	 * @return the number of connections
+	 */
+	public long numConnections() {
+		return connections.get();
+	}
+
+	/**
+	 * Returns the number of connections that are open now
+	 *
+	 * @return the number of open connections
+	 */
+	public int numOpenConnections() {
+		return open.size();
+	}
+
+	/**
+	 * Returns the number of requests answered so far
+	 *
+	 * @return the number of requests
+	 */
+	public long numRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * Answers the requests of one connection until the client quits or hangs up
+	 */
+	private void serve(Socket socket) {
+		try (Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+			StringBuilder response = new StringBuilder();
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				line = line.trim();
+				if (line.equals("quit")) {
+					break;
+				}
+				if (line.isEmpty()) {
+					continue;
+				}
+				response.setLength(0);
+				answer(line, response);
+				requests.incrementAndGet();
+				out.append(response).append('\n');
+				if (!in.ready()) { // flush once a pipelined burst of requests is answered
+					out.flush();
+				}
+			}
+			out.flush();
+		} catch (SocketException e) {
+			// the client hung up or the server is closing
+		} catch (IOException e) {
+			System.out.println("Connection failed: " + e);
+		} finally {
+			open.remove(socket);
+		}
+	}
+
+	/**
+	 * Appends the JSON response to one request
+	 *
+	 * @param request  the request line
+	 * @param response receives the response, without a line break
+	 */
+	void answer(String request, StringBuilder response) {
+		String[] words = request.split("\\s+", 2);
+		String command = words[0].toLowerCase(Locale.ROOT);
+		String argument = words.length > 1 ? words[1].trim() : "";
+		try {
+			switch (command) {
+			case "neighbors": {
+				String[] parts = argument.split("\\s+", 2);
+				neighbors(movieId(parts[0]), filter(parts.length > 1 ? parts[1] : ""), response);
+				break;
+			}
+			case "path": {
+				String[] parts = argument.split("\\s+", 3);
+				if (parts.length < 2) {
+					throw new IllegalArgumentException("usage: path SRC DEST [GENRES]");
+				}
+				path(movieId(parts[0]), movieId(parts[1]), filter(parts.length > 2 ? parts[2] : ""), response);
+				break;
+			}
+			case "stats":
+				response.append(stats(filter(argument)));
+				break;
+			case "search":
+				search(argument, response);
+				break;
+			case "top":
+				top(argument, response);
+				break;
+			case "ping":
+				response.append("{\"ok\":true}");
+				break;
+			default:
+				throw new IllegalArgumentException("unknown command " + command);
+			}
+		} catch (RuntimeException e) { // a bad request, or a query that failed; the connection stays open
+			String message = e instanceof IllegalArgumentException && e.getMessage() != null ? e.getMessage() : e.toString();
+			response.setLength(0);
+			response.append("{\"ok\":false,\"error\":");
+			string(message, response).append('}');
+		}
+	}
+
+	/**
+	 * Parses a movie id numbered from 1 and returns the vertex
+	 */
+	private int movieId(String text) {
+		int id;
+		try {
+			id = Integer.parseInt(text.trim()) - 1;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("not a movie id: " + text);
+		}
+		if (!graph.hasVertex(id) || !movies.containsKey(id)) {
+			throw new IllegalArgumentException("no movie with id " + (id + 1));
+		}
+		return id;
+	}
+
+	/**
+	 * Parses the genres a request is restricted to
+	 *
+	 * @return the filter, or null if no genres were given
+	 */
+	private GenreFilter filter(String text) {
+		long mask = Genres.mask(text);
+		return mask == 0 ? null : new GenreFilter(genres, mask);
+	}
+
+	private void neighbors(int movie, GenreFilter filter, StringBuilder response) {
+		response.append("{\"ok\":true,\"movie\":");
+		movie(movie, response).append(",\"neighbors\":[");
+		int[] offsets = graph.getOffsets(), targets = graph.getTargets();
+		boolean first = true;
+		for (int i = offsets[movie]; i < offsets[movie + 1]; i++) {
+			if (filter != null && !filter.accepts(targets[i])) {
+				continue;
+			}
+			if (!first) {
+				response.append(',');
+			}
+			first = false;
+			movie(targets[i], response);
+		}
+		response.append("]}");
+	}
+
+	private void path(int source, int target, GenreFilter filter, StringBuilder response) {
+		List<Integer> path = paths.shortestPath(source, target, filter);
+		response.append("{\"ok\":true,\"found\":").append(!path.isEmpty());
+		response.append(",\"length\":").append(path.size() - 1).append(",\"path\":[");
+		for (int i = 0; i < path.size(); i++) {
+			if (i > 0) {
+				response.append(',');
+			}
+			movie(path.get(i), response);
+		}
+		response.append("]}");
+	}
+
+	private void search(String query, StringBuilder response) {
+		if (query.isEmpty()) {
+			throw new IllegalArgumentException("usage: search QUERY");
+		}
+		int[] found = titles.search(query, SEARCH_LIMIT);
+		response.append("{\"ok\":true,\"movies\":[");
+		for (int i = 0; i < found.length; i++) {
+			if (i > 0) {
+				response.append(',');
+			}
+			movie(found[i], response);
+		}
+		response.append("]}");
+	}
+
+	private void top(String argument, StringBuilder response) {
+		String[] parts = argument.split("\\s+");
+		double[] scores;
+		switch (parts[0].toLowerCase(Locale.ROOT)) {
+		case "pagerank":
+			scores = centrality.pageRank(graph);
+			break;
+		case "betweenness":
+			scores = centrality.betweenness(graph);
+			break;
+		case "closeness":
+			scores = centrality.closeness(graph);
+			break;
+		default:
+			throw new IllegalArgumentException("usage: top pagerank|betweenness|closeness [N]");
+		}
+		int count = TOP_DEFAULT;
+		if (parts.length > 1) {
+			try {
+				count = Integer.parseInt(parts[1]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("not a number: " + parts[1]);
+			}
+		}
+		response.append("{\"ok\":true,\"scores\":[");
+		int[] top = Centrality.top(scores, Math.min(count, SEARCH_LIMIT));
+		for (int i = 0; i < top.length; i++) {
+			if (i > 0) {
+				response.append(',');
+			}
+			response.append("{\"movie\":");
+			movie(top[i], response).append(",\"score\":").append(scores[top[i]]).append('}');
+		}
+		response.append("]}");
+	}
+
+	/**
+	 * Returns the statistics response for some genres, computing it the first time they are
+	 * asked about. The first request publishes a future and computes the response outside
+	 * the map, so the map is never blocked; other requests for the same genres wait for
+	 * that future. A failure is thrown as it was thrown to the request that computed it.
+	 */
+	private String stats(GenreFilter filter) {
+		long mask = filter == null ? 0L : filter.required();
+		CompletableFuture<String> response = stats.get(mask);
+		if (response == null) {
+			CompletableFuture<String> mine = new CompletableFuture<>();
+			response = stats.putIfAbsent(mask, mine);
+			if (response == null) { // this request computes it
+				response = mine;
+				try {
+					mine.complete(computeStats(filter));
+				} catch (RuntimeException e) { // let a later request try again
+					stats.remove(mask, mine);
+					mine.completeExceptionally(e);
+				}
+			}
+		}
+		try {
+			return response.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	/**
+	 * Computes the statistics response for some genres
+	 */
+	private String computeStats(GenreFilter filter) {
+		ApproximateStatistics a = ApproximateStatistics.compute(filter == null ? graph : filter.subgraph(graph), 0.05, 64,
+				parallelism);
+		return String.format(Locale.ROOT,
+				"{\"ok\":true,\"vertices\":%d,\"edges\":%d,\"density\":%.6f,\"maxDegree\":%d,"
+						+ "\"maxDegreeMovie\":%d,\"diameter\":%d,\"diameterExact\":%b,"
+						+ "\"averagePathLength\":%.4f,\"averagePathLengthMargin\":%.4f}",
+				a.numVertices(), a.numEdges(), a.density(), a.maxDegree(), a.maxDegreeVertex() + 1,
+				a.diameter(), a.isDiameterExact(), a.averagePathLength(), a.averagePathLengthMargin());
+	}
+
+	/**
+	 * Appends {"id":..,"title":..} for a movie
+	 */
+	private StringBuilder movie(int id, StringBuilder response) {
+		response.append("{\"id\":").append(id + 1).append(",\"title\":");
+		Movie movie = movies.get(id);
+		return string(movie == null ? "" : movie.getTitle(), response).append('}');
+	}
+
+	/**
+	 * Appends a string as a JSON string literal
+	 */
+	private static StringBuilder string(String s, StringBuilder response) {
+		response.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				response.append('\\').append(c);
+			} else if (c < 0x20) {
+				response.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+			} else {
+				response.append(c);
+			}
+		}
+		return response.append('"');
+	}
+}
@@ -0,0 +1,637 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import data.Movie;
+import data.RatingMatrix;
+import data.TitleIndex;
+import graph.Centrality;
+import graph.CoRatingGraphBuilder;
+import graph.Communities;
+import graph.CommunityPathQuery;
+import graph.Components;
+import graph.ConcurrentGraph;
+import graph.CsrGraph;
+import graph.Graph;
+import graph.GraphAlgorithms;
+import graph.GraphIfc;
+import graph.PathCache;
+import graph.PathQuery;
+import util.DataLoader;
+import util.IntPriorityQueue;
+import util.PriorityQueue;
+
+/**
+ * Benchmarks for the loader, the graph builders, the priority queues, title search, the
+ * path algorithms, connected components, centrality and communities. Run it with
+ *
+ * <pre>
+ * java bench.Benchmarks [options] ratings_file movie_title_file
+ *
+ *   --warmup N       unmeasured iterations per benchmark (default 3)
+ *   --iterations N   measured iterations per benchmark (default 5)
+ *   --scales LIST    copies of the ratings file to load, e.g. 1,4,16 (default 1,4)
+ *   --sizes LIST     graph sizes for the path algorithms (default 100,250,500,1000)
+ *   --fw-max N       largest graph Floyd-Warshall runs on (default 500)
+ *   --threads LIST   reader threads for the concurrent graph benchmarks (default 1,2,4)
+ *   --only REGEX     only run benchmarks whose name matches
+ *   --json FILE      write the results as JSON
+ *   --csv FILE       write the results as CSV
+ * </pre>
+ *
+ * Scaled-up rating files are made by repeating the given ratings file with the reviewer
+ * ids of each copy shifted past those of the previous one, so every copy adds new
+ * reviewers with the same rating distribution.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Benchmarks {
+	private static final int QUEUE_SIZE = 10000;
+	private static final int SOURCES = 50;
+	private static final int READS = 200000;
+	private static final int TITLES = 60000;
+	private static final String[] QUERIES = { "star", "love", "the", "man", "war*", "night OR day", "toy story", "ing",
+			"2" };
+
+	private int warmup = 3, iterations = 5, fwMax = 500;
+	private int[] scales = { 1, 4 }, sizes = { 100, 250, 500, 1000 }, threads = { 1, 2, 4 };
+	private Pattern only = Pattern.compile(".*");
+	private Path json, csv;
+	private String ratingsFile, movieFile;
+	private Harness harness;
+
+	public static void main(String[] args) throws Exception {
+		Benchmarks b = new Benchmarks();
+		if (!b.parse(args)) {
+			System.err.println("Usage: java bench.Benchmarks [--warmup N] [--iterations N] [--scales 1,4] "
+					+ "[--sizes 100,250] [--fw-max N] [--threads 1,2,4] [--only REGEX] [--json FILE] [--csv FILE] "
+					+ "[ratings_file] [movie_title_file]");
+			System.exit(-1);
+		}
+		b.runAll();
+	}
+
+	/**
+	 * Reads the command line
+	 *
+	 * @return false if it is malformed
+	 */
+	private boolean parse(String[] args) {
+		List<String> files = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--warmup":
+					warmup = Integer.parseInt(args[++i]);
+					break;
+				case "--iterations":
+					iterations = Integer.parseInt(args[++i]);
+					break;
+				case "--scales":
+					scales = parseList(args[++i]);
+					break;
+				case "--sizes":
+					sizes = parseList(args[++i]);
+					break;
+				case "--fw-max":
+					fwMax = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = parseList(args[++i]);
+					break;
+				case "--only":
+					only = Pattern.compile(args[++i]);
+					break;
+				case "--json":
+					json = Paths.get(args[++i]);
+					break;
+				case "--csv":
+					csv = Paths.get(args[++i]);
+					break;
+				default:
+					files.add(args[i]);
+				}
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return false;
+		}
+		if (files.size() != 2 || warmup < 0 || iterations < 1) {
+			return false;
+		}
+		ratingsFile = files.get(0);
+		movieFile = files.get(1);
+		return true;
+	}
+
+	private static int[] parseList(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	/**
+	 * Runs every selected benchmark and writes the reports
+	 */
+	private void runAll() throws Exception {
+		harness = new Harness(warmup, iterations);
+		loaderBenchmarks();
+		DataLoader data = new DataLoader();
+		data.loadData(ratingsFile, movieFile);
+		RatingMatrix matrix = data.getRatingMatrix();
+		buildBenchmarks(matrix);
+		queueBenchmarks();
+		searchBenchmarks(data.getMovies().values());
+		Graph<Integer> G = new CoRatingGraphBuilder(matrix).build(CoRatingGraphBuilder.Adjacency.SAME_RATING,
+				CoRatingGraphBuilder.DEFAULT_THRESHOLD, 0);
+		pathBenchmarks(G);
+		componentBenchmarks(CsrGraph.fromGraph(G));
+		concurrencyBenchmarks(CsrGraph.fromGraph(G));
+		if (json != null) {
+			harness.writeJson(json);
+		}
+		if (csv != null) {
+			harness.writeCsv(csv);
+		}
+	}
+
+	private boolean selected(String name) {
+		return only.matcher(name).find();
+	}
+
+	/*********************************************************
+	 * DataLoader
+	 *********************************************************/
+
+	private void loaderBenchmarks() throws Exception {
+		if (!selected("DataLoader.loadData") && !selected("DataLoader.loadDataMapped")) {
+			return;
+		}
+		for (int scale : scales) {
+			Path file = scale == 1 ? Paths.get(ratingsFile) : scaledRatings(scale);
+			try {
+				long lines = countLines(file) - 1;
+				String params = "scale=" + scale + " ratings=" + lines;
+				if (selected("DataLoader.loadData")) {
+					harness.run("DataLoader.loadData", params, lines, () -> {
+						DataLoader p = new DataLoader();
+						p.loadData(file.toString(), movieFile);
+						return p.getReviewers().size();
+					});
+				}
+				if (selected("DataLoader.loadDataMapped")) {
+					harness.run("DataLoader.loadDataMapped", params, lines, () -> {
+						DataLoader p = new DataLoader();
+						p.loadDataMapped(file.toString(), movieFile, 0);
+						return p.getReviewers().size();
+					});
+				}
+			} finally {
+				if (scale != 1) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a temporary ratings file holding the given number of copies of the ratings
+	 * file, each with its own reviewers
+	 */
+	private Path scaledRatings(int scale) throws IOException {
+		List<String[]> rows = new ArrayList<>();
+		String header;
+		int maxUser = 0;
+		try (BufferedReader in = Files.newBufferedReader(Paths.get(ratingsFile), StandardCharsets.UTF_8)) {
+			header = in.readLine();
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				String[] fields = line.split(",", 2);
+				try {
+					maxUser = Math.max(maxUser, Integer.parseInt(fields[0]));
+					rows.add(fields);
+				} catch (NumberFormatException e) {
+					// a malformed line is not worth copying
+				}
+			}
+		}
+		Path file = Files.createTempFile("ratings-x" + scale + "-", ".csv");
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write(header);
+			out.newLine();
+			for (int copy = 0; copy < scale; copy++) {
+				for (String[] fields : rows) {
+					out.write(Integer.toString(Integer.parseInt(fields[0]) + copy * (maxUser + 1)));
+					out.write(',');
+					out.write(fields[1]);
+					out.newLine();
+				}
+			}
+		}
+		return file;
+	}
+
+	private static long countLines(Path file) throws IOException {
+		try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			long lines = 0;
+			while (in.readLine() != null) {
+				lines++;
+			}
+			return lines;
+		}
+	}
+
+	/*********************************************************
+	 * Graph construction
+	 *********************************************************/
+
+	private void buildBenchmarks(RatingMatrix matrix) throws Exception {
+		int threshold = CoRatingGraphBuilder.DEFAULT_THRESHOLD;
+		CoRatingGraphBuilder builder = new CoRatingGraphBuilder(matrix);
+		for (CoRatingGraphBuilder.Adjacency adjacency : CoRatingGraphBuilder.Adjacency.values()) {
+			String params = "adjacency=" + adjacency + " threshold=" + threshold;
+			if (selected("CoRatingGraphBuilder.build")) {
+				harness.run("CoRatingGraphBuilder.build", params, 1, () -> builder.build(adjacency, threshold).numEdges());
+			}
+			if (selected("CoRatingGraphBuilder.buildParallel")) {
+				harness.run("CoRatingGraphBuilder.buildParallel", params, 1,
+						() -> builder.build(adjacency, threshold, 0).numEdges());
+			}
+		}
+	}
+
+	/*********************************************************
+	 * Priority queues
+	 *********************************************************/
+
+	private void queueBenchmarks() throws Exception {
+		int n = QUEUE_SIZE;
+		int[] priorities = new int[n], lowered = new int[n];
+		Random random = new Random(42);
+		for (int i = 0; i < n; i++) {
+			priorities[i] = random.nextInt(1 << 20);
+			lowered[i] = random.nextInt(priorities[i] + 1);
+		}
+		String params = "n=" + n;
+		if (selected("PriorityQueue.pushPop")) {
+			harness.run("PriorityQueue.pushPop", params, 2L * n, () -> {
+				PriorityQueue Q = new PriorityQueue();
+				for (int i = 0; i < n; i++) {
+					Q.push(priorities[i], i);
+				}
+				long sum = 0;
+				while (!Q.isEmpty()) {
+					sum += Q.pop();
+				}
+				return sum;
+			});
+		}
+		if (selected("PriorityQueue.pushChangePop")) {
+			harness.run("PriorityQueue.pushChangePop", params, 2L * n + n / 2, () -> {
+				PriorityQueue Q = new PriorityQueue();
+				for (int i = 0; i < n; i++) {
+					Q.push(priorities[i], i);
+				}
+				for (int i = 0; i < n; i += 2) {
+					Q.changePriority(lowered[i], i);
+				}
+				long sum = 0;
+				while (!Q.isEmpty()) {
+					sum += Q.pop();
+				}
+				return sum;
+			});
+		}
+		if (selected("IntPriorityQueue.pushPop")) {
+			harness.run("IntPriorityQueue.pushPop", params, 2L * n, () -> {
+				IntPriorityQueue Q = new IntPriorityQueue(n);
+				for (int i = 0; i < n; i++) {
+					Q.push(priorities[i], i);
+				}
+				long sum = 0;
+				while (!Q.isEmpty()) {
+					sum += Q.pop();
+				}
+				return sum;
+			});
+		}
+		if (selected("IntPriorityQueue.pushChangePop")) {
+			harness.run("IntPriorityQueue.pushChangePop", params, 2L * n + n / 2, () -> {
+				IntPriorityQueue Q = new IntPriorityQueue(n);
+				for (int i = 0; i < n; i++) {
+					Q.push(priorities[i], i);
+				}
+				for (int i = 0; i < n; i += 2) {
+					Q.changePriority(lowered[i], i);
+				}
+				long sum = 0;
+				while (!Q.isEmpty()) {
+					sum += Q.pop();
+				}
+				return sum;
+			});
+		}
+	}
+
+	/*********************************************************
+	 * Path algorithms
+	 *********************************************************/
+
+	private void pathBenchmarks(Graph<Integer> G) throws Exception {
+		for (int size : sizes) {
+			if (size > G.numVertices()) {
+				continue;
+			}
+			Graph<Integer> H = firstVertices(G, size);
+			String params = "V=" + H.numVertices() + " E=" + H.numEdges();
+			int sources = Math.min(SOURCES, size);
+			if (selected("GraphAlgorithms.dijkstrasAlgorithm")) {
+				harness.run("GraphAlgorithms.dijkstrasAlgorithm", params, sources, () -> {
+					long sum = 0;
+					for (int s = 0; s < sources; s++) {
+						sum += GraphAlgorithms.dijkstrasAlgorithm(H, s * (size / sources)).length;
+					}
+					return sum;
+				});
+			}
+			if (size <= fwMax && selected("GraphAlgorithms.floydWarshall")) {
+				harness.run("GraphAlgorithms.floydWarshall", params, 1, () -> GraphAlgorithms.floydWarshall(H)[0][size - 1]);
+			}
+		}
+		hotSourceBenchmarks(CsrGraph.fromGraph(G));
+	}
+
+	/**
+	 * Times point-to-point queries whose sources are mostly a few popular movies, with and
+	 * without the path cache
+	 */
+	private void hotSourceBenchmarks(CsrGraph G) throws Exception {
+		int n = G.vertexBound();
+		Random random = new Random(7);
+		int[] sources = new int[READS / 10], targets = new int[sources.length];
+		for (int q = 0; q < sources.length; q++) {
+			// nine queries in ten start from one of the hot sources
+			sources[q] = random.nextInt(10) < 9 ? random.nextInt(SOURCES) * (n / SOURCES) : random.nextInt(n);
+			targets[q] = random.nextInt(n);
+		}
+		String params = "V=" + G.numVertices() + " E=" + G.numEdges() + " hot=" + SOURCES;
+		if (selected("PathQuery.hotSources")) {
+			PathQuery query = new PathQuery(G);
+			harness.run("PathQuery.hotSources", params, sources.length, () -> {
+				long sum = 0;
+				for (int q = 0; q < sources.length; q++) {
+					sum += query.shortestPath(sources[q], targets[q]).size();
+				}
+				return sum;
+			});
+		}
+		if (selected("PathCache.hotSources")) {
+			PathCache cache = new PathCache();
+			harness.run("PathCache.hotSources", params, sources.length, () -> {
+				long sum = 0;
+				for (int q = 0; q < sources.length; q++) {
+					sum += cache.shortestPath(G, null, sources[q], targets[q]).size();
+				}
+				return sum;
+			});
+			System.out.println("  " + cache);
+		}
+	}
+
+	/**
+	 * Times the weakly and strongly connected components, the centrality scores and the
+	 * communities of the co-rating graph
+	 */
+	private void componentBenchmarks(CsrGraph G) throws Exception {
+		String params = "V=" + G.numVertices() + " E=" + G.numEdges();
+		if (selected("Components.weak")) {
+			harness.run("Components.weak", params, G.numEdges(), () -> Components.weak(G, 0).count());
+		}
+		if (selected("Components.strong")) {
+			harness.run("Components.strong", params, G.numEdges(), () -> Components.strong(G).count());
+		}
+		if (selected("Centrality.pageRank")) {
+			harness.run("Centrality.pageRank", params, G.numEdges(), () -> Centrality.top(
+					Centrality.pageRank(G, Centrality.DAMPING, Centrality.TOLERANCE, Centrality.MAX_ITERATIONS, 0), 1)[0]);
+		}
+		if (selected("Centrality.betweenness")) {
+			harness.run("Centrality.betweenness", params, Centrality.DEFAULT_SAMPLES,
+					() -> Centrality.top(Centrality.betweenness(G, Centrality.DEFAULT_SAMPLES, 1, 0), 1)[0]);
+		}
+		if (selected("Centrality.closeness")) {
+			harness.run("Centrality.closeness", params, Centrality.DEFAULT_SAMPLES,
+					() -> Centrality.top(Centrality.closeness(G, Centrality.DEFAULT_SAMPLES, 1, 0), 1)[0]);
+		}
+		if (selected("Communities.labelPropagation")) {
+			harness.run("Communities.labelPropagation", params, G.numEdges(), () -> Communities.labelPropagation(G, 1, 0).count());
+		}
+		if (selected("Communities.louvain")) {
+			harness.run("Communities.louvain", params, G.numEdges(), () -> Communities.louvain(G).count());
+		}
+		int n = G.vertexBound();
+		Random random = new Random(11);
+		int[] sources = new int[READS / 10], targets = new int[sources.length];
+		for (int q = 0; q < sources.length; q++) {
+			sources[q] = random.nextInt(n);
+			targets[q] = random.nextInt(n);
+		}
+		if (selected("PathQuery.random")) {
+			PathQuery query = new PathQuery(G);
+			harness.run("PathQuery.random", params, sources.length, () -> {
+				long sum = 0;
+				for (int q = 0; q < sources.length; q++) {
+					sum += query.shortestPath(sources[q], targets[q]).size();
+				}
+				return sum;
+			});
+		}
+		if (selected("CommunityPathQuery.random")) {
+			CommunityPathQuery query = new CommunityPathQuery(G, Communities.louvain(G));
+			harness.run("CommunityPathQuery.random", params, sources.length, () -> {
+				long sum = 0;
+				for (int q = 0; q < sources.length; q++) {
+					sum += query.shortestPath(sources[q], targets[q]).size();
+				}
+				return sum;
+			});
+		}
+	}
+
+	/**
+	 * Returns the subgraph induced by the vertices 0 ... size-1
+	 */
+	private static Graph<Integer> firstVertices(Graph<Integer> G, int size) {
+		Graph<Integer> H = new Graph<Integer>();
+		for (int v = 0; v < size; v++) {
+			H.addVertex(v);
+		}
+		for (int v = 0; v < size; v++) {
+			for (Integer u : G.getNeighbors(v)) {
+				if (u < size) {
+					H.addEdge(v, u);
+				}
+			}
+		}
+		return H;
+	}
+
+	/*********************************************************
+	 * Concurrent graphs
+	 *********************************************************/
+
+	private void concurrencyBenchmarks(CsrGraph graph) throws Exception {
+		for (int readers : threads) {
+			String params = "readers=" + readers + " E=" + graph.numEdges();
+			if (selected("ConcurrentGraph.readWhileWriting")) {
+				ConcurrentGraph G = new ConcurrentGraph(graph);
+				harness.run("ConcurrentGraph.readWhileWriting", params, (long) readers * READS,
+						() -> readWhileWriting(G, null, readers));
+			}
+			if (selected("Graph.readWhileWritingLocked")) {
+				Graph<Integer> G = new Graph<Integer>();
+				for (Integer v : graph.getVertices()) {
+					G.addVertex(v);
+				}
+				for (Integer v : graph.getVertices()) {
+					for (Integer u : graph.getNeighbors(v)) {
+						G.addEdge(v, u);
+					}
+				}
+				harness.run("Graph.readWhileWritingLocked", params, (long) readers * READS,
+						() -> readWhileWriting(G, new Object(), readers));
+			}
+		}
+	}
+
+	/**
+	 * Runs reader threads that look up degrees and edges while one writer thread toggles
+	 * random edges, until every reader is done
+	 *
+	 * @param lock held around every call, or null to call the graph directly
+	 */
+	private static long readWhileWriting(GraphIfc<Integer> G, Object lock, int readers) throws Exception {
+		int n = G.numVertices();
+		AtomicBoolean done = new AtomicBoolean();
+		Thread writer = new Thread(() -> {
+			Random random = new Random(1);
+			while (!done.get()) {
+				int u = random.nextInt(n), v = random.nextInt(n);
+				if (u != v) {
+					if (lock == null) {
+						toggle(G, u, v);
+					} else {
+						synchronized (lock) {
+							toggle(G, u, v);
+						}
+					}
+				}
+			}
+		});
+		long[] sums = new long[readers];
+		Thread[] threads = new Thread[readers];
+		for (int t = 0; t < readers; t++) {
+			int id = t;
+			threads[t] = new Thread(() -> {
+				Random random = new Random(100 + id);
+				long sum = 0;
+				for (int i = 0; i < READS; i++) {
+					int v = random.nextInt(n), u = random.nextInt(n);
+					if (lock == null) {
+						sum += G.degree(v) + (G.edgeExists(v, u) ? 1 : 0);
+					} else {
+						synchronized (lock) {
+							sum += G.degree(v) + (G.edgeExists(v, u) ? 1 : 0);
+						}
+					}
+				}
+				sums[id] = sum;
+			});
+		}
+		writer.start();
+		for (Thread t : threads) {
+			t.start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		done.set(true);
+		writer.join();
+		long sum = 0;
+		for (long s : sums) {
+			sum += s;
+		}
+		return sum;
+	}
+
+	private static void toggle(GraphIfc<Integer> G, int u, int v) {
+		if (G.edgeExists(u, v)) {
+			G.removeEdge(u, v);
+			G.removeEdge(v, u);
+		} else {
+			G.addEdge(u, v);
+			G.addEdge(v, u);
+		}
+	}
+
+	/*********************************************************
+	 * Title search
+	 *********************************************************/
+
+	private void searchBenchmarks(Collection<Movie> loaded) throws Exception {
+		// repeat the loaded titles until there are TITLES movies, numbering each copy
+		List<Movie> titles = new ArrayList<>(TITLES);
+		List<Movie> source = new ArrayList<>(loaded);
+		for (int id = 0; id < TITLES && !source.isEmpty(); id++) {
+			Movie movie = source.get(id % source.size());
+			int copy = id / source.size();
+			titles.add(new Movie(id, movie.getYear(), copy == 0 ? movie.getTitle() : movie.getTitle() + " " + copy));
+		}
+		String params = "titles=" + titles.size() + " queries=" + QUERIES.length;
+		if (selected("TitleIndex.build")) {
+			harness.run("TitleIndex.build", "titles=" + titles.size(), titles.size(), () -> new TitleIndex(titles).numTokens());
+		}
+		if (selected("TitleIndex.search")) {
+			TitleIndex index = new TitleIndex(titles);
+			harness.run("TitleIndex.search", params, QUERIES.length, () -> {
+				long found = 0;
+				for (String query : QUERIES) {
+					found += index.search(query, 20).length;
+				}
+				return found;
+			});
+		}
+		if (selected("searchByScan")) {
+			harness.run("searchByScan", params, QUERIES.length, () -> {
+				long found = 0;
+				for (String query : QUERIES) {
+					Set<String> matches = new HashSet<>();
+					for (Movie movie : titles) {
+						for (String word : movie.getTitle().split("\\s+")) {
+							if (word.contains(query)) {
+								matches.add(movie.getTitle());
+							}
+						}
+					}
+					found += matches.size();
+				}
+				return found;
+			});
+		}
+	}
+}
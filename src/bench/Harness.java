@@ -0,0 +1,226 @@
+package bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A small benchmark harness. Every benchmark is run for a number of warmup iterations,
+ * which let the JIT compile the code under test, and then for a number of measured
+ * iterations that are timed one by one. Each iteration performs a fixed number of
+ * operations, so the results can be reported per operation.
+ *
+ * The value returned by a workload is stored in a volatile field, which keeps the JIT
+ * from removing the work as dead code. Results can be written as JSON or CSV so they can
+ * be compared between runs.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Harness {
+	/**
+	 * The code being measured
+	 */
+	public interface Workload {
+		/**
+		 * Performs one iteration of the benchmark
+		 *
+		 * @return any value derived from the work, so it cannot be optimized away
+		 * @throws Exception if the benchmark fails
+		 */
+		Object run() throws Exception;
+	}
+
+	/**
+	 * The measured times of one benchmark
+	 */
+	public static class Result {
+		private final String name, params;
+		private final long operations;
+		private final long[] nanos;
+
+		Result(String name, String params, long operations, long[] nanos) {
+			this.name = name;
+			this.params = params;
+			this.operations = operations;
+			this.nanos = nanos.clone();
+			Arrays.sort(this.nanos);
+		}
+
+		/** @return the name of the benchmark */
+		public String name() {
+			return name;
+		}
+
+		/** @return the parameters the benchmark ran with */
+		public String params() {
+			return params;
+		}
+
+		/** @return the number of operations in one iteration */
+		public long operations() {
+			return operations;
+		}
+
+		/** @return the number of measured iterations */
+		public int iterations() {
+			return nanos.length;
+		}
+
+		/** @return the mean time of an operation in nanoseconds */
+		public double meanNanos() {
+			double sum = 0;
+			for (long t : nanos) {
+				sum += t;
+			}
+			return sum / nanos.length / operations;
+		}
+
+		/** @return the sample standard deviation of the time of an operation in nanoseconds */
+		public double stdevNanos() {
+			if (nanos.length < 2) {
+				return 0;
+			}
+			double mean = meanNanos() * operations, sum = 0;
+			for (long t : nanos) {
+				sum += (t - mean) * (t - mean);
+			}
+			return Math.sqrt(sum / (nanos.length - 1)) / operations;
+		}
+
+		/** @return the fastest time of an operation in nanoseconds */
+		public double minNanos() {
+			return (double) nanos[0] / operations;
+		}
+
+		/** @return the median time of an operation in nanoseconds */
+		public double medianNanos() {
+			int mid = nanos.length / 2;
+			double median = nanos.length % 2 == 1 ? nanos[mid] : (nanos[mid - 1] + nanos[mid]) / 2.0;
+			return median / operations;
+		}
+
+		/** @return the slowest time of an operation in nanoseconds */
+		public double maxNanos() {
+			return (double) nanos[nanos.length - 1] / operations;
+		}
+
+		/** @return the mean number of operations per second */
+		public double opsPerSecond() {
+			return 1e9 / meanNanos();
+		}
+	}
+
+	private final int warmup, iterations;
+	private final List<Result> results = new ArrayList<>();
+	private volatile Object sink;
+
+	/**
+	 * Creates a harness
+	 *
+	 * @param warmup     the number of unmeasured iterations before measuring
+	 * @param iterations the number of measured iterations
+	 * @throws IllegalArgumentException if iterations is less than 1 or warmup is negative
+	 */
+	public Harness(int warmup, int iterations) {
+		if (warmup < 0 || iterations < 1) {
+			throw new IllegalArgumentException("need at least one iteration, cannot create Harness");
+		}
+		this.warmup = warmup;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Runs and records a benchmark
+	 *
+	 * @param name       the name of the benchmark
+	 * @param params     the parameters it runs with, for the report
+	 * @param operations the number of operations one iteration performs
+	 * @param workload   the code to measure
+	 * @return the result
+	 * @throws Exception if the workload fails
+	 */
+	public Result run(String name, String params, long operations, Workload workload) throws Exception {
+		for (int i = 0; i < warmup; i++) {
+			sink = workload.run();
+		}
+		long[] nanos = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			System.gc(); // keep garbage from earlier iterations out of the measurement
+			long start = System.nanoTime();
+			sink = workload.run();
+			nanos[i] = System.nanoTime() - start;
+		}
+		Result result = new Result(name, params, operations, nanos);
+		results.add(result);
+		System.out.printf(Locale.ROOT, "%-32s %-28s %14.1f ns/op +- %10.1f  (%.1f ops/s)%n", name, params,
+				result.meanNanos(), result.stdevNanos(), result.opsPerSecond());
+		return result;
+	}
+
+	/**
+	 * Returns every result recorded so far
+	 *
+	 * @return the results in the order they were run
+	 */
+	public List<Result> results() {
+		return Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * Writes the results as a JSON document
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeJson(Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("{");
+			out.printf(Locale.ROOT, "  \"timestamp\": %d,%n", System.currentTimeMillis());
+			out.printf(Locale.ROOT, "  \"java\": \"%s\",%n", escape(System.getProperty("java.version")));
+			out.printf(Locale.ROOT, "  \"processors\": %d,%n", Runtime.getRuntime().availableProcessors());
+			out.printf(Locale.ROOT, "  \"warmup\": %d,%n", warmup);
+			out.printf(Locale.ROOT, "  \"iterations\": %d,%n", iterations);
+			out.println("  \"results\": [");
+			for (int i = 0; i < results.size(); i++) {
+				Result r = results.get(i);
+				out.printf(Locale.ROOT,
+						"    {\"name\": \"%s\", \"params\": \"%s\", \"operations\": %d, \"mean_ns\": %.3f, "
+								+ "\"stdev_ns\": %.3f, \"min_ns\": %.3f, \"median_ns\": %.3f, \"max_ns\": %.3f, "
+								+ "\"ops_per_s\": %.3f}%s%n",
+						escape(r.name()), escape(r.params()), r.operations(), r.meanNanos(), r.stdevNanos(), r.minNanos(),
+						r.medianNanos(), r.maxNanos(), r.opsPerSecond(), i + 1 < results.size() ? "," : "");
+			}
+			out.println("  ]");
+			out.println("}");
+		}
+	}
+
+	/**
+	 * Writes the results as CSV with a header row
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeCsv(Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("name,params,operations,iterations,mean_ns,stdev_ns,min_ns,median_ns,max_ns,ops_per_s");
+			for (Result r : results) {
+				out.printf(Locale.ROOT, "%s,\"%s\",%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", r.name(),
+						r.params().replace("\"", "\"\""), r.operations(), r.iterations(), r.meanNanos(), r.stdevNanos(),
+						r.minNanos(), r.medianNanos(), r.maxNanos(), r.opsPerSecond());
+			}
+		}
+	}
+
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
@@ -0,0 +1,228 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import util.Parallel;
+
+/**
+ * Puts load on a running {@link analyzer.QueryServer}. Every client opens its own
+ * connection, waits until all clients are connected and then sends its requests one at a
+ * time, timing each round trip. Run it with
+ *
+ * <pre>
+ * java bench.LoadGenerator [options]
+ *
+ *   --host HOST      the server's host (default 127.0.0.1)
+ *   --port N         the server's port (required)
+ *   --clients N      concurrent connections (default 1000)
+ *   --requests N     requests per connection (default 100)
+ *   --words LIST     keywords for the search requests (default Star,Love,Man,War,Night)
+ *   --seed N         seed of the request mix (default 42)
+ * </pre>
+ *
+ * The requests are 45% neighbors, 45% path, 9% search and 1% stats, over movie ids drawn
+ * uniformly from the ids the server reports. The clients run on
+ * {@link Parallel#newThreadPerTaskExecutor()}, so thousands of them are cheap on Java 21.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class LoadGenerator {
+	private static final Pattern VERTICES = Pattern.compile("\"vertices\":(\\d+)");
+
+	private String host = "127.0.0.1";
+	private int port = -1, clients = 1000, requests = 100;
+	private String[] words = { "Star", "Love", "Man", "War", "Night" };
+	private long seed = 42;
+
+	public static void main(String[] args) throws Exception {
+		LoadGenerator g = new LoadGenerator();
+		if (!g.parse(args)) {
+			System.err.println("Usage: java bench.LoadGenerator --port N [--host HOST] [--clients N] [--requests N] "
+					+ "[--words LIST] [--seed N]");
+			System.exit(-1);
+		}
+		g.run();
+	}
+
+	/**
+	 * Reads the command line
+	 *
+	 * @return false if it is malformed
+	 */
+	private boolean parse(String[] args) {
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--host":
+					host = args[++i];
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--clients":
+					clients = Integer.parseInt(args[++i]);
+					break;
+				case "--requests":
+					requests = Integer.parseInt(args[++i]);
+					break;
+				case "--words":
+					words = args[++i].split(",");
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					return false;
+				}
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return false;
+		}
+		return port >= 0 && clients >= 1 && requests >= 1;
+	}
+
+	/**
+	 * Runs every client and prints the throughput and latencies
+	 */
+	private void run() throws Exception {
+		int numMovies = numMovies();
+		long[][] latencies = new long[clients][];
+		AtomicInteger errors = new AtomicInteger(), failedClients = new AtomicInteger();
+		CountDownLatch connected = new CountDownLatch(clients), go = new CountDownLatch(1), done = new CountDownLatch(clients);
+
+		ExecutorService executor = Parallel.newThreadPerTaskExecutor();
+		for (int c = 0; c < clients; c++) {
+			int client = c;
+			executor.execute(() -> {
+				boolean counted = false;
+				try (Socket socket = new Socket(host, port);
+						BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+						Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+					connected.countDown();
+					counted = true;
+					go.await();
+					Random random = new Random(seed + client);
+					long[] times = new long[requests];
+					for (int r = 0; r < requests; r++) {
+						String request = request(random, numMovies);
+						long start = System.nanoTime();
+						out.write(request);
+						out.write('\n');
+						out.flush();
+						String response = in.readLine();
+						times[r] = System.nanoTime() - start;
+						if (response == null) {
+							throw new IOException("server closed the connection");
+						}
+						if (!response.startsWith("{\"ok\":true")) {
+							errors.incrementAndGet();
+						}
+					}
+					out.write("quit\n");
+					out.flush();
+					latencies[client] = times;
+				} catch (IOException e) {
+					if (failedClients.incrementAndGet() == 1) {
+						System.err.println("Client failed: " + e);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					if (!counted) {
+						connected.countDown();
+					}
+					done.countDown();
+				}
+			});
+		}
+		connected.await();
+		long start = System.nanoTime();
+		go.countDown();
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		int completed = 0;
+		for (long[] times : latencies) {
+			if (times != null) {
+				completed++;
+			}
+		}
+		long[] all = new long[completed * requests];
+		int n = 0;
+		for (long[] times : latencies) {
+			if (times != null) {
+				System.arraycopy(times, 0, all, n, times.length);
+				n += times.length;
+			}
+		}
+		Arrays.sort(all);
+		System.out.printf(Locale.ROOT, "%d clients x %d requests against %s:%d%s%n", clients, requests, host, port,
+				Parallel.hasVirtualThreads() ? " (virtual threads)" : "");
+		System.out.printf(Locale.ROOT, "completed clients: %d, failed clients: %d, error responses: %d%n", completed,
+				failedClients.get(), errors.get());
+		if (all.length > 0) {
+			System.out.printf(Locale.ROOT, "throughput: %.0f requests/s over %.2f s%n", all.length / (elapsed / 1e9),
+					elapsed / 1e9);
+			System.out.printf(Locale.ROOT, "latency ms: p50 %.3f  p95 %.3f  p99 %.3f  max %.3f%n", percentile(all, 0.50),
+					percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+		}
+	}
+
+	/**
+	 * Asks the server for its statistics and returns the number of movies
+	 */
+	private int numMovies() throws IOException {
+		try (Socket socket = new Socket(host, port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+			out.write("stats\nquit\n");
+			out.flush();
+			String response = in.readLine();
+			Matcher m = VERTICES.matcher(response == null ? "" : response);
+			if (!m.find()) {
+				throw new IOException("unexpected response to stats: " + response);
+			}
+			return Integer.parseInt(m.group(1));
+		}
+	}
+
+	/**
+	 * Draws the next request of the mix
+	 */
+	private String request(Random random, int numMovies) {
+		int kind = random.nextInt(100);
+		if (kind < 45) {
+			return "neighbors " + (1 + random.nextInt(numMovies));
+		} else if (kind < 90) {
+			return "path " + (1 + random.nextInt(numMovies)) + " " + (1 + random.nextInt(numMovies));
+		} else if (kind < 99) {
+			return "search " + words[random.nextInt(words.length)];
+		}
+		return "stats";
+	}
+
+	/**
+	 * Returns a percentile of sorted nanosecond latencies in milliseconds
+	 */
+	private static double percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+	}
+}
@@ -0,0 +1,197 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dictionary of movie genres. Every genre has a bit, and the genres of a movie are
+ * stored as a long with one bit per genre, so testing whether a movie has any of several
+ * genres is a single AND. The genres of the MovieLens files have fixed bits in the order
+ * below; any other genre is given the next free bit the first time it is seen, up to 64
+ * genres in all.
+ *
+ * Lookups ignore case. The dictionary may be used by several threads at once.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public final class Genres {
+	/** The most genres the dictionary can hold */
+	public static final int MAX_GENRES = 64;
+
+	private static final String[] MOVIELENS = { "Action", "Adventure", "Animation", "Children", "Comedy", "Crime",
+			"Documentary", "Drama", "Fantasy", "Film-Noir", "Horror", "IMAX", "Musical", "Mystery", "Romance", "Sci-Fi",
+			"Thriller", "War", "Western", "(no genres listed)" };
+
+	private static volatile String[] names = MOVIELENS.clone(); // indexed by bit, replaced when a genre is added
+
+	private Genres() {
+	}
+
+	/**
+	 * Returns the bit of a genre, giving it a new one if the genre has not been seen
+	 *
+	 * @param genre the genre
+	 * @return its bit, 0 ... MAX_GENRES-1
+	 * @throws IllegalArgumentException if the dictionary is full
+	 */
+	public static int intern(String genre) {
+		int bit = bit(genre);
+		if (bit >= 0) {
+			return bit;
+		}
+		synchronized (Genres.class) {
+			bit = bit(genre);
+			if (bit < 0) {
+				if (names.length == MAX_GENRES) {
+					throw new IllegalArgumentException("there are already " + MAX_GENRES + " genres, cannot intern() " + genre);
+				}
+				String[] grown = Arrays.copyOf(names, names.length + 1);
+				grown[names.length] = genre;
+				bit = names.length;
+				names = grown;
+			}
+			return bit;
+		}
+	}
+
+	/**
+	 * Returns the bit of a genre
+	 *
+	 * @param genre the genre
+	 * @return its bit, or -1 if the genre has not been seen
+	 */
+	public static int bit(String genre) {
+		String[] known = names;
+		for (int b = 0; b < known.length; b++) {
+			if (known[b].equalsIgnoreCase(genre)) {
+				return b;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the name of a genre
+	 *
+	 * @param bit the bit of the genre
+	 * @return the genre
+	 * @throws IllegalArgumentException if no genre has the bit
+	 */
+	public static String name(int bit) {
+		String[] known = names;
+		if (bit < 0 || bit >= known.length) {
+			throw new IllegalArgumentException("no genre has bit " + bit + ", cannot name()");
+		}
+		return known[bit];
+	}
+
+	/**
+	 * Returns the number of genres in the dictionary
+	 *
+	 * @return the number of genres
+	 */
+	public static int count() {
+		return names.length;
+	}
+
+	/**
+	 * Interns the genres of a movies file field, separated by '|', without a regular
+	 * expression
+	 *
+	 * @param field the genres, such as Adventure|Animation|Children
+	 * @return the mask of the genres
+	 * @throws IllegalArgumentException if the dictionary is full
+	 */
+	public static long parse(String field) {
+		long mask = 0;
+		int start = 0;
+		for (int i = 0; i <= field.length(); i++) {
+			if (i == field.length() || field.charAt(i) == '|') {
+				String genre = field.substring(start, i).trim();
+				if (!genre.isEmpty()) {
+					mask |= 1L << intern(genre);
+				}
+				start = i + 1;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the mask of genres a user asked for, separated by '|' or ','
+	 *
+	 * @param query the genres, such as Comedy|Drama
+	 * @return the mask of the genres
+	 * @throws IllegalArgumentException if a genre is unknown
+	 */
+	public static long mask(String query) {
+		long mask = 0;
+		for (String genre : query.split("[|,]")) {
+			genre = genre.trim();
+			if (genre.isEmpty()) {
+				continue;
+			}
+			int bit = bit(genre);
+			if (bit < 0) {
+				throw new IllegalArgumentException("unknown genre " + genre + ", cannot mask()");
+			}
+			mask |= 1L << bit;
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the names of the genres in a mask, in bit order
+	 *
+	 * @param mask a mask of genres
+	 * @return the genres
+	 */
+	public static List<String> names(long mask) {
+		String[] known = names;
+		List<String> genres = new ArrayList<>(Long.bitCount(mask));
+		for (long rest = mask; rest != 0; rest &= rest - 1) {
+			int bit = Long.numberOfTrailingZeros(rest);
+			if (bit < known.length) {
+				genres.add(known[bit]);
+			}
+		}
+		return genres;
+	}
+
+	/**
+	 * Packs the genre masks of some movies into one array indexed by movie id
+	 *
+	 * @param movies map from movie id to movie
+	 * @return masks[id] is the genre mask of the movie with that id, 0 for ids without one
+	 * @throws IllegalArgumentException if a movie id is negative
+	 */
+	public static long[] masks(Map<Integer, Movie> movies) {
+		return masks(movies.values());
+	}
+
+	/**
+	 * Packs the genre masks of some movies into one array indexed by movie id
+	 *
+	 * @param movies the movies
+	 * @return masks[id] is the genre mask of the movie with that id, 0 for ids without one
+	 * @throws IllegalArgumentException if a movie id is negative
+	 */
+	public static long[] masks(Collection<Movie> movies) {
+		int bound = 0;
+		for (Movie movie : movies) {
+			if (movie.getMovieId() < 0) {
+				throw new IllegalArgumentException("movie id " + movie.getMovieId() + " is negative, cannot pack masks()");
+			}
+			bound = Math.max(bound, movie.getMovieId() + 1);
+		}
+		long[] masks = new long[bound];
+		for (Movie movie : movies) {
+			masks[movie.getMovieId()] = movie.getGenreMask();
+		}
+		return masks;
+	}
+}
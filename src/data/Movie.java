@@ -1,20 +1,25 @@
 package data;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 /**
- * This class represents a single movie.
+ * This class represents a single movie. Once the movie is attached to a shared
+ * {@link RatingMatrix} its ratings are read from the matrix, and the movie only keeps the
+ * ratings added later for reviewers who are not in the matrix. A rating by a reviewer the
+ * matrix already holds for this movie replaces the one in the matrix, so it must be a
+ * multiple of half a star.
  * @author alchambers
  */
 public class Movie {
 	private int year;
 	private int movieId;
 	private String title;	
-	private Map<Integer, Double> ratings;
-	private Set<String> genres;	
+	private Map<Integer, Double> ratings; // ratings that are not in the matrix
+	private RatingMatrix matrix;
+	private long genres; // one bit per genre, see Genres
 	
 	/**
 	 * Constructs a new movie with the given information
@@ -27,19 +32,34 @@ public class Movie {
 		movieId = theId;
 		title = theTitle;
 		ratings = new HashMap<>();
-		genres = new HashSet<>();
 	}
 	
 	/**
 	 * Records a rating for the movie
 	 * @param userId The id of the user rating the movie
 	 * @param rating The rating given by the uesr
+	 * @throws IllegalArgumentException if the matrix holds a rating of the movie by the
+	 * user and the new rating is not a multiple of half a star
 	 */
 	public void addRating(int userId, double rating){
 		if(userId < 0 || rating < 0){
 			throw new AssertionError("Inputs must be positive.");
 		}
-		ratings.put(userId, rating);
+		if(matrix == null || !matrix.set(movieId, userId, rating)){
+			ratings.put(userId, rating);
+		}
+	}
+	
+	/**
+	 * Reads the movie's ratings from a shared rating matrix from now on. Ratings recorded
+	 * earlier are moved into the matrix where it has a slot for them and they are whole
+	 * half stars; the matrix value is kept for a pair whose earlier rating is not.
+	 * @param matrix The rating matrix, indexed by this movie's id
+	 */
+	public void setRatingMatrix(RatingMatrix matrix){
+		this.matrix = matrix;
+		ratings.entrySet().removeIf(entry -> matrix.find(movieId, matrix.userIndex(entry.getKey())) >= 0
+				&& (!RatingMatrix.isHalfStars(entry.getValue()) || matrix.set(movieId, entry.getKey(), entry.getValue())));
 	}
 	
 	/**
@@ -47,23 +67,42 @@ public class Movie {
 	 * @param genre The genre to be added
 	 */
 	public void addGenre(String genre) {
-		genres.add(genre);
+		genres |= 1L << Genres.intern(genre);
 	}
 	
 	/**
 	 * Returns the movie's genres
-	 * @return The movie's genres
+	 * @return A new set of the movie's genres
 	 */
 	public Set<String> getGenres() {
+		return new LinkedHashSet<>(Genres.names(genres));
+	}
+	
+	/**
+	 * Returns the movie's genres as a mask with one bit per genre
+	 * @return The mask of the movie's genres
+	 */
+	public long getGenreMask() {
 		return genres;
 	}
 	
+	/**
+	 * Replaces the movie's genres
+	 * @param mask A mask with one bit per genre, see {@link Genres}
+	 */
+	public void setGenreMask(long mask) {
+		genres = mask;
+	}
+	
 	/**
 	 * Checks if the user has rated the movie
 	 * @param userId The id of the user
 	 * @return true if the user rated the movie, false otherwise
 	 */
 	public boolean rated(int userId){
+		if(matrix != null && matrix.find(movieId, matrix.userIndex(userId)) >= 0){
+			return true;
+		}
 		return ratings.containsKey(userId);
 	}
 		
@@ -73,6 +112,12 @@ public class Movie {
 	 * @return The user's rating or -1 if the user has not rated the movie
 	 */
 	public double getRating(int userId){
+		if(matrix != null){
+			double stored = matrix.getRating(movieId, userId);
+			if(stored >= 0){
+				return stored;
+			}
+		}
 		Double rating = ratings.get(userId);
 		if(rating == null){
 			return -1;
@@ -85,14 +130,21 @@ public class Movie {
 	 * @return The number of user's who have rated the movie
 	 */
 	public int numRatings(){
+		if(matrix != null){
+			return matrix.movieCount(movieId) + ratings.size();
+		}
 		return ratings.size();
 	}
 	
 	/**
-	 * Returns a map view of the ratings
+	 * Returns a map view of the ratings. Once the movie uses a rating matrix the view is
+	 * read-only; use addRating to change it.
 	 * @return A map from the user's ID to the user's rating 
 	 */
 	public Map<Integer, Double> getRatings(){
+		if(matrix != null){
+			return new RatingView(matrix, true, movieId, ratings);
+		}
 		return ratings;
 	}
 	
@@ -143,9 +195,9 @@ public class Movie {
 	 */
 	public String toString(){
 		String str = "("+ movieId + ") " + title + "\n";
-		str += "Num Ratings: " + ratings.size() + "\n";
+		str += "Num Ratings: " + numRatings() + "\n";
 		str += "Genres: ";
-		for(String genre : genres) {
+		for(String genre : Genres.names(genres)) {
 			str += genre + " ";
 		}
 		str += "\n";
@@ -0,0 +1,376 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * A compact, columnar store for every rating in the data set. Each rating is kept twice,
+ * once indexed by movie (compressed sparse rows) and once indexed by reviewer (compressed
+ * sparse columns), as an int plus a byte holding the rating in half stars. That is about
+ * ten bytes per rating instead of two boxed HashMap entries.
+ *
+ * Movies are numbered 0 ... numMovies()-1. Reviewers are numbered by their position in
+ * the sorted array of reviewer ids, so sorting by reviewer index also sorts by reviewer id.
+ * The set of (movie, reviewer) pairs is fixed once built, but existing ratings can be
+ * changed in place.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class RatingMatrix {
+	// The reviewers of movie m are movieUsers[movieOffsets[m] ... movieOffsets[m+1]-1],
+	// as sorted reviewer indices, with their ratings in movieRatings
+	final int[] movieOffsets;
+	final int[] movieUsers;
+	final byte[] movieRatings;
+
+	// The movies of reviewer r are userMovies[userOffsets[r] ... userOffsets[r+1]-1],
+	// sorted, with the ratings in userRatings. userIds[r] is the id of reviewer r.
+	final int[] userIds;
+	final int[] userOffsets;
+	final int[] userMovies;
+	final byte[] userRatings;
+
+	private RatingMatrix(int[] movieOffsets, int[] movieUsers, byte[] movieRatings, int[] userIds,
+			int[] userOffsets, int[] userMovies, byte[] userRatings) {
+		this.movieOffsets = movieOffsets;
+		this.movieUsers = movieUsers;
+		this.movieRatings = movieRatings;
+		this.userIds = userIds;
+		this.userOffsets = userOffsets;
+		this.userMovies = userMovies;
+		this.userRatings = userRatings;
+	}
+
+	/**
+	 * Builds the matrix from a list of ratings. If the same reviewer rated the same movie
+	 * more than once, the last rating in the list is kept.
+	 *
+	 * @param numMovies the number of movies; every movie id must be below it
+	 * @param users     the reviewer id of each rating
+	 * @param movies    the movie id of each rating
+	 * @param halfStars each rating in half stars, see {@link #toHalfStars(double)}
+	 * @param count     the number of ratings in the arrays
+	 * @return the matrix
+	 * @throws IllegalArgumentException if an id is out of range
+	 */
+	public static RatingMatrix build(int numMovies, int[] users, int[] movies, byte[] halfStars, int count) {
+		// bucket the ratings by movie, keeping the order of the list within each movie
+		int[] offsets = new int[numMovies + 1];
+		for (int i = 0; i < count; i++) {
+			if (movies[i] < 0 || movies[i] >= numMovies || users[i] < 0) {
+				throw new IllegalArgumentException("rating of movie " + movies[i] + " by " + users[i]
+						+ " is out of range, cannot build()");
+			}
+			offsets[movies[i] + 1]++;
+		}
+		for (int m = 0; m < numMovies; m++) {
+			offsets[m + 1] += offsets[m];
+		}
+		int[] order = new int[count];
+		int[] next = Arrays.copyOf(offsets, numMovies);
+		for (int i = 0; i < count; i++) {
+			order[next[movies[i]]++] = i;
+		}
+
+		// sort each movie by reviewer and drop all but the last rating of a repeated pair
+		int[] movieOffsets = new int[numMovies + 1];
+		int[] rowUsers = new int[count];
+		byte[] rowRatings = new byte[count];
+		int size = 0;
+		long[] keys = new long[0];
+		for (int m = 0; m < numMovies; m++) {
+			int length = offsets[m + 1] - offsets[m];
+			if (keys.length < length) {
+				keys = new long[Math.max(length, 2 * keys.length)];
+			}
+			for (int j = 0; j < length; j++) {
+				keys[j] = ((long) users[order[offsets[m] + j]] << 32) | j; // position breaks ties
+			}
+			Arrays.sort(keys, 0, length);
+			for (int j = 0; j < length; j++) {
+				if (j + 1 < length && (keys[j] >>> 32) == (keys[j + 1] >>> 32)) {
+					continue; // a later rating of the same pair follows
+				}
+				int rating = order[offsets[m] + (int) (keys[j] & 0xffffffffL)];
+				rowUsers[size] = users[rating];
+				rowRatings[size] = halfStars[rating];
+				size++;
+			}
+			movieOffsets[m + 1] = size;
+		}
+
+		// number the reviewers by sorted id
+		int[] userIds = Arrays.copyOf(rowUsers, size);
+		Arrays.sort(userIds);
+		int numUsers = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || userIds[i] != userIds[i - 1]) {
+				userIds[numUsers++] = userIds[i];
+			}
+		}
+		userIds = Arrays.copyOf(userIds, numUsers);
+		int[] movieUsers = new int[size];
+		int[] userOffsets = new int[numUsers + 1];
+		for (int i = 0; i < size; i++) {
+			movieUsers[i] = Arrays.binarySearch(userIds, rowUsers[i]);
+			userOffsets[movieUsers[i] + 1]++;
+		}
+		for (int r = 0; r < numUsers; r++) {
+			userOffsets[r + 1] += userOffsets[r];
+		}
+
+		// transpose; visiting movies in order keeps each reviewer's movies sorted
+		int[] userMovies = new int[size];
+		byte[] userRatings = new byte[size];
+		next = Arrays.copyOf(userOffsets, numUsers);
+		for (int m = 0; m < numMovies; m++) {
+			for (int i = movieOffsets[m]; i < movieOffsets[m + 1]; i++) {
+				int slot = next[movieUsers[i]]++;
+				userMovies[slot] = m;
+				userRatings[slot] = rowRatings[i];
+			}
+		}
+		return new RatingMatrix(movieOffsets, movieUsers, Arrays.copyOf(rowRatings, size), userIds, userOffsets,
+				userMovies, userRatings);
+	}
+
+	/**
+	 * Wraps arrays in the layout returned by the array getters, for example when they were
+	 * read back from a file. Only the array lengths are checked; the arrays are not copied.
+	 *
+	 * @param movieOffsets start of each movie's ratings, of length numMovies+1
+	 * @param movieUsers   sorted reviewer indices of each movie's ratings
+	 * @param movieRatings ratings in half stars in movie order
+	 * @param userIds      sorted reviewer ids
+	 * @param userOffsets  start of each reviewer's ratings, of length numUsers+1
+	 * @param userMovies   sorted movie ids of each reviewer's ratings
+	 * @param userRatings  ratings in half stars in reviewer order
+	 * @return the matrix
+	 * @throws IllegalArgumentException if the array lengths do not fit together
+	 */
+	public static RatingMatrix fromArrays(int[] movieOffsets, int[] movieUsers, byte[] movieRatings, int[] userIds,
+			int[] userOffsets, int[] userMovies, byte[] userRatings) {
+		int size = movieUsers.length;
+		if (movieOffsets.length == 0 || movieOffsets[movieOffsets.length - 1] != size
+				|| userOffsets.length != userIds.length + 1 || userOffsets[userIds.length] != size
+				|| movieRatings.length != size || userMovies.length != size || userRatings.length != size) {
+			throw new IllegalArgumentException("arrays do not describe one matrix, cannot fromArrays()");
+		}
+		return new RatingMatrix(movieOffsets, movieUsers, movieRatings, userIds, userOffsets, userMovies, userRatings);
+	}
+
+	/**
+	 * Converts a rating to a whole number of half stars
+	 *
+	 * @param rating the rating
+	 * @return the rating in half stars
+	 * @throws IllegalArgumentException if the rating is not a multiple of half a star
+	 */
+	public static byte toHalfStars(double rating) {
+		if (!isHalfStars(rating)) {
+			throw new IllegalArgumentException("rating " + rating + " is not a multiple of half a star");
+		}
+		return (byte) (rating * 2);
+	}
+
+	/**
+	 * Determines whether a rating can be stored in the matrix
+	 *
+	 * @param rating the rating
+	 * @return true if the rating is a non-negative multiple of half a star that fits in a byte
+	 */
+	public static boolean isHalfStars(double rating) {
+		double half = rating * 2;
+		return half == Math.rint(half) && half >= 0 && half <= Byte.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the number of movies
+	 *
+	 * @return the number of movies
+	 */
+	public int numMovies() {
+		return movieOffsets.length - 1;
+	}
+
+	/**
+	 * Returns the number of reviewers
+	 *
+	 * @return the number of reviewers
+	 */
+	public int numUsers() {
+		return userIds.length;
+	}
+
+	/**
+	 * Returns the number of ratings
+	 *
+	 * @return the number of ratings
+	 */
+	public int numRatings() {
+		return movieUsers.length;
+	}
+
+	/**
+	 * Returns the reviewer id of a reviewer index
+	 *
+	 * @param index the reviewer index
+	 * @return the reviewer id
+	 */
+	public int userId(int index) {
+		return userIds[index];
+	}
+
+	/**
+	 * Finds the index of a reviewer
+	 *
+	 * @param userId the reviewer id
+	 * @return the reviewer index, or -1 if the reviewer has no ratings in the matrix
+	 */
+	public int userIndex(int userId) {
+		int index = Arrays.binarySearch(userIds, userId);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Returns the number of ratings of a movie
+	 *
+	 * @param movie the movie id
+	 * @return the number of reviewers who rated the movie
+	 */
+	public int movieCount(int movie) {
+		return movieOffsets[movie + 1] - movieOffsets[movie];
+	}
+
+	/**
+	 * Returns the number of ratings by a reviewer
+	 *
+	 * @param user the reviewer index
+	 * @return the number of movies the reviewer rated
+	 */
+	public int userCount(int user) {
+		return userOffsets[user + 1] - userOffsets[user];
+	}
+
+	/**
+	 * Returns a rating
+	 *
+	 * @param movie  the movie id
+	 * @param userId the reviewer id
+	 * @return the rating or -1 if the reviewer did not rate the movie
+	 */
+	public double getRating(int movie, int userId) {
+		int pos = find(movie, userIndex(userId));
+		return pos < 0 ? -1 : movieRatings[pos] / 2.0;
+	}
+
+	/**
+	 * Changes an existing rating in place
+	 *
+	 * @param movie  the movie id
+	 * @param userId the reviewer id
+	 * @param rating the new rating
+	 * @return true if the rating was changed, false if the matrix has no rating of the
+	 *         movie by that reviewer
+	 * @throws IllegalArgumentException if the matrix has a rating of the movie by that
+	 *                                  reviewer and the new rating is not a multiple of half
+	 *                                  a star; nothing is changed then
+	 */
+	public boolean set(int movie, int userId, double rating) {
+		int user = userIndex(userId);
+		int pos = find(movie, user);
+		if (pos < 0) {
+			return false;
+		}
+		if (!isHalfStars(rating)) {
+			throw new IllegalArgumentException("rating " + rating + " is not a multiple of half a star, cannot set()");
+		}
+		byte halfStars = toHalfStars(rating);
+		movieRatings[pos] = halfStars;
+		userRatings[Arrays.binarySearch(userMovies, userOffsets[user], userOffsets[user + 1], movie)] = halfStars;
+		return true;
+	}
+
+	/*********************************************************
+	 * Primitive access for algorithms that loop over the arrays.
+	 * None of the returned arrays may be modified.
+	 *********************************************************/
+
+	/**
+	 * Returns the start of each movie's ratings in the movie index
+	 *
+	 * @return the movie offsets, of length numMovies()+1
+	 */
+	public int[] getMovieOffsets() {
+		return movieOffsets;
+	}
+
+	/**
+	 * Returns the sorted reviewer indices of each movie's ratings
+	 *
+	 * @return the reviewers in the movie index
+	 */
+	public int[] getMovieUsers() {
+		return movieUsers;
+	}
+
+	/**
+	 * Returns the ratings in half stars in the order of the movie index
+	 *
+	 * @return the ratings in the movie index
+	 */
+	public byte[] getMovieRatings() {
+		return movieRatings;
+	}
+
+	/**
+	 * Returns the start of each reviewer's ratings in the reviewer index
+	 *
+	 * @return the reviewer offsets, of length numUsers()+1
+	 */
+	public int[] getUserOffsets() {
+		return userOffsets;
+	}
+
+	/**
+	 * Returns the sorted movie ids of each reviewer's ratings
+	 *
+	 * @return the movies in the reviewer index
+	 */
+	public int[] getUserMovies() {
+		return userMovies;
+	}
+
+	/**
+	 * Returns the ratings in half stars in the order of the reviewer index
+	 *
+	 * @return the ratings in the reviewer index
+	 */
+	public byte[] getUserRatings() {
+		return userRatings;
+	}
+
+	/**
+	 * Returns the reviewer ids, sorted, indexed by reviewer index
+	 *
+	 * @return the reviewer ids
+	 */
+	public int[] getUserIds() {
+		return userIds;
+	}
+
+	/**
+	 * Finds a rating in the movie index
+	 *
+	 * @param movie the movie id
+	 * @param user  the reviewer index
+	 * @return the position of the rating in the movie index, or -1
+	 */
+	int find(int movie, int user) {
+		if (user < 0 || movie < 0 || movie >= numMovies()) {
+			return -1;
+		}
+		int pos = Arrays.binarySearch(movieUsers, movieOffsets[movie], movieOffsets[movie + 1], user);
+		return pos < 0 ? -1 : pos;
+	}
+}
@@ -0,0 +1,124 @@
+package data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only map view of one row of a {@link RatingMatrix}, either the ratings of a
+ * movie keyed by reviewer id or the ratings of a reviewer keyed by movie id, followed by
+ * any ratings that were added after the matrix was built.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+class RatingView extends AbstractMap<Integer, Double> {
+	private final RatingMatrix matrix;
+	private final boolean byMovie;
+	private final int from, to;
+	private final Map<Integer, Double> extra;
+
+	/**
+	 * Creates a view of a row of the matrix
+	 *
+	 * @param matrix  the matrix
+	 * @param byMovie true for a movie's ratings, false for a reviewer's
+	 * @param row     the movie id or reviewer index, or -1 for an empty row
+	 * @param extra   ratings that are not in the matrix
+	 */
+	RatingView(RatingMatrix matrix, boolean byMovie, int row, Map<Integer, Double> extra) {
+		int[] offsets = byMovie ? matrix.movieOffsets : matrix.userOffsets;
+		this.matrix = matrix;
+		this.byMovie = byMovie;
+		this.from = row < 0 ? 0 : offsets[row];
+		this.to = row < 0 ? 0 : offsets[row + 1];
+		this.extra = extra;
+	}
+
+	@Override
+	public int size() {
+		return to - from + extra.size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(key) >= 0 || extra.containsKey(key);
+	}
+
+	@Override
+	public Double get(Object key) {
+		int pos = find(key);
+		if (pos >= 0) {
+			return ratingAt(pos);
+		}
+		return extra.get(key);
+	}
+
+	@Override
+	public Set<Map.Entry<Integer, Double>> entrySet() {
+		return new AbstractSet<Map.Entry<Integer, Double>>() {
+			public int size() {
+				return RatingView.this.size();
+			}
+
+			public Iterator<Map.Entry<Integer, Double>> iterator() {
+				return new Iterator<Map.Entry<Integer, Double>>() {
+					private int pos = from;
+					private final Iterator<Map.Entry<Integer, Double>> rest = extra.entrySet().iterator();
+
+					public boolean hasNext() {
+						return pos < to || rest.hasNext();
+					}
+
+					public Map.Entry<Integer, Double> next() {
+						if (pos < to) {
+							Map.Entry<Integer, Double> entry = new SimpleImmutableEntry<Integer, Double>(keyAt(pos),
+									ratingAt(pos));
+							pos++;
+							return entry;
+						}
+						if (!rest.hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return new SimpleImmutableEntry<Integer, Double>(rest.next());
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Returns the id stored at a position of the row
+	 */
+	private int keyAt(int pos) {
+		return byMovie ? matrix.userIds[matrix.movieUsers[pos]] : matrix.userMovies[pos];
+	}
+
+	/**
+	 * Returns the rating stored at a position of the row
+	 */
+	private double ratingAt(int pos) {
+		return (byMovie ? matrix.movieRatings[pos] : matrix.userRatings[pos]) / 2.0;
+	}
+
+	/**
+	 * Finds the position of a key in the row
+	 */
+	private int find(Object key) {
+		if (!(key instanceof Integer) || from == to) {
+			return -1;
+		}
+		int pos;
+		if (byMovie) {
+			int user = matrix.userIndex((Integer) key);
+			pos = user < 0 ? -1 : Arrays.binarySearch(matrix.movieUsers, from, to, user);
+		} else {
+			pos = Arrays.binarySearch(matrix.userMovies, from, to, (Integer) key);
+		}
+		return pos < 0 ? -1 : pos;
+	}
+}
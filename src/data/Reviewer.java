@@ -7,7 +7,11 @@ import java.util.ArrayList;
 /**
  * This class contains information for a single Netflix movie reviewer
  * including the reviewer id and a list of the movies (and ratings)
- * reviewed
+ * reviewed. A reviewer created over a {@link RatingMatrix} reads its
+ * ratings from the matrix and only keeps ratings added later for movies
+ * that are not in the matrix. A rating for a movie the matrix already
+ * holds replaces the one in the matrix, so it must be a multiple of half
+ * a star.
  * 
  * @author alchambers
  *
@@ -16,9 +20,12 @@ public class Reviewer {
 	private int reviewerId;
 
 	// The key is the movie id and the value is the rating
-	// given by the user
+	// given by the user, for ratings that are not in the matrix
 	private Map<Integer, Double> listByMovieId;
 
+	private RatingMatrix matrix;
+	private int index; // the reviewer's index in the matrix or -1
+
 
 	/**
 	 * Create a new reviewer with given id
@@ -27,23 +34,43 @@ public class Reviewer {
 	public Reviewer(int id){
 		reviewerId = id;
 		listByMovieId = new HashMap<>();		
+		index = -1;
 	}	
 
+	/**
+	 * Create a reviewer whose ratings are read from a shared rating matrix
+	 * @param id The reviewer id
+	 * @param matrix The rating matrix
+	 */
+	public Reviewer(int id, RatingMatrix matrix){
+		this(id);
+		this.matrix = matrix;
+		this.index = matrix.userIndex(id);
+	}
+
 	/**
 	 * Add a movie to the reviewer's list of rated movies
 	 * @movieID The movie id
 	 * @rating The user's ratingn for the specified movie
+	 * @throws IllegalArgumentException if the matrix holds a rating of the movie
+	 * by this reviewer and the new rating is not a multiple of half a star
 	 */ 
 	public void addMovie(int movieId, double rating){
-		listByMovieId.put(movieId, rating);
+		if(index < 0 || !matrix.set(movieId, reviewerId, rating)){
+			listByMovieId.put(movieId, rating);
+		}
 	}
 
 
 	/**
-	 * Get a list of all movies the reviewer rated, regardless of the rating
+	 * Get a list of all movies the reviewer rated, regardless of the rating.
+	 * The map is read-only for reviewers backed by a rating matrix.
 	 * @return A map view of the user's ratings
 	 */
 	public Map<Integer, Double> getRatings(){
+		if(index >= 0){
+			return new RatingView(matrix, false, index, listByMovieId);
+		}
 		return  listByMovieId;
 	}
 
@@ -54,6 +81,12 @@ public class Reviewer {
 	 * @return The user's rating for the movie or -1 if the reviewer did not rate the movie
 	 */
 	public double getMovieRating(int movieId){
+		if(index >= 0){
+			double stored = matrix.getRating(movieId, reviewerId);
+			if(stored >= 0){
+				return stored;
+			}
+		}
 		if(!listByMovieId.containsKey(movieId)){
 			return -1;
 		}
@@ -75,6 +108,9 @@ public class Reviewer {
 	 * @return True if the reviewer rated the movie, false otehrwise
 	 */
 	public boolean ratedMovie(int movieId){		
+		if(index >= 0 && matrix.find(movieId, index) >= 0){
+			return true;
+		}
 		return listByMovieId.containsKey(movieId);
 	}
 
@@ -82,6 +118,9 @@ public class Reviewer {
 	 * Returns the number of movies rated by the reviewer
 	 */
 	public int numRated(){
+		if(index >= 0){
+			return matrix.userCount(index) + listByMovieId.size();
+		}
 		return listByMovieId.size();
 	}
 	
@@ -119,7 +158,7 @@ public class Reviewer {
 	 */
 	public String toString(){
 		String str = "User: " + reviewerId + "\n";					
-		for(Map.Entry<Integer, Double> entry : listByMovieId.entrySet()){
+		for(Map.Entry<Integer, Double> entry : getRatings().entrySet()){
 			int movieId = entry.getKey();
 			double rating = entry.getValue();
 			str += "\tmovie=" + movieId + " rating=" + rating + "\n";
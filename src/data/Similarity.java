@@ -0,0 +1,98 @@
+package data;
+
+/**
+ * Measures of how similar two movies are, computed from the reviewers who rated both.
+ * Every measure is at most 1, for the same reviewers and ratings. Jaccard and cosine are
+ * never negative; Pearson is negative for movies that the shared reviewers rate in
+ * opposite ways.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public enum Similarity {
+	/** The number of shared reviewers divided by the number of reviewers of either movie */
+	JACCARD,
+	/** The cosine of the angle between the two movies' rating vectors */
+	COSINE,
+	/**
+	 * The cosine of the two movies' rating vectors after subtracting each movie's mean
+	 * rating, the mean-centered form of Pearson correlation used for item similarity
+	 */
+	PEARSON;
+
+	/**
+	 * Computes the similarity of two movies from aggregates of their ratings
+	 *
+	 * @param shared  the number of reviewers who rated both movies
+	 * @param countA  the number of reviewers of the first movie
+	 * @param countB  the number of reviewers of the second movie
+	 * @param dot     the sum over the shared reviewers of the product of their two ratings,
+	 *                each less its movie's center
+	 * @param normA   the norm of the first movie's ratings, see {@link #norms}
+	 * @param normB   the norm of the second movie's ratings
+	 * @return the similarity, at most 1
+	 */
+	public double of(int shared, int countA, int countB, double dot, double normA, double normB) {
+		switch (this) {
+		case JACCARD:
+			int union = countA + countB - shared;
+			return union == 0 ? 0 : (double) shared / union;
+		case COSINE:
+		case PEARSON:
+			return normA == 0 || normB == 0 ? 0 : Math.max(-1, Math.min(1, dot / (normA * normB)));
+		default:
+			throw new AssertionError(this);
+		}
+	}
+
+	/**
+	 * Returns the value subtracted from every rating of a movie before dot products are
+	 * taken: the movie's mean rating for Pearson and 0 otherwise
+	 *
+	 * @param ratings the ratings
+	 * @return the center of each movie in half stars
+	 */
+	public double[] centers(RatingMatrix ratings) {
+		double[] centers = new double[ratings.numMovies()];
+		if (this == PEARSON) {
+			for (int movie = 0; movie < centers.length; movie++) {
+				long sum = 0;
+				for (int p = ratings.movieOffsets[movie]; p < ratings.movieOffsets[movie + 1]; p++) {
+					sum += ratings.movieRatings[p];
+				}
+				centers[movie] = ratings.movieCount(movie) == 0 ? 0 : (double) sum / ratings.movieCount(movie);
+			}
+		}
+		return centers;
+	}
+
+	/**
+	 * Returns the Euclidean norm of every movie's centered ratings
+	 *
+	 * @param ratings the ratings
+	 * @param centers the center of each movie, see {@link #centers(RatingMatrix)}
+	 * @return the norm of each movie in half stars
+	 */
+	public static double[] norms(RatingMatrix ratings, double[] centers) {
+		double[] norms = new double[ratings.numMovies()];
+		for (int movie = 0; movie < norms.length; movie++) {
+			double sum = 0;
+			for (int p = ratings.movieOffsets[movie]; p < ratings.movieOffsets[movie + 1]; p++) {
+				double r = ratings.movieRatings[p] - centers[movie];
+				sum += r * r;
+			}
+			norms[movie] = Math.sqrt(sum);
+		}
+		return norms;
+	}
+
+	/**
+	 * Converts a similarity into an edge weight, so that similar movies are close
+	 *
+	 * @param similarity a similarity of at most 1
+	 * @return 1 - similarity, never negative
+	 */
+	public static float distance(double similarity) {
+		return (float) Math.max(0, 1 - similarity);
+	}
+}
@@ -0,0 +1,192 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The tags reviewers gave to movies, as posting lists in both directions. Every distinct
+ * tag is interned once and numbered 0 ... numTags()-1 in alphabetical order, so a tag
+ * costs one String however many times it was applied. The tags of every movie and the
+ * movies of every tag are kept in compressed sparse row form, one int per pair, sorted and
+ * without duplicates: the tags of movie m are movieTags[movieOffsets[m] ...
+ * movieOffsets[m+1]-1] and the movies of tag t are tagMovies[tagOffsets[t] ...
+ * tagOffsets[t+1]-1].
+ *
+ * The index is immutable and may be read by any number of threads.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class TagIndex {
+	private final String[] names; // the text of every tag, indexed by tag id
+	private final int[] movieOffsets, movieTags;
+	private final int[] tagOffsets, tagMovies;
+
+	private TagIndex(String[] names, int[] movieOffsets, int[] movieTags, int[] tagOffsets, int[] tagMovies) {
+		this.names = names;
+		this.movieOffsets = movieOffsets;
+		this.movieTags = movieTags;
+		this.tagOffsets = tagOffsets;
+		this.tagMovies = tagMovies;
+	}
+
+	/**
+	 * Builds the index from (movie, tag) pairs. A pair that occurs more than once, because
+	 * several reviewers gave a movie the same tag, is kept once. The tags are renumbered in
+	 * alphabetical order.
+	 *
+	 * @param numMovies one more than the largest movie id
+	 * @param names     the distinct tags, indexed by tag id
+	 * @param movies    the movie of every pair
+	 * @param tags      the tag of every pair
+	 * @param count     the number of pairs
+	 * @return the index
+	 * @throws IllegalArgumentException if a movie or tag id is out of range
+	 */
+	public static TagIndex build(int numMovies, String[] names, int[] movies, int[] tags, int count) {
+		// number the tags in alphabetical order so that the tags of a movie list alphabetically
+		Integer[] order = new Integer[names.length];
+		for (int t = 0; t < names.length; t++) {
+			order[t] = t;
+		}
+		Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+		int[] rank = new int[names.length];
+		String[] sorted = new String[names.length];
+		for (int r = 0; r < names.length; r++) {
+			rank[order[r]] = r;
+			sorted[r] = names[order[r]];
+		}
+
+		long[] pairs = new long[count];
+		for (int i = 0; i < count; i++) {
+			if (movies[i] < 0 || movies[i] >= numMovies || tags[i] < 0 || tags[i] >= names.length) {
+				throw new IllegalArgumentException("movie " + movies[i] + " or tag " + tags[i] + " is out of range, cannot build TagIndex");
+			}
+			pairs[i] = (long) movies[i] << 32 | rank[tags[i]];
+		}
+		Arrays.sort(pairs);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || pairs[i] != pairs[i - 1]) {
+				pairs[distinct++] = pairs[i];
+			}
+		}
+
+		int[] movieOffsets = new int[numMovies + 1];
+		int[] tagOffsets = new int[names.length + 1];
+		int[] movieTags = new int[distinct];
+		for (int i = 0; i < distinct; i++) {
+			movieOffsets[(int) (pairs[i] >>> 32) + 1]++;
+			tagOffsets[(int) pairs[i] + 1]++;
+			movieTags[i] = (int) pairs[i];
+		}
+		for (int m = 0; m < numMovies; m++) {
+			movieOffsets[m + 1] += movieOffsets[m];
+		}
+		for (int t = 0; t < names.length; t++) {
+			tagOffsets[t + 1] += tagOffsets[t];
+		}
+		// the pairs are in movie order, so every tag's movies come out sorted
+		int[] tagMovies = new int[distinct];
+		int[] next = Arrays.copyOf(tagOffsets, names.length);
+		for (int i = 0; i < distinct; i++) {
+			tagMovies[next[(int) pairs[i]]++] = (int) (pairs[i] >>> 32);
+		}
+		return new TagIndex(sorted, movieOffsets, movieTags, tagOffsets, tagMovies);
+	}
+
+	/**
+	 * Returns the number of distinct tags
+	 *
+	 * @return the number of tags
+	 */
+	public int numTags() {
+		return names.length;
+	}
+
+	/**
+	 * Returns one more than the largest movie id
+	 *
+	 * @return the bound on movie ids
+	 */
+	public int numMovies() {
+		return movieOffsets.length - 1;
+	}
+
+	/**
+	 * Returns the number of distinct (movie, tag) pairs
+	 *
+	 * @return the number of pairs
+	 */
+	public int numPairs() {
+		return movieTags.length;
+	}
+
+	/**
+	 * Returns the text of a tag
+	 *
+	 * @param tag a tag id
+	 * @return the tag, lower-cased and trimmed
+	 */
+	public String name(int tag) {
+		return names[tag];
+	}
+
+	/**
+	 * Returns the tags of a movie in increasing order
+	 *
+	 * @param movie a movie id
+	 * @return a new array of tag ids
+	 */
+	public int[] tagsOf(int movie) {
+		return Arrays.copyOfRange(movieTags, movieOffsets[movie], movieOffsets[movie + 1]);
+	}
+
+	/**
+	 * Returns where the tags of every movie start in {@link #getMovieTags()}. The array
+	 * must not be modified.
+	 *
+	 * @return the movie offsets
+	 */
+	public int[] getMovieOffsets() {
+		return movieOffsets;
+	}
+
+	/**
+	 * Returns the tags of every movie, grouped by movie. The array must not be modified.
+	 *
+	 * @return the tag ids
+	 */
+	public int[] getMovieTags() {
+		return movieTags;
+	}
+
+	/**
+	 * Returns where the movies of every tag start in {@link #getTagMovies()}. The array
+	 * must not be modified.
+	 *
+	 * @return the tag offsets
+	 */
+	public int[] getTagOffsets() {
+		return tagOffsets;
+	}
+
+	/**
+	 * Returns the movies of every tag, grouped by tag. The array must not be modified.
+	 *
+	 * @return the movie ids
+	 */
+	public int[] getTagMovies() {
+		return tagMovies;
+	}
+
+	/**
+	 * Brings a tag to the form it is interned in
+	 *
+	 * @param name the tag as written
+	 * @return the tag, lower-cased and trimmed
+	 */
+	public static String normalize(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+}
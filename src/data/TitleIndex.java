@@ -0,0 +1,390 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An inverted index of movie titles. Titles are split into tokens, the lower-cased runs of
+ * letters and digits, and every distinct token has a posting list: the sorted ids of the
+ * movies whose title contains it. The tokens are kept sorted, so the tokens with a given
+ * prefix are one binary search away, and every trigram of every token points to the
+ * tokens that contain it, so a substring of three or more characters only has to be
+ * checked against the tokens that share all of its trigrams. No title is scanned at query
+ * time.
+ *
+ * A query is one or more groups separated by OR. A group matches the movies that match
+ * every term in it, and a term matches the movies with a title token that contains the
+ * term, or that starts with it if the term ends in *. Results are ranked by the number of
+ * ratings, most rated first, read when the query runs so that added ratings count.
+ *
+ * The index is immutable and may be searched by any number of threads. Movies added to
+ * the map after the index was built are not found.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class TitleIndex {
+	private static final int GRAM = 3;
+	private static final int[] NONE = new int[0];
+
+	private final Movie[] movies; // indexed by movie id
+	private final String[] tokens; // every distinct token, sorted
+	private final int[][] postings; // ids of the movies whose title has tokens[t], increasing
+	private final Map<String, int[]> grams; // trigram to the increasing indexes of the tokens containing it
+
+	/**
+	 * Indexes the titles of some movies
+	 *
+	 * @param movies map from movie id to movie
+	 * @throws IllegalArgumentException if a movie id is negative
+	 */
+	public TitleIndex(Map<Integer, Movie> movies) {
+		this(movies.values());
+	}
+
+	/**
+	 * Indexes the titles of some movies
+	 *
+	 * @param movies the movies
+	 * @throws IllegalArgumentException if a movie id is negative
+	 */
+	public TitleIndex(Collection<Movie> movies) {
+		int bound = 0;
+		for (Movie movie : movies) {
+			if (movie.getMovieId() < 0) {
+				throw new IllegalArgumentException("movie id " + movie.getMovieId() + " is negative, cannot index title");
+			}
+			bound = Math.max(bound, movie.getMovieId() + 1);
+		}
+		this.movies = new Movie[bound];
+		for (Movie movie : movies) {
+			this.movies[movie.getMovieId()] = movie;
+		}
+
+		// visiting the movies in id order keeps every posting list sorted
+		TreeMap<String, IntList> byToken = new TreeMap<>();
+		for (Movie movie : this.movies) {
+			if (movie == null) {
+				continue;
+			}
+			for (String token : tokenize(movie.getTitle())) {
+				IntList list = byToken.get(token);
+				if (list == null) {
+					byToken.put(token, list = new IntList());
+				}
+				if (list.size == 0 || list.values[list.size - 1] != movie.getMovieId()) {
+					list.add(movie.getMovieId());
+				}
+			}
+		}
+		tokens = byToken.keySet().toArray(new String[0]);
+		postings = new int[tokens.length][];
+		Map<String, IntList> byGram = new HashMap<>();
+		int t = 0;
+		for (IntList list : byToken.values()) {
+			postings[t] = list.toArray();
+			String token = tokens[t];
+			for (int i = 0; i + GRAM <= token.length(); i++) {
+				String gram = token.substring(i, i + GRAM);
+				IntList containing = byGram.get(gram);
+				if (containing == null) {
+					byGram.put(gram, containing = new IntList());
+				}
+				if (containing.size == 0 || containing.values[containing.size - 1] != t) {
+					containing.add(t);
+				}
+			}
+			t++;
+		}
+		grams = new HashMap<>(byGram.size() * 4 / 3 + 1);
+		for (Map.Entry<String, IntList> entry : byGram.entrySet()) {
+			grams.put(entry.getKey(), entry.getValue().toArray());
+		}
+	}
+
+	/**
+	 * Returns the ids of the movies matching a query, most rated first
+	 *
+	 * @param query the query
+	 * @return the matching movie ids
+	 */
+	public int[] search(String query) {
+		return search(query, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the ids of the most rated movies matching a query, most rated first. Ties
+	 * are broken by the smaller id.
+	 *
+	 * @param query the query
+	 * @param limit the largest number of ids to return
+	 * @return the matching movie ids
+	 * @throws IllegalArgumentException if the limit is negative
+	 */
+	public int[] search(String query, int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("limit must not be negative, cannot search()");
+		}
+		int[] ids = matches(query);
+		int n = Math.min(limit, ids.length);
+		long[] keys = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			// fewer ratings and then larger ids sort later
+			keys[i] = (long) (Integer.MAX_VALUE - movies[ids[i]].numRatings()) << 32 | ids[i];
+		}
+		if (n < ids.length / 8) {
+			selectSmallest(keys, n);
+			Arrays.sort(keys, 0, n);
+		} else {
+			Arrays.sort(keys);
+		}
+		int[] ranked = new int[n];
+		for (int i = 0; i < n; i++) {
+			ranked[i] = (int) keys[i];
+		}
+		return ranked;
+	}
+
+	/**
+	 * Returns the ids of the movies matching a query in increasing order, without ranking
+	 * them
+	 *
+	 * @param query the query
+	 * @return the matching movie ids
+	 */
+	public int[] matches(String query) {
+		BitSet union = null;
+		int[] single = NONE;
+		int groups = 0;
+		for (String group : query.split("\\s+OR\\s+|\\|")) {
+			int[] ids = matchGroup(group);
+			if (ids == null || ids.length == 0) {
+				continue;
+			}
+			if (groups++ == 0) {
+				single = ids;
+				continue;
+			}
+			if (union == null) {
+				union = new BitSet(movies.length);
+				set(union, single);
+			}
+			set(union, ids);
+		}
+		return union == null ? single.clone() : toArray(union);
+	}
+
+	/**
+	 * Returns the number of distinct tokens in the titles
+	 *
+	 * @return the number of tokens
+	 */
+	public int numTokens() {
+		return tokens.length;
+	}
+
+	/**
+	 * Returns the number of distinct trigrams in the tokens
+	 *
+	 * @return the number of trigrams
+	 */
+	public int numGrams() {
+		return grams.size();
+	}
+
+	/**
+	 * Splits a title or query into lower-cased runs of letters and digits
+	 *
+	 * @param text the text
+	 * @return the tokens in order, with repeats
+	 */
+	public static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (word && start < 0) {
+				start = i;
+			} else if (!word && start >= 0) {
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Returns the movies matching every term of a group, or null if the group has no terms
+	 */
+	private int[] matchGroup(String group) {
+		int[] result = null;
+		for (String raw : group.trim().split("\\s+")) {
+			boolean prefix = raw.endsWith("*");
+			List<String> pieces = tokenize(raw);
+			for (int i = 0; i < pieces.size(); i++) {
+				// punctuation splits a term into pieces, only the last of which is a prefix
+				int[] ids = matchTerm(pieces.get(i), prefix && i == pieces.size() - 1);
+				result = result == null ? ids : intersect(result, ids);
+				if (result.length == 0) {
+					return result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the movies with a token that starts with or contains the term
+	 */
+	private int[] matchTerm(String term, boolean prefix) {
+		int from, to;
+		int[] candidates = null; // indexes of the tokens to check, null for all of them
+		if (prefix) {
+			from = lowerBound(term);
+			to = lowerBound(term + Character.MAX_VALUE);
+		} else {
+			from = 0;
+			to = tokens.length;
+			for (int i = 0; i + GRAM <= term.length(); i++) {
+				int[] containing = grams.get(term.substring(i, i + GRAM));
+				if (containing == null) {
+					return NONE;
+				}
+				candidates = candidates == null ? containing : intersect(candidates, containing);
+			}
+		}
+
+		int matched = 0, last = -1;
+		BitSet union = null;
+		int count = candidates == null ? to - from : candidates.length;
+		for (int k = 0; k < count; k++) {
+			int t = candidates == null ? from + k : candidates[k];
+			if (!prefix && !tokens[t].contains(term)) {
+				continue;
+			}
+			if (matched++ == 1) {
+				union = new BitSet(movies.length);
+				set(union, postings[last]);
+			}
+			if (union != null) {
+				set(union, postings[t]);
+			}
+			last = t;
+		}
+		if (matched == 0) {
+			return NONE;
+		}
+		return union == null ? postings[last] : toArray(union);
+	}
+
+	/**
+	 * Returns the index of the first token that is not less than the key
+	 */
+	private int lowerBound(String key) {
+		int lo = 0, hi = tokens.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (tokens[mid].compareTo(key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the values found in both of two increasing arrays
+	 */
+	private static int[] intersect(int[] a, int[] b) {
+		int[] both = new int[Math.min(a.length, b.length)];
+		int n = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				both[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return n == both.length ? both : Arrays.copyOf(both, n);
+	}
+
+	private static void set(BitSet bits, int[] ids) {
+		for (int id : ids) {
+			bits.set(id);
+		}
+	}
+
+	private static int[] toArray(BitSet bits) {
+		int[] ids = new int[bits.cardinality()];
+		int n = 0;
+		for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+			ids[n++] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Moves the n smallest keys to the front of the array in no particular order, using a
+	 * max-heap of the n smallest keys seen so far
+	 */
+	private static void selectSmallest(long[] keys, int n) {
+		if (n == 0) {
+			return;
+		}
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(keys, i, n);
+		}
+		for (int i = n; i < keys.length; i++) {
+			if (keys[i] < keys[0]) {
+				keys[0] = keys[i];
+				siftDown(keys, 0, n);
+			}
+		}
+	}
+
+	private static void siftDown(long[] heap, int i, int n) {
+		long key = heap[i];
+		for (int child = 2 * i + 1; child < n; child = 2 * i + 1) {
+			if (child + 1 < n && heap[child + 1] > heap[child]) {
+				child++;
+			}
+			if (heap[child] <= key) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = key;
+	}
+
+	/**
+	 * A growable list of ints used while the index is built
+	 */
+	private static class IntList {
+		int[] values = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
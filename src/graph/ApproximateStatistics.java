@@ -0,0 +1,454 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import util.Parallel;
+
+/**
+ * Approximate statistics for graphs too large for an exact all-pairs search.
+ *
+ * The diameter is bounded with the iFUB algorithm: a double sweep finds a lower bound
+ * and a central start vertex, then the eccentricities of the vertices farthest from that
+ * start are computed level by level until the lower and upper bounds meet or the budget
+ * of breadth first searches runs out. The graph is treated as undirected, which holds for
+ * the symmetric co-rating graphs, and only the component of the highest degree vertex is
+ * searched.
+ *
+ * The average path length comes from the neighborhood function N(t), the number of pairs
+ * within distance t, estimated HyperANF style: every vertex keeps a HyperLogLog counter of
+ * the vertices it can reach and each round merges the counters of its neighbors into it.
+ * The relative standard error of each N(t) is about 1.04 / sqrt(registers).
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class ApproximateStatistics {
+	private int numVertices, numEdges, maxDegree, maxDegreeVertex = -1;
+	private int diameterLowerBound, diameterUpperBound, diameterSearches;
+	private int registers;
+	private double[] neighborhood; // neighborhood[t] estimates the pairs within distance t
+	private long elapsedMillis;
+
+	private ApproximateStatistics() {
+	}
+
+	/**
+	 * Computes approximate statistics of a graph
+	 *
+	 * @param G             the graph, treated as undirected
+	 * @param relativeError the target relative standard error of the path length estimates,
+	 *                      which sets the number of HyperLogLog registers per vertex
+	 * @param maxSearches   the most breadth first searches to spend bounding the diameter
+	 * @param parallelism   the number of worker threads, or 0 to use every processor
+	 * @return the statistics
+	 * @throws IllegalArgumentException if the error is not between 0 and 1
+	 */
+	public static ApproximateStatistics compute(CsrGraph G, double relativeError, int maxSearches, int parallelism) {
+		if (!(relativeError > 0 && relativeError < 1)) {
+			throw new IllegalArgumentException("relative error must be between 0 and 1, cannot compute()");
+		}
+		long start = System.nanoTime();
+		ApproximateStatistics stats = new ApproximateStatistics();
+		stats.numVertices = G.numVertices();
+		stats.numEdges = G.numEdges();
+		for (int v = 0; v < G.vertexBound(); v++) {
+			if (G.hasVertex(v) && (stats.maxDegreeVertex < 0 || G.degree(v) > stats.maxDegree)) {
+				stats.maxDegree = G.degree(v);
+				stats.maxDegreeVertex = v;
+			}
+		}
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			if (stats.maxDegreeVertex >= 0) {
+				stats.boundDiameter(G, Math.max(2, maxSearches), pool);
+			}
+			stats.registers = registersFor(relativeError, G.vertexBound());
+			stats.neighborhood = neighborhoodFunction(G, stats.registers, pool);
+		} finally {
+			pool.shutdown();
+		}
+		stats.elapsedMillis = (System.nanoTime() - start) / 1000000;
+		return stats;
+	}
+
+	/**
+	 * Returns the number of vertices
+	 *
+	 * @return |V|
+	 */
+	public int numVertices() {
+		return numVertices;
+	}
+
+	/**
+	 * Returns the number of edges
+	 *
+	 * @return |E|
+	 */
+	public int numEdges() {
+		return numEdges;
+	}
+
+	/**
+	 * Returns the fraction of possible edges that are present
+	 *
+	 * @return the density
+	 */
+	public double density() {
+		return numVertices < 2 ? 0 : (double) numEdges / ((double) numVertices * (numVertices - 1));
+	}
+
+	/**
+	 * Returns the largest degree of any vertex
+	 *
+	 * @return the max degree
+	 */
+	public int maxDegree() {
+		return maxDegree;
+	}
+
+	/**
+	 * Returns a vertex with the largest degree
+	 *
+	 * @return the vertex or -1 for an empty graph
+	 */
+	public int maxDegreeVertex() {
+		return maxDegreeVertex;
+	}
+
+	/**
+	 * Returns the largest eccentricity found, a lower bound on the diameter
+	 *
+	 * @return the estimated diameter
+	 */
+	public int diameter() {
+		return diameterLowerBound;
+	}
+
+	/**
+	 * Returns an upper bound on the diameter of the searched component
+	 *
+	 * @return the upper bound
+	 */
+	public int diameterUpperBound() {
+		return diameterUpperBound;
+	}
+
+	/**
+	 * Determines whether the diameter bounds met, making the diameter exact for the
+	 * searched component
+	 *
+	 * @return true if the diameter is exact
+	 */
+	public boolean isDiameterExact() {
+		return diameterLowerBound >= diameterUpperBound;
+	}
+
+	/**
+	 * Returns the number of breadth first searches spent on the diameter
+	 *
+	 * @return the number of searches
+	 */
+	public int diameterSearches() {
+		return diameterSearches;
+	}
+
+	/**
+	 * Returns the estimated neighborhood function. Entry t estimates the number of ordered
+	 * pairs (u, v) with v reachable from u in at most t steps, counting u itself.
+	 *
+	 * @return a copy of the neighborhood function
+	 */
+	public double[] neighborhoodFunction() {
+		return Arrays.copyOf(neighborhood, neighborhood.length);
+	}
+
+	/**
+	 * Returns the estimated number of ordered pairs u != v with v reachable from u
+	 *
+	 * @return the estimated number of reachable pairs
+	 */
+	public double reachablePairs() {
+		return Math.max(0, neighborhood[neighborhood.length - 1] - neighborhood[0]);
+	}
+
+	/**
+	 * Returns the estimated average shortest path length over all reachable pairs
+	 *
+	 * @return the estimated average path length
+	 */
+	public double averagePathLength() {
+		double sum = 0;
+		for (int t = 1; t < neighborhood.length; t++) {
+			sum += t * Math.max(0, neighborhood[t] - neighborhood[t - 1]);
+		}
+		double pairs = reachablePairs();
+		return pairs == 0 ? 0 : sum / pairs;
+	}
+
+	/**
+	 * Returns the relative standard error of each HyperLogLog estimate
+	 *
+	 * @return the relative standard error
+	 */
+	public double relativeStandardError() {
+		return 1.04 / Math.sqrt(registers);
+	}
+
+	/**
+	 * Returns the half width of an approximate 95% confidence interval for the average
+	 * path length
+	 *
+	 * @return the margin of error
+	 */
+	public double averagePathLengthMargin() {
+		return 1.96 * relativeStandardError() * averagePathLength();
+	}
+
+	/**
+	 * Returns the number of HyperLogLog registers kept per vertex
+	 *
+	 * @return the registers per vertex
+	 */
+	public int registers() {
+		return registers;
+	}
+
+	/**
+	 * Returns the time taken to compute the statistics
+	 *
+	 * @return the elapsed time in milliseconds
+	 */
+	public long elapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/*********************************************************
+	 * Diameter bounds
+	 *********************************************************/
+
+	/**
+	 * Bounds the diameter of the component of the highest degree vertex with a double
+	 * sweep followed by iFUB.
+	 */
+	private void boundDiameter(CsrGraph G, int maxSearches, ForkJoinPool pool) {
+		int n = G.vertexBound();
+		int[] dist = new int[n], parent = new int[n], queue = new int[n];
+
+		// double sweep: the farthest vertex from a hub, then the farthest vertex from that
+		int a = farthest(queue, bfs(G, maxDegreeVertex, dist, parent, queue));
+		int tail = bfs(G, a, dist, parent, queue);
+		int b = farthest(queue, tail);
+		diameterLowerBound = dist[b];
+		diameterSearches = 2;
+
+		// start iFUB from the middle of the path between a and b
+		int middle = b;
+		for (int steps = dist[b] / 2; steps > 0; steps--) {
+			middle = parent[middle];
+		}
+		tail = bfs(G, middle, dist, parent, queue);
+		diameterSearches++;
+		int eccentricity = dist[queue[tail - 1]];
+		diameterLowerBound = Math.max(diameterLowerBound, eccentricity);
+		diameterUpperBound = 2 * eccentricity;
+
+		// queue holds the component in order of distance from the middle; walk the levels
+		// from the outside in, computing the eccentricity of every vertex on each level
+		int end = tail;
+		for (int level = eccentricity; level > 0 && diameterLowerBound < diameterUpperBound; level--) {
+			int begin = end;
+			while (begin > 0 && dist[queue[begin - 1]] == level) {
+				begin--;
+			}
+			if (diameterSearches + (end - begin) > maxSearches) {
+				break;
+			}
+			diameterLowerBound = Math.max(diameterLowerBound, maxEccentricity(G, queue, begin, end, pool));
+			diameterSearches += end - begin;
+			if (diameterLowerBound > 2 * (level - 1)) {
+				diameterUpperBound = diameterLowerBound;
+			} else {
+				diameterUpperBound = 2 * (level - 1);
+			}
+			end = begin;
+		}
+		diameterUpperBound = Math.max(diameterUpperBound, diameterLowerBound);
+	}
+
+	/**
+	 * Computes the largest eccentricity of the vertices vertices[from ... to-1] in parallel
+	 */
+	private static int maxEccentricity(CsrGraph G, int[] vertices, int from, int to, ForkJoinPool pool) {
+		int n = G.vertexBound();
+		int[] best = new int[1];
+		Parallel.forRange(pool, from, to, Parallel.grain(to - from, pool.getParallelism()), (lo, hi) -> {
+			int[] dist = new int[n], parent = new int[n], queue = new int[n];
+			int max = 0;
+			for (int i = lo; i < hi; i++) {
+				int tail = bfs(G, vertices[i], dist, parent, queue);
+				max = Math.max(max, dist[queue[tail - 1]]);
+			}
+			synchronized (best) {
+				best[0] = Math.max(best[0], max);
+			}
+		});
+		return best[0];
+	}
+
+	/**
+	 * Runs a breadth first search, leaving the reached vertices in queue in order of
+	 * distance and the distance and BFS tree parent of each of them in dist and parent.
+	 *
+	 * @return the number of vertices reached
+	 */
+	private static int bfs(CsrGraph G, int source, int[] dist, int[] parent, int[] queue) {
+		int[] offsets = G.offsets, targets = G.targets;
+		Arrays.fill(dist, -1);
+		int head = 0, tail = 0;
+		queue[tail++] = source;
+		dist[source] = 0;
+		parent[source] = -1;
+		while (head < tail) {
+			int u = queue[head++];
+			for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+				int v = targets[i];
+				if (dist[v] < 0) {
+					dist[v] = dist[u] + 1;
+					parent[v] = u;
+					queue[tail++] = v;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Returns the last vertex reached by a search, which is one of the farthest
+	 */
+	private static int farthest(int[] queue, int tail) {
+		return queue[tail - 1];
+	}
+
+	/*********************************************************
+	 * HyperANF neighborhood function
+	 *********************************************************/
+
+	/**
+	 * Chooses a power of two number of registers giving at most the requested error, as
+	 * long as the counters of every vertex still fit in one array
+	 */
+	private static int registersFor(double relativeError, int numVertices) {
+		double needed = Math.pow(1.04 / relativeError, 2);
+		int bits = 4;
+		while (bits < 16 && (1 << bits) < needed && ((long) numVertices << (bits + 1)) < Integer.MAX_VALUE) {
+			bits++;
+		}
+		return 1 << bits;
+	}
+
+	/**
+	 * Estimates the neighborhood function by propagating HyperLogLog counters along the
+	 * edges until no counter changes.
+	 */
+	private static double[] neighborhoodFunction(CsrGraph G, int m, ForkJoinPool pool) {
+		int n = G.vertexBound();
+		int bits = Integer.numberOfTrailingZeros(m);
+		byte[] current = new byte[n * m];
+		byte[] next = new byte[n * m];
+		double[] estimates = new double[n];
+		for (int v = 0; v < n; v++) {
+			if (G.hasVertex(v)) {
+				long hash = mix(v);
+				int register = (int) (hash >>> (64 - bits));
+				int rank = Long.numberOfLeadingZeros((hash << bits) | (1L << (bits - 1))) + 1;
+				current[v * m + register] = (byte) rank;
+			}
+		}
+		double[] counts = new double[Math.max(2, n + 1)];
+		int grain = Parallel.grain(n, pool.getParallelism());
+		counts[0] = sumEstimates(G, current, m, estimates, grain, pool);
+		int t = 0;
+		boolean[] changed = new boolean[1];
+		while (t < n) {
+			changed[0] = false;
+			byte[] from = current, to = next;
+			Parallel.forRange(pool, 0, n, grain, (lo, hi) -> {
+				int[] offsets = G.offsets, targets = G.targets;
+				boolean any = false;
+				for (int v = lo; v < hi; v++) {
+					int base = v * m;
+					System.arraycopy(from, base, to, base, m);
+					for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+						int other = targets[i] * m;
+						for (int j = 0; j < m; j++) {
+							if (from[other + j] > to[base + j]) {
+								to[base + j] = from[other + j];
+								any = true;
+							}
+						}
+					}
+				}
+				if (any) {
+					changed[0] = true;
+				}
+			});
+			if (!changed[0]) {
+				break;
+			}
+			t++;
+			current = to;
+			next = from;
+			counts[t] = sumEstimates(G, current, m, estimates, grain, pool);
+		}
+		return Arrays.copyOf(counts, Math.max(1, t + 1));
+	}
+
+	/**
+	 * Adds up the HyperLogLog estimates of every vertex's counter
+	 */
+	private static double sumEstimates(CsrGraph G, byte[] counters, int m, double[] estimates, int grain,
+			ForkJoinPool pool) {
+		Parallel.forRange(pool, 0, G.vertexBound(), grain, (lo, hi) -> {
+			for (int v = lo; v < hi; v++) {
+				estimates[v] = G.hasVertex(v) ? estimate(counters, v * m, m) : 0;
+			}
+		});
+		double sum = 0;
+		for (double e : estimates) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	/**
+	 * The HyperLogLog cardinality estimate of one counter, with the small range correction
+	 */
+	private static double estimate(byte[] counters, int base, int m) {
+		double sum = 0;
+		int zeros = 0;
+		for (int j = 0; j < m; j++) {
+			sum += Math.scalb(1.0, -counters[base + j]);
+			if (counters[base + j] == 0) {
+				zeros++;
+			}
+		}
+		double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5 * m && zeros > 0) {
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Scrambles a vertex id into a 64 bit hash
+	 */
+	private static long mix(long x) {
+		x += 0x9e3779b97f4a7c15L;
+		x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return x ^ (x >>> 33);
+	}
+}
@@ -0,0 +1,407 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import util.Parallel;
+
+/**
+ * Scores how central every movie of a graph is, to find the hubs:
+ * <ul>
+ * <li>PageRank, by power iteration until the ranks change by less than a tolerance. Every
+ * iteration pulls the rank of each vertex from its in-neighbors, so the vertices can be
+ * updated in parallel without any two workers writing the same element.</li>
+ * <li>Betweenness, estimated with Brandes' algorithm from a random sample of sources and
+ * scaled up to all of them.</li>
+ * <li>Closeness, estimated from breadth first searches from a random sample of
+ * vertices.</li>
+ * </ul>
+ * Scores are plain double arrays indexed by vertex, holding NaN for the ids that are not
+ * vertices.
+ *
+ * An instance caches the scores of one graph and computes them again only when asked about
+ * another, like {@link PathCache}. The methods are synchronized, so an instance
+ * may be shared by several threads; the arrays it returns must not be modified.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Centrality {
+	/** The probability of following an edge rather than jumping to a random movie */
+	public static final double DAMPING = 0.85;
+	/** PageRank stops once the ranks change by less than this in total */
+	public static final double TOLERANCE = 1e-9;
+	/** The most PageRank iterations run */
+	public static final int MAX_ITERATIONS = 200;
+	/** The number of sources sampled for betweenness and closeness */
+	public static final int DEFAULT_SAMPLES = 64;
+	private static final long SEED = 17;
+
+	private final int samples, parallelism;
+	private CsrGraph graph; // the graph the scores belong to
+	private double[] pageRank, betweenness, closeness;
+
+	/**
+	 * Creates a cache that samples the default number of sources
+	 *
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 */
+	public Centrality(int parallelism) {
+		this(DEFAULT_SAMPLES, parallelism);
+	}
+
+	/**
+	 * Creates a cache of scores
+	 *
+	 * @param samples     the number of sources sampled for betweenness and closeness
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @throws IllegalArgumentException if samples is less than 1
+	 */
+	public Centrality(int samples, int parallelism) {
+		if (samples < 1) {
+			throw new IllegalArgumentException("at least one sample is required, cannot create Centrality");
+		}
+		this.samples = samples;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the PageRank of every vertex, computing it the first time it is asked for
+	 *
+	 * @param G the graph
+	 * @return the ranks, which add up to 1
+	 */
+	public synchronized double[] pageRank(CsrGraph G) {
+		use(G);
+		if (pageRank == null) {
+			pageRank = pageRank(G, DAMPING, TOLERANCE, MAX_ITERATIONS, parallelism);
+		}
+		return pageRank;
+	}
+
+	/**
+	 * Returns the estimated betweenness of every vertex, computing it the first time it is
+	 * asked for
+	 *
+	 * @param G the graph
+	 * @return the betweenness scores
+	 */
+	public synchronized double[] betweenness(CsrGraph G) {
+		use(G);
+		if (betweenness == null) {
+			betweenness = betweenness(G, samples, SEED, parallelism);
+		}
+		return betweenness;
+	}
+
+	/**
+	 * Returns the estimated closeness of every vertex, computing it the first time it is
+	 * asked for
+	 *
+	 * @param G the graph
+	 * @return the closeness scores
+	 */
+	public synchronized double[] closeness(CsrGraph G) {
+		use(G);
+		if (closeness == null) {
+			closeness = closeness(G, samples, SEED, parallelism);
+		}
+		return closeness;
+	}
+
+	/**
+	 * Computes PageRank by power iteration. A vertex without out-edges hands its rank to
+	 * every vertex equally.
+	 *
+	 * @param G             the graph
+	 * @param damping       the probability of following an edge, between 0 and 1
+	 * @param tolerance     the iteration stops once the ranks change by less than this in
+	 *                      total
+	 * @param maxIterations the most iterations run
+	 * @param parallelism   the number of worker threads, or 0 to use every processor
+	 * @return the ranks, which add up to 1
+	 * @throws IllegalArgumentException if the damping is not between 0 and 1
+	 */
+	public static double[] pageRank(CsrGraph G, double damping, double tolerance, int maxIterations, int parallelism) {
+		if (damping < 0 || damping > 1) {
+			throw new IllegalArgumentException("damping must be between 0 and 1, cannot pageRank()");
+		}
+		int n = G.vertexBound();
+		int numVertices = G.numVertices();
+		double[] rank = new double[n];
+		if (numVertices == 0) {
+			return nanOutside(G, rank);
+		}
+		CsrGraph in = G.transpose(); // pulled from in-neighbors
+		int[] offsets = G.offsets, inOffsets = in.offsets, sources = in.targets;
+		double[] share = new double[n]; // rank[u] / out-degree of u
+		double[] next = new double[n];
+		for (int v = 0; v < n; v++) {
+			rank[v] = G.hasVertex(v) ? 1.0 / numVertices : 0;
+		}
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			int grain = Parallel.grain(n, pool.getParallelism());
+			for (int iteration = 0; iteration < maxIterations; iteration++) {
+				double[] current = rank, updated = next;
+				DoubleAdder dangling = new DoubleAdder();
+				Parallel.forRange(pool, 0, n, grain, (from, to) -> {
+					double lost = 0;
+					for (int u = from; u < to; u++) {
+						int degree = offsets[u + 1] - offsets[u];
+						share[u] = degree == 0 ? 0 : current[u] / degree;
+						if (degree == 0) {
+							lost += current[u];
+						}
+					}
+					dangling.add(lost);
+				});
+				double base = ((1 - damping) + damping * dangling.sum()) / numVertices;
+				DoubleAdder change = new DoubleAdder();
+				Parallel.forRange(pool, 0, n, grain, (from, to) -> {
+					double moved = 0;
+					for (int v = from; v < to; v++) {
+						if (!G.hasVertex(v)) {
+							continue;
+						}
+						double sum = 0;
+						for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+							sum += share[sources[i]];
+						}
+						updated[v] = base + damping * sum;
+						moved += Math.abs(updated[v] - current[v]);
+					}
+					change.add(moved);
+				});
+				next = rank;
+				rank = updated;
+				if (change.sum() < tolerance) {
+					break;
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return nanOutside(G, rank);
+	}
+
+	/**
+	 * Estimates betweenness with Brandes' algorithm from a sample of sources. The
+	 * betweenness of v is the number of ordered pairs (s, t) whose shortest paths run
+	 * through v, each pair counting the fraction of its shortest paths that do; the
+	 * estimate scales the sum over the sampled sources by numVertices() / samples. With
+	 * every vertex sampled the scores are exact.
+	 *
+	 * @param G           the graph
+	 * @param samples     the number of sources, at most numVertices()
+	 * @param seed        seeds the choice of sources
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the betweenness scores
+	 */
+	public static double[] betweenness(CsrGraph G, int samples, long seed, int parallelism) {
+		int n = G.vertexBound();
+		int[] sources = sample(G, samples, seed);
+		double[] total = new double[n];
+		int[] offsets = G.offsets, targets = G.targets;
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, sources.length, Parallel.grain(sources.length, pool.getParallelism()), (from, to) -> {
+				double[] partial = new double[n];
+				int[] dist = new int[n];
+				double[] paths = new double[n]; // number of shortest paths from the source
+				double[] dependency = new double[n];
+				int[] order = new int[n]; // vertices in the order they were reached
+				Arrays.fill(dist, -1);
+				for (int k = from; k < to; k++) {
+					int source = sources[k];
+					int head = 0, tail = 0;
+					order[tail++] = source;
+					dist[source] = 0;
+					paths[source] = 1;
+					while (head < tail) {
+						int u = order[head++];
+						for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+							int v = targets[i];
+							if (dist[v] < 0) {
+								dist[v] = dist[u] + 1;
+								order[tail++] = v;
+							}
+							if (dist[v] == dist[u] + 1) {
+								paths[v] += paths[u];
+							}
+						}
+					}
+					// walk back from the farthest vertices, passing each one's dependency to its predecessors
+					for (int j = tail - 1; j >= 0; j--) {
+						int w = order[j];
+						for (int i = offsets[w]; i < offsets[w + 1]; i++) {
+							int v = targets[i];
+							if (dist[v] == dist[w] + 1) {
+								dependency[w] += paths[w] / paths[v] * (1 + dependency[v]);
+							}
+						}
+						if (w != source) {
+							partial[w] += dependency[w];
+						}
+					}
+					for (int j = 0; j < tail; j++) { // reset only what this source touched
+						int w = order[j];
+						dist[w] = -1;
+						paths[w] = 0;
+						dependency[w] = 0;
+					}
+				}
+				synchronized (total) {
+					for (int v = 0; v < n; v++) {
+						total[v] += partial[v];
+					}
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		double scale = sources.length == 0 ? 0 : (double) G.numVertices() / sources.length;
+		for (int v = 0; v < n; v++) {
+			total[v] *= scale;
+		}
+		return nanOutside(G, total);
+	}
+
+	/**
+	 * Estimates closeness from breadth first searches to a sample of vertices. The
+	 * closeness of v is the reciprocal of its average distance to the sampled vertices it
+	 * can reach, times the fraction of them it can reach, so that a movie in a small
+	 * component is not scored as central (the Wasserman and Faust correction).
+	 *
+	 * @param G           the graph
+	 * @param samples     the number of sampled vertices, at most numVertices()
+	 * @param seed        seeds the choice of vertices
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the closeness scores, 0 for a vertex that reaches none of the samples
+	 */
+	public static double[] closeness(CsrGraph G, int samples, long seed, int parallelism) {
+		int n = G.vertexBound();
+		int[] sources = sample(G, samples, seed);
+		CsrGraph in = G.transpose(); // a search back from s finds the distance of every v to s
+		int[] offsets = in.offsets, targets = in.targets;
+		long[] distance = new long[n];
+		int[] reached = new int[n];
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, sources.length, Parallel.grain(sources.length, pool.getParallelism()), (from, to) -> {
+				long[] partialDistance = new long[n];
+				int[] partialReached = new int[n];
+				int[] dist = new int[n];
+				int[] seen = new int[n];
+				int[] queue = new int[n];
+				for (int k = from; k < to; k++) {
+					int source = sources[k], stamp = k + 1;
+					int head = 0, tail = 0;
+					queue[tail++] = source;
+					seen[source] = stamp;
+					dist[source] = 0;
+					while (head < tail) {
+						int u = queue[head++];
+						for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+							int v = targets[i];
+							if (seen[v] != stamp) {
+								seen[v] = stamp;
+								dist[v] = dist[u] + 1;
+								partialDistance[v] += dist[v];
+								partialReached[v]++;
+								queue[tail++] = v;
+							}
+						}
+					}
+				}
+				synchronized (distance) {
+					for (int v = 0; v < n; v++) {
+						distance[v] += partialDistance[v];
+						reached[v] += partialReached[v];
+					}
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		double[] closeness = new double[n];
+		for (int v = 0; v < n; v++) {
+			if (reached[v] > 0) {
+				closeness[v] = (double) reached[v] / distance[v] * reached[v] / sources.length;
+			}
+		}
+		return nanOutside(G, closeness);
+	}
+
+	/**
+	 * Returns the vertices with the highest scores
+	 *
+	 * @param scores a score per vertex, NaN for ids that are not vertices
+	 * @param count  the number of vertices wanted
+	 * @return at most count vertices, highest score first and smallest id first on a tie
+	 */
+	public static int[] top(double[] scores, int count) {
+		Integer[] ids = new Integer[scores.length];
+		int m = 0;
+		for (int v = 0; v < scores.length; v++) {
+			if (!Double.isNaN(scores[v])) {
+				ids[m++] = v;
+			}
+		}
+		Arrays.sort(ids, 0, m, (a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : a - b);
+		int[] top = new int[Math.max(0, Math.min(count, m))];
+		for (int i = 0; i < top.length; i++) {
+			top[i] = ids[i];
+		}
+		return top;
+	}
+
+	/**
+	 * Makes the graph the one the cache is about, dropping the scores of another graph
+	 */
+	private void use(CsrGraph G) {
+		if (G == graph) {
+			return;
+		}
+		graph = G;
+		pageRank = betweenness = closeness = null;
+	}
+
+	/**
+	 * Picks distinct vertices at random, or every vertex if there are no more than wanted
+	 */
+	private static int[] sample(CsrGraph G, int samples, long seed) {
+		int[] vertices = new int[G.numVertices()];
+		int m = 0;
+		for (int v = 0; v < G.vertexBound(); v++) {
+			if (G.hasVertex(v)) {
+				vertices[m++] = v;
+			}
+		}
+		if (samples >= m) {
+			return vertices;
+		}
+		Random random = new Random(seed);
+		for (int i = 0; i < samples; i++) { // a partial Fisher-Yates shuffle
+			int j = i + random.nextInt(m - i);
+			int swap = vertices[i];
+			vertices[i] = vertices[j];
+			vertices[j] = swap;
+		}
+		return Arrays.copyOf(vertices, samples);
+	}
+
+	/**
+	 * Marks the ids that are not vertices with NaN
+	 */
+	private static double[] nanOutside(CsrGraph G, double[] scores) {
+		for (int v = 0; v < scores.length; v++) {
+			if (!G.hasVertex(v)) {
+				scores[v] = Double.NaN;
+			}
+		}
+		return scores;
+	}
+}
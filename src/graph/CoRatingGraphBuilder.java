@@ -0,0 +1,371 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import data.Movie;
+import data.RatingMatrix;
+import data.Reviewer;
+import data.Similarity;
+import util.Parallel;
+
+/**
+ * Builds the movie co-rating graph from an inverted index of the ratings. Instead of
+ * comparing every pair of movies against every reviewer, the ratings are indexed once
+ * by movie and once by reviewer. The row of a movie is then found by walking the rating
+ * lists of its reviewers and counting how often every other movie was co-rated, so the
+ * total work is proportional to the number of co-rated pairs rather than M*M*R.
+ *
+ * Rows are independent of each other, so {@link #build(Adjacency, int, int)} computes them
+ * in parallel, each worker filling in the adjacency sets of its own movies. Every worker
+ * allocates its scratch arrays once and reuses them for all of its movies, since a row
+ * only clears the entries it touched.
+ *
+ * The index is a {@link RatingMatrix}, so ratings must be whole numbers of half stars,
+ * which is the granularity of the MovieLens data.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class CoRatingGraphBuilder {
+	/** The number of shared reviewers needed for an edge in the original analyzer */
+	public static final int DEFAULT_THRESHOLD = 12;
+
+	/**
+	 * The rules for deciding whether two movies are adjacent
+	 */
+	public enum Adjacency {
+		/** The same reviewers gave the same rating to both movies */
+		SAME_RATING,
+		/** The same reviewers rated both movies, regardless of the rating */
+		ANY_RATING
+	}
+
+	private int[] movieIds; // maps a dense movie index back to the movie id
+	private RatingMatrix ratings; // the ratings indexed by dense movie index
+
+	/**
+	 * Indexes the ratings of the given movies and reviewers. Ratings for movies that do not
+	 * appear in the movie map are ignored.
+	 *
+	 * @param movies    map from movie id to movie
+	 * @param reviewers map from reviewer id to reviewer
+	 * @throws IllegalArgumentException if a rating is not a multiple of half a star
+	 */
+	public CoRatingGraphBuilder(Map<Integer, Movie> movies, Map<Integer, Reviewer> reviewers) {
+		int numMovies = movies.size();
+		movieIds = new int[numMovies];
+		int i = 0;
+		for (Integer id : movies.keySet()) {
+			movieIds[i++] = id;
+		}
+		Arrays.sort(movieIds);
+		Map<Integer, Integer> index = new HashMap<>();
+		for (i = 0; i < numMovies; i++) {
+			index.put(movieIds[i], i);
+		}
+
+		int total = 0;
+		for (Reviewer reviewer : reviewers.values()) {
+			total += reviewer.numRated();
+		}
+		int[] users = new int[total];
+		int[] dense = new int[total];
+		byte[] halfStars = new byte[total];
+		int count = 0;
+		for (Reviewer reviewer : reviewers.values()) {
+			for (Map.Entry<Integer, Double> entry : reviewer.getRatings().entrySet()) {
+				Integer movie = index.get(entry.getKey());
+				if (movie != null) {
+					users[count] = reviewer.getReviewerId();
+					dense[count] = movie;
+					halfStars[count] = RatingMatrix.toHalfStars(entry.getValue());
+					count++;
+				}
+			}
+		}
+		ratings = RatingMatrix.build(numMovies, users, dense, halfStars, count);
+	}
+
+	/**
+	 * Uses an existing rating matrix, whose movie ids become the vertices of the graph
+	 *
+	 * @param ratings the ratings
+	 */
+	public CoRatingGraphBuilder(RatingMatrix ratings) {
+		this.ratings = ratings;
+		movieIds = new int[ratings.numMovies()];
+		for (int i = 0; i < movieIds.length; i++) {
+			movieIds[i] = i;
+		}
+	}
+
+	/**
+	 * Builds the co-rating graph. Every movie becomes a vertex and there is an edge from u
+	 * to v whenever at least <code>threshold</code> reviewers co-rated u and v under the
+	 * given adjacency rule.
+	 *
+	 * @param adjacency the rule deciding whether a reviewer counts towards an edge
+	 * @param threshold the number of reviewers needed for an edge
+	 * @return the co-rating graph
+	 * @throws IllegalArgumentException if the threshold is less than 1
+	 */
+	public Graph<Integer> build(Adjacency adjacency, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be at least 1, cannot build()");
+		}
+		Graph<Integer> graph = new Graph<Integer>();
+		for (int id : movieIds) {
+			graph.addVertex(id);
+		}
+		int[] counts = new int[numMovies()];
+		int[] touched = new int[numMovies()];
+		int[] row = new int[numMovies()];
+		for (int movie = 0; movie < numMovies(); movie++) {
+			int size = row(movie, adjacency, threshold, counts, touched, row);
+			for (int i = 0; i < size; i++) {
+				graph.addEdge(movieIds[movie], movieIds[row[i]]);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Builds the co-rating graph using several threads. Movies are split into ranges on a
+	 * fork-join pool; each range computes the adjacency sets of its own movies with the
+	 * scratch arrays of its worker, and the finished sets are then installed in the graph without any
+	 * locking. The result is the same as {@link #build(Adjacency, int)}.
+	 *
+	 * @param adjacency   the rule deciding whether a reviewer counts towards an edge
+	 * @param threshold   the number of reviewers needed for an edge
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the co-rating graph
+	 * @throws IllegalArgumentException if the threshold is less than 1
+	 */
+	public Graph<Integer> build(Adjacency adjacency, int threshold, int parallelism) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be at least 1, cannot build()");
+		}
+		int numMovies = numMovies();
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Set<Integer>[] rows = new Set[numMovies];
+		ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(numMovies, false));
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, numMovies, Parallel.grain(numMovies, pool.getParallelism()), (from, to) -> {
+				Scratch s = scratch.get();
+				for (int movie = from; movie < to; movie++) {
+					int size = row(movie, adjacency, threshold, s.counts, s.touched, s.row);
+					Set<Integer> neighbors = new HashSet<Integer>(Math.max(16, (int) (size / .75f) + 1));
+					for (int i = 0; i < size; i++) {
+						neighbors.add(movieIds[s.row[i]]);
+					}
+					rows[movie] = neighbors;
+				}
+			});
+		} finally {
+			pool.shutdown();
+			scratch.remove(); // in case the calling thread ran a piece itself
+		}
+		Graph<Integer> graph = new Graph<Integer>();
+		for (int movie = 0; movie < numMovies; movie++) {
+			graph.setNeighbors(movieIds[movie], rows[movie]);
+		}
+		return graph;
+	}
+
+	/**
+	 * Builds the co-rating graph with a weight of 1 - similarity on every edge, so that
+	 * shortest paths follow the most similar movies. The dot product and the count in the
+	 * similarity of two movies run over the reviewers who count towards their edge under
+	 * the adjacency rule, while the norms of the two movies come from all of their ratings,
+	 * as in {@link Similarity#norms}. The edges are the same as those of {@link #build(Adjacency, int)}.
+	 *
+	 * @param adjacency   the rule deciding whether a reviewer counts towards an edge
+	 * @param threshold   the number of reviewers needed for an edge
+	 * @param similarity  the similarity measure
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the weighted co-rating graph
+	 * @throws IllegalArgumentException if the threshold is less than 1
+	 */
+	public WeightedGraph buildWeighted(Adjacency adjacency, int threshold, Similarity similarity, int parallelism) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be at least 1, cannot buildWeighted()");
+		}
+		int numMovies = numMovies();
+		double[] centers = similarity.centers(ratings);
+		double[] norms = Similarity.norms(ratings, centers);
+
+		int[][] rowTargets = new int[numMovies][];
+		float[][] rowWeights = new float[numMovies][];
+		ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(numMovies, true));
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, numMovies, Parallel.grain(numMovies, pool.getParallelism()), (from, to) -> {
+				Scratch s = scratch.get();
+				for (int movie = from; movie < to; movie++) {
+					int size = row(movie, adjacency, threshold, s.counts, s.dots, centers, s.touched, s.row, s.rowCounts,
+							s.rowDots);
+					float[] weights = new float[size];
+					for (int i = 0; i < size; i++) {
+						int other = s.row[i];
+						weights[i] = Similarity.distance(similarity.of(s.rowCounts[i], ratings.movieCount(movie),
+								ratings.movieCount(other), s.rowDots[i], norms[movie], norms[other]));
+					}
+					rowTargets[movie] = Arrays.copyOf(s.row, size);
+					rowWeights[movie] = weights;
+				}
+			});
+		} finally {
+			pool.shutdown();
+			scratch.remove(); // in case the calling thread ran a piece itself
+		}
+
+		// lay the rows out by movie id
+		int bound = 0;
+		for (int id : movieIds) {
+			bound = Math.max(bound, id + 1);
+		}
+		BitSet present = new BitSet(bound);
+		int[] offsets = new int[bound + 1];
+		for (int movie = 0; movie < numMovies; movie++) {
+			present.set(movieIds[movie]);
+			offsets[movieIds[movie] + 1] = rowTargets[movie].length;
+		}
+		for (int v = 0; v < bound; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] targets = new int[offsets[bound]];
+		float[] weights = new float[offsets[bound]];
+		for (int movie = 0; movie < numMovies; movie++) {
+			int pos = offsets[movieIds[movie]];
+			for (int i = 0; i < rowTargets[movie].length; i++) {
+				targets[pos + i] = movieIds[rowTargets[movie][i]];
+			}
+			System.arraycopy(rowWeights[movie], 0, weights, pos, rowWeights[movie].length);
+		}
+		return new WeightedGraph(offsets, targets, weights, present.cardinality() == bound ? null : present);
+	}
+
+	/**
+	 * Returns the number of movies in the index
+	 *
+	 * @return number of movies
+	 */
+	public int numMovies() {
+		return movieIds.length;
+	}
+
+	/**
+	 * Finds the neighbors of a single movie. The scratch arrays must be at least as long as
+	 * the number of movies and <code>counts</code> must be all zeros; it is left that way
+	 * on return.
+	 *
+	 * @param movie     dense index of the movie
+	 * @param adjacency the adjacency rule
+	 * @param threshold the number of reviewers needed for an edge
+	 * @param counts    scratch array of co-rating counts
+	 * @param touched   scratch array of movies with a non-zero count
+	 * @param row       receives the dense indices of the neighbors
+	 * @return the number of neighbors written to row
+	 */
+	int row(int movie, Adjacency adjacency, int threshold, int[] counts, int[] touched, int[] row) {
+		return row(movie, adjacency, threshold, counts, null, null, touched, row, null, null);
+	}
+
+	/**
+	 * Finds the neighbors of a single movie, optionally with the number of reviewers and the
+	 * rating dot product each neighbor shares with it. The scratch arrays must be at least as
+	 * long as the number of movies, and <code>counts</code> and <code>dots</code> must be all
+	 * zeros; they are left that way on return.
+	 *
+	 * @param movie       dense index of the movie
+	 * @param adjacency   the adjacency rule
+	 * @param threshold   the number of reviewers needed for an edge
+	 * @param counts      scratch array of co-rating counts
+	 * @param dots        scratch array of rating dot products, or null to skip them
+	 * @param centers     the value subtracted from each movie's ratings in the dot products
+	 * @param touched     scratch array of movies with a non-zero count
+	 * @param row         receives the dense indices of the neighbors
+	 * @param rowCounts   receives the co-rating count of each neighbor, or null
+	 * @param rowDots     receives the centered rating dot product with each neighbor in
+	 *                    squared half stars, or null
+	 * @return the number of neighbors written to row
+	 */
+	int row(int movie, Adjacency adjacency, int threshold, int[] counts, double[] dots, double[] centers, int[] touched,
+			int[] row, int[] rowCounts, double[] rowDots) {
+		int[] movieOffsets = ratings.getMovieOffsets(), movieUsers = ratings.getMovieUsers();
+		int[] userOffsets = ratings.getUserOffsets(), userMovies = ratings.getUserMovies();
+		byte[] movieRatings = ratings.getMovieRatings(), userRatings = ratings.getUserRatings();
+		boolean sameRating = adjacency == Adjacency.SAME_RATING;
+		int numTouched = 0;
+		for (int p = movieOffsets[movie]; p < movieOffsets[movie + 1]; p++) {
+			int reviewer = movieUsers[p];
+			byte rating = movieRatings[p];
+			double centered = dots == null ? 0 : rating - centers[movie];
+			for (int q = userOffsets[reviewer]; q < userOffsets[reviewer + 1]; q++) {
+				int other = userMovies[q];
+				if (other == movie || (sameRating && userRatings[q] != rating)) {
+					continue;
+				}
+				if (counts[other]++ == 0) {
+					touched[numTouched++] = other;
+				}
+				if (dots != null) {
+					dots[other] += centered * (userRatings[q] - centers[other]);
+				}
+			}
+		}
+		int size = 0;
+		for (int i = 0; i < numTouched; i++) {
+			int other = touched[i];
+			if (counts[other] >= threshold) {
+				if (rowCounts != null) {
+					rowCounts[size] = counts[other];
+				}
+				if (rowDots != null) {
+					rowDots[size] = dots[other];
+				}
+				row[size++] = other;
+			}
+			counts[other] = 0;
+			if (dots != null) {
+				dots[other] = 0;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the movie id of a dense movie index
+	 *
+	 * @param movie dense index of the movie
+	 * @return the movie id
+	 */
+	int movieId(int movie) {
+		return movieIds[movie];
+	}
+
+	/**
+	 * The scratch arrays of one worker, reused for every movie it handles
+	 */
+	private static class Scratch {
+		final int[] counts, touched, row;
+		final int[] rowCounts; // null unless weighted
+		final double[] dots, rowDots; // null unless weighted
+
+		Scratch(int numMovies, boolean weighted) {
+			counts = new int[numMovies];
+			touched = new int[numMovies];
+			row = new int[numMovies];
+			rowCounts = weighted ? new int[numMovies] : null;
+			dots = weighted ? new double[numMovies] : null;
+			rowDots = weighted ? new double[numMovies] : null;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import data.Movie;
+import data.RatingMatrix;
+import data.Reviewer;
+import graph.CoRatingGraphBuilder.Adjacency;
+import util.LongIntHashMap;
+
+/**
+ * Keeps a co-rating graph up to date as ratings arrive, without rebuilding it. The
+ * updater remembers how many reviewers count towards every co-rated pair of movies. A new
+ * or changed rating of movie m by a reviewer can only change the pairs of m with the other
+ * movies of that reviewer, so {@link #addRating(int, int, double)} walks that reviewer's
+ * ratings once, bumps those counters and adds or removes an edge when a counter crosses
+ * the threshold. The cost of an event is proportional to the number of movies the reviewer
+ * rated.
+ *
+ * The graph starts out equal to the one {@link CoRatingGraphBuilder} builds from the same
+ * ratings. The counters are kept in a {@link LongIntHashMap} keyed by the pair, so memory
+ * grows with the number of co-rated pairs. The graph is a {@link ConcurrentGraph}, so it
+ * can be read by other threads while ratings are added, but addRating itself must only be
+ * called by one thread at a time.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class CoRatingGraphUpdater {
+	/** The lowest rating addRating accepts, the lowest on the MovieLens scale */
+	public static final double MIN_RATING = 0.5;
+	/** The highest rating addRating accepts */
+	public static final double MAX_RATING = 5.0;
+
+	private final Map<Integer, Movie> movies;
+	private final Map<Integer, Reviewer> reviewers;
+	private final RatingMatrix matrix; // backs new reviewers, may be null
+	private final Adjacency adjacency;
+	private final int threshold;
+	private final ConcurrentGraph graph;
+	private final LongIntHashMap pairs; // reviewers counting towards each pair, keyed by pairKey
+	private RatingMatrix current; // every rating as of the last change, made when first asked for
+	private long events;
+
+	/**
+	 * Counts the co-rated pairs of the current ratings and builds the graph from them.
+	 * Ratings for movies that do not appear in the movie map are ignored.
+	 *
+	 * @param movies    map from movie id to movie, updated by addRating
+	 * @param reviewers map from reviewer id to reviewer, updated by addRating
+	 * @param matrix    the rating matrix that new reviewers read from, or null
+	 * @param adjacency the rule deciding whether a reviewer counts towards an edge
+	 * @param threshold the number of reviewers needed for an edge
+	 * @throws IllegalArgumentException if the threshold is less than 1
+	 */
+	public CoRatingGraphUpdater(Map<Integer, Movie> movies, Map<Integer, Reviewer> reviewers, RatingMatrix matrix,
+			Adjacency adjacency, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be at least 1, cannot create CoRatingGraphUpdater");
+		}
+		this.movies = movies;
+		this.reviewers = reviewers;
+		this.matrix = matrix;
+		this.adjacency = adjacency;
+		this.threshold = threshold;
+		this.pairs = new LongIntHashMap(movies.size() * 64);
+
+		int[] rated = new int[0];
+		double[] given = new double[0];
+		for (Reviewer reviewer : reviewers.values()) {
+			if (rated.length < reviewer.numRated()) {
+				rated = new int[Math.max(reviewer.numRated(), 2 * rated.length)];
+				given = new double[rated.length];
+			}
+			int size = 0;
+			for (Map.Entry<Integer, Double> entry : reviewer.getRatings().entrySet()) {
+				if (movies.containsKey(entry.getKey())) {
+					rated[size] = entry.getKey();
+					given[size] = entry.getValue();
+					size++;
+				}
+			}
+			for (int i = 0; i < size; i++) {
+				for (int j = i + 1; j < size; j++) {
+					if (adjacency == Adjacency.ANY_RATING || given[i] == given[j]) {
+						pairs.add(pairKey(rated[i], rated[j]), 1);
+					}
+				}
+			}
+		}
+
+		// lay the edges out in compressed form and load the graph in one go
+		int bound = 0;
+		for (Integer id : movies.keySet()) {
+			bound = Math.max(bound, id + 1);
+		}
+		BitSet present = new BitSet(bound);
+		for (Integer id : movies.keySet()) {
+			present.set(id);
+		}
+		int[] offsets = new int[bound + 1];
+		pairs.forEach((key, count) -> {
+			if (count >= threshold) {
+				offsets[(int) (key >>> 32) + 1]++;
+				offsets[(int) key + 1]++;
+			}
+		});
+		for (int v = 0; v < bound; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] targets = new int[offsets[bound]];
+		int[] next = Arrays.copyOf(offsets, bound);
+		pairs.forEach((key, count) -> {
+			if (count >= threshold) {
+				int u = (int) (key >>> 32), v = (int) key;
+				targets[next[u]++] = v;
+				targets[next[v]++] = u;
+			}
+		});
+		graph = new ConcurrentGraph(new CsrGraph(offsets, targets, present.cardinality() == bound ? null : present));
+	}
+
+	/**
+	 * Returns the graph, which every call to addRating keeps up to date. Other threads may
+	 * read it while ratings are being added.
+	 *
+	 * @return the co-rating graph
+	 */
+	public ConcurrentGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Records a new rating, or changes an existing one, in the movie and reviewer and in
+	 * the graph. A reviewer seen for the first time is added to the reviewer map. The
+	 * inputs are checked before anything is changed, so a rejected rating leaves the
+	 * counters, the graph, the movie and the reviewer as they were.
+	 *
+	 * @param userId  the id of the reviewer
+	 * @param movieId the id of the movie
+	 * @param rating  the rating, a multiple of half a star from MIN_RATING to MAX_RATING
+	 * @return the number of pairs of movies whose edge was added or removed
+	 * @throws IllegalArgumentException if the movie is unknown, the reviewer id is
+	 *                                  negative or the rating is not on the half star scale
+	 */
+	public int addRating(int userId, int movieId, double rating) {
+		if (!movies.containsKey(movieId)) {
+			throw new IllegalArgumentException("movie " + movieId + " is not in the graph, cannot addRating()");
+		}
+		if (userId < 0) {
+			throw new IllegalArgumentException("reviewer must not be negative, cannot addRating()");
+		}
+		if (!(rating >= MIN_RATING && rating <= MAX_RATING) || !RatingMatrix.isHalfStars(rating)) {
+			throw new IllegalArgumentException("rating " + rating + " is not a multiple of half a star from "
+					+ MIN_RATING + " to " + MAX_RATING + ", cannot addRating()");
+		}
+		Reviewer reviewer = reviewers.get(userId);
+		if (reviewer == null) {
+			reviewer = matrix == null ? new Reviewer(userId) : new Reviewer(userId, matrix);
+			reviewers.put(userId, reviewer);
+		}
+		double old = reviewer.getMovieRating(movieId);
+		events++;
+		if (old == rating) {
+			return 0;
+		}
+
+		int changed = 0;
+		for (Map.Entry<Integer, Double> entry : reviewer.getRatings().entrySet()) {
+			int other = entry.getKey();
+			if (other == movieId || !movies.containsKey(other)) {
+				continue;
+			}
+			int delta;
+			if (adjacency == Adjacency.ANY_RATING) {
+				delta = old < 0 ? 1 : 0;
+			} else {
+				double given = entry.getValue();
+				delta = (rating == given ? 1 : 0) - (old == given ? 1 : 0);
+			}
+			if (delta == 0) {
+				continue;
+			}
+			long key = pairKey(movieId, other);
+			int count = pairs.add(key, delta);
+			if (delta > 0 ? count == threshold : count == threshold - 1) {
+				link(key, delta > 0);
+				changed++;
+			}
+		}
+		reviewer.addMovie(movieId, rating);
+		movies.get(movieId).addRating(userId, rating);
+		current = null;
+		return changed;
+	}
+
+	/**
+	 * Returns every rating as it stands now, the loaded ones and those added since, in a
+	 * matrix indexed by movie id like the one the loader builds, so structures derived from
+	 * the ratings can be rebuilt to match the graph. The matrix is made the first time it is
+	 * asked for after a change and kept until the next one. Ratings that are not whole half
+	 * stars are left out, as the loader leaves them out of its matrix. Like addRating, it
+	 * must not be called while a rating is being added.
+	 *
+	 * @return the current ratings
+	 */
+	public RatingMatrix getRatings() {
+		if (current == null) {
+			int bound = 0, total = 0;
+			for (Integer id : movies.keySet()) {
+				bound = Math.max(bound, id + 1);
+			}
+			for (Reviewer reviewer : reviewers.values()) {
+				total += reviewer.numRated();
+			}
+			int[] users = new int[total], movieIds = new int[total];
+			byte[] halfStars = new byte[total];
+			int count = 0;
+			for (Reviewer reviewer : reviewers.values()) {
+				for (Map.Entry<Integer, Double> entry : reviewer.getRatings().entrySet()) {
+					if (movies.containsKey(entry.getKey()) && RatingMatrix.isHalfStars(entry.getValue())) {
+						users[count] = reviewer.getReviewerId();
+						movieIds[count] = entry.getKey();
+						halfStars[count] = RatingMatrix.toHalfStars(entry.getValue());
+						count++;
+					}
+				}
+			}
+			current = RatingMatrix.build(bound, users, movieIds, halfStars, count);
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the number of reviewers counting towards the edge between two movies
+	 *
+	 * @param u a movie id
+	 * @param v another movie id
+	 * @return the number of reviewers who co-rated the movies under the adjacency rule
+	 */
+	public int sharedReviewers(int u, int v) {
+		return u == v ? 0 : pairs.get(pairKey(u, v));
+	}
+
+	/**
+	 * Returns the number of ratings passed to addRating so far
+	 *
+	 * @return the number of events
+	 */
+	public long numEvents() {
+		return events;
+	}
+
+	/**
+	 * Returns the adjacency rule of the graph
+	 *
+	 * @return the adjacency rule
+	 */
+	public Adjacency getAdjacency() {
+		return adjacency;
+	}
+
+	/**
+	 * Returns the number of reviewers needed for an edge
+	 *
+	 * @return the threshold
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Adds or removes both directions of the edge between the two movies of a pair
+	 */
+	private void link(long key, boolean add) {
+		int u = (int) (key >>> 32), v = (int) key;
+		if (add) {
+			graph.addEdge(u, v);
+			graph.addEdge(v, u);
+		} else {
+			graph.removeEdge(u, v);
+			graph.removeEdge(v, u);
+		}
+	}
+
+	/**
+	 * Packs an unordered pair of movie ids into one key, smaller id first
+	 */
+	private static long pairKey(int u, int v) {
+		return u < v ? (long) u << 32 | (v & 0xffffffffL) : (long) v << 32 | (u & 0xffffffffL);
+	}
+}
@@ -0,0 +1,556 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import util.Parallel;
+
+/**
+ * Groups the movies of a graph into communities, sets of movies with many more edges among
+ * themselves than between them. Two methods are offered:
+ * <ul>
+ * <li>Label propagation, which is fast: every movie starts in a community of its own and
+ * repeatedly joins the community most of its neighbors are in, until no movie moves. The
+ * movies of a round are split across a fork-join pool and read and write one shared array
+ * of labels.</li>
+ * <li>Louvain, which finds better communities: movies are moved one at a time to the
+ * neighboring community that raises the modularity most, then every community is collapsed
+ * into a single weighted vertex and the moves are repeated on the smaller graph, until
+ * nothing moves.</li>
+ * </ul>
+ * Both work on the graph as undirected: an edge in either direction joins two movies, and
+ * an edge stored in both directions, as in the co-rating and tag graphs, counts once.
+ *
+ * Communities are numbered 0 ... count()-1 in the order of their smallest vertex. A result
+ * never changes once it is computed.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Communities {
+	/** The most rounds of label propagation */
+	public static final int MAX_ROUNDS = 50;
+	private static final int MAX_LEVELS = 32; // most times Louvain collapses the graph
+	private static final int MAX_PASSES = 100; // most passes over the vertices within one level
+	private static final double MIN_GAIN = 1e-12; // smaller gains in modularity are taken as ties
+
+	private final int[] community; // community[v] is the community of v, -1 if v is not a vertex
+	private final int[] sizes; // sizes[c] is the number of vertices in community c
+	private final double modularity;
+
+	/**
+	 * Numbers the communities given by an arbitrary label per vertex and scores them
+	 *
+	 * @param G      the graph
+	 * @param level  the undirected weighted form of the graph
+	 * @param labels a label in [0, labels.length) per vertex, equal for the vertices of one
+	 *               community
+	 */
+	private Communities(CsrGraph G, Level level, int[] labels) {
+		int n = labels.length;
+		int[] renumber = new int[n];
+		Arrays.fill(renumber, -1);
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			if (G.hasVertex(v) && renumber[labels[v]] < 0) {
+				renumber[labels[v]] = count++;
+			}
+		}
+		community = new int[n];
+		sizes = new int[count];
+		for (int v = 0; v < n; v++) {
+			community[v] = G.hasVertex(v) ? renumber[labels[v]] : -1;
+			if (community[v] >= 0) {
+				sizes[community[v]]++;
+			}
+		}
+		modularity = level.modularity(labels);
+	}
+
+	/**
+	 * Finds communities by label propagation
+	 *
+	 * @param G           the graph
+	 * @param seed        seeds the order in which movies are visited
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the communities
+	 */
+	public static Communities labelPropagation(CsrGraph G, long seed, int parallelism) {
+		Level level = Level.of(G);
+		int n = level.size();
+		int[] labels = new int[n];
+		int[] order = new int[n];
+		for (int v = 0; v < n; v++) {
+			labels[v] = v;
+			order[v] = v;
+		}
+		Random random = new Random(seed);
+		for (int i = n - 1; i > 0; i--) { // visit the movies in a random order, so no region is always first
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		int[] offsets = level.offsets, targets = level.targets;
+		double[] weights = level.weights;
+		// scratch of each worker, kept for every round; a vertex leaves weight all zero again
+		ThreadLocal<double[]> weightScratch = ThreadLocal.withInitial(() -> new double[n]);
+		ThreadLocal<int[]> touchedScratch = ThreadLocal.withInitial(() -> new int[n]);
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			int grain = Parallel.grain(n, pool.getParallelism());
+			for (int round = 0; round < MAX_ROUNDS; round++) {
+				AtomicInteger moved = new AtomicInteger();
+				Parallel.forRange(pool, 0, n, grain, (from, to) -> {
+					double[] weight = weightScratch.get(); // weight of the edges to every label
+					int[] touched = touchedScratch.get();
+					int moves = 0;
+					for (int k = from; k < to; k++) {
+						int v = order[k];
+						int numTouched = 0;
+						for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+							int label = labels[targets[i]];
+							if (targets[i] != v) {
+								if (weight[label] == 0) {
+									touched[numTouched++] = label;
+								}
+								weight[label] += weights[i];
+							}
+						}
+						int current = labels[v], best = current;
+						double bestWeight = weight[current];
+						for (int t = 0; t < numTouched; t++) { // the heaviest label; the current one, then the smallest, on a tie
+							int label = touched[t];
+							if (weight[label] > bestWeight || (weight[label] == bestWeight && best != current && label < best)) {
+								best = label;
+								bestWeight = weight[label];
+							}
+							weight[label] = 0;
+						}
+						if (best != current) {
+							labels[v] = best;
+							moves++;
+						}
+					}
+					moved.addAndGet(moves);
+				});
+				if (moved.get() == 0) {
+					break;
+				}
+			}
+		} finally {
+			pool.shutdown();
+			weightScratch.remove(); // in case the calling thread ran a piece itself
+			touchedScratch.remove();
+		}
+		return new Communities(G, level, labels);
+	}
+
+	/**
+	 * Finds communities with the Louvain method
+	 *
+	 * @param G the graph
+	 * @return the communities
+	 */
+	public static Communities louvain(CsrGraph G) {
+		Level graph = Level.of(G);
+		int n = graph.size();
+		int[] membership = new int[n]; // the vertex of the current level every movie was collapsed into
+		for (int v = 0; v < n; v++) {
+			membership[v] = v;
+		}
+		Level level = graph;
+		for (int depth = 0; depth < MAX_LEVELS; depth++) {
+			int[] community = level.moveVertices();
+			int count = 0;
+			for (int c : community) {
+				count = Math.max(count, c + 1);
+			}
+			for (int v = 0; v < n; v++) {
+				membership[v] = community[membership[v]];
+			}
+			if (count == level.size()) { // nothing merged, so collapsing would change nothing
+				break;
+			}
+			level = level.collapse(community, count);
+		}
+		return new Communities(G, graph, membership);
+	}
+
+	/**
+	 * Returns the modularity of a division of a graph into communities: the fraction of the
+	 * edges inside communities minus the fraction expected if the edges were placed at
+	 * random with the same degrees
+	 *
+	 * @param G         the graph
+	 * @param community a community per vertex, below G.vertexBound(), -1 for the ids that
+	 *                  are not vertices
+	 * @return the modularity, between -1/2 and 1
+	 */
+	public static double modularity(CsrGraph G, int[] community) {
+		return Level.of(G).modularity(community);
+	}
+
+	/**
+	 * Returns the number of communities
+	 *
+	 * @return the number of communities
+	 */
+	public int count() {
+		return sizes.length;
+	}
+
+	/**
+	 * Returns the community of a vertex
+	 *
+	 * @param v a vertex
+	 * @return the community, 0 ... count()-1
+	 * @throws IllegalArgumentException if v is not a vertex
+	 */
+	public int communityOf(int v) {
+		if (v < 0 || v >= community.length || community[v] < 0) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot communityOf()");
+		}
+		return community[v];
+	}
+
+	/**
+	 * Returns the community of every vertex. The array must not be modified.
+	 *
+	 * @return community[v] is the community of v, -1 if v is not a vertex
+	 */
+	public int[] getCommunities() {
+		return community;
+	}
+
+	/**
+	 * Returns the number of vertices in a community
+	 *
+	 * @param c a community
+	 * @return its size
+	 */
+	public int size(int c) {
+		return sizes[c];
+	}
+
+	/**
+	 * Returns the vertices of a community in increasing order
+	 *
+	 * @param c a community
+	 * @return a new array of its vertices
+	 */
+	public int[] members(int c) {
+		int[] members = new int[sizes[c]];
+		int m = 0;
+		for (int v = 0; v < community.length && m < members.length; v++) {
+			if (community[v] == c) {
+				members[m++] = v;
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Returns the communities from largest to smallest
+	 *
+	 * @return the communities, the one with the smallest vertex first on a tie
+	 */
+	public int[] bySize() {
+		Integer[] order = new Integer[sizes.length];
+		for (int c = 0; c < order.length; c++) {
+			order[c] = c;
+		}
+		Arrays.sort(order, (a, b) -> sizes[a] != sizes[b] ? sizes[b] - sizes[a] : a - b);
+		int[] bySize = new int[order.length];
+		for (int c = 0; c < order.length; c++) {
+			bySize[c] = order[c];
+		}
+		return bySize;
+	}
+
+	/**
+	 * Returns the modularity of the communities
+	 *
+	 * @return the modularity, higher for better separated communities
+	 */
+	public double modularity() {
+		return modularity;
+	}
+
+	/**
+	 * Returns how many communities there are of every size
+	 *
+	 * @return map from community size to the number of communities of that size, largest
+	 *         size first
+	 */
+	public SortedMap<Integer, Integer> histogram() {
+		SortedMap<Integer, Integer> histogram = new TreeMap<>(Collections.reverseOrder());
+		for (int size : sizes) {
+			histogram.merge(size, 1, Integer::sum);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Collapses every community into one vertex. Vertex c of the condensed graph is
+	 * community c, and there is an edge from c to d whenever an edge of G leads from a movie
+	 * of c to a movie of d.
+	 *
+	 * @param G the graph the communities were found in
+	 * @return the condensed graph
+	 */
+	public CsrGraph condense(CsrGraph G) {
+		int[] offsets = G.offsets, targets = G.targets;
+		long[] pairs = new long[G.numEdges()];
+		int m = 0;
+		for (int u = 0; u < G.vertexBound(); u++) {
+			for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+				int from = community[u], to = community[targets[i]];
+				if (from != to) {
+					pairs[m++] = (long) from << 32 | to;
+				}
+			}
+		}
+		Arrays.sort(pairs, 0, m);
+		int[] condensedOffsets = new int[sizes.length + 1];
+		int[] condensedTargets = new int[m];
+		int distinct = 0;
+		for (int i = 0; i < m; i++) {
+			if (i == 0 || pairs[i] != pairs[i - 1]) {
+				condensedOffsets[(int) (pairs[i] >>> 32) + 1]++;
+				condensedTargets[distinct++] = (int) pairs[i];
+			}
+		}
+		for (int c = 0; c < sizes.length; c++) {
+			condensedOffsets[c + 1] += condensedOffsets[c];
+		}
+		return new CsrGraph(condensedOffsets, Arrays.copyOf(condensedTargets, distinct));
+	}
+
+	/**
+	 * Returns the number of communities, their modularity and their sizes
+	 *
+	 * @return a one-line summary such as "3 communities, modularity 0.412: 1 x 500, 2 x 250"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(sizes.length).append(sizes.length == 1 ? " community" : " communities");
+		s.append(String.format(", modularity %.3f", modularity));
+		String separator = ": ";
+		for (Map.Entry<Integer, Integer> bucket : histogram().entrySet()) {
+			s.append(separator).append(bucket.getValue()).append(" x ").append(bucket.getKey());
+			separator = ", ";
+		}
+		return s.toString();
+	}
+
+	/**
+	 * One level of the Louvain method: an undirected graph with weighted edges, stored in
+	 * both directions, where a vertex may stand for a whole community of the level below.
+	 * The edges inside a collapsed community become a loop on its vertex.
+	 */
+	private static class Level {
+		final int[] offsets, targets;
+		final double[] weights;
+		final double[] degree; // the total weight of the edges of every vertex
+		final double total; // the total weight of all edges, each direction counted
+
+		Level(int[] offsets, int[] targets, double[] weights) {
+			this.offsets = offsets;
+			this.targets = targets;
+			this.weights = weights;
+			int n = offsets.length - 1;
+			degree = new double[n];
+			double sum = 0;
+			for (int v = 0; v < n; v++) {
+				for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+					degree[v] += weights[i];
+				}
+				sum += degree[v];
+			}
+			total = sum;
+		}
+
+		/**
+		 * Makes the undirected form of a graph: u and v are joined with weight 1 for each
+		 * direction an edge between them is stored in
+		 */
+		static Level of(CsrGraph G) {
+			int n = G.vertexBound();
+			CsrGraph T = G.transpose();
+			int[] offsets = new int[n + 1];
+			int[] targets = new int[2 * G.numEdges()];
+			double[] weights = new double[targets.length];
+			double[] weight = new double[n];
+			int m = 0;
+			for (int u = 0; u < n; u++) {
+				int start = m;
+				for (int direction = 0; direction < 2; direction++) {
+					CsrGraph side = direction == 0 ? G : T;
+					for (int i = side.offsets[u]; i < side.offsets[u + 1]; i++) {
+						int v = side.targets[i];
+						if (weight[v] == 0) {
+							targets[m++] = v;
+						}
+						weight[v]++;
+					}
+				}
+				for (int i = start; i < m; i++) {
+					weights[i] = weight[targets[i]];
+					weight[targets[i]] = 0;
+				}
+				offsets[u + 1] = m;
+			}
+			return new Level(offsets, Arrays.copyOf(targets, m), Arrays.copyOf(weights, m));
+		}
+
+		int size() {
+			return offsets.length - 1;
+		}
+
+		/**
+		 * Moves every vertex to the neighboring community that raises the modularity most,
+		 * pass after pass until no vertex moves
+		 *
+		 * @return the communities, numbered 0 ... k-1
+		 */
+		int[] moveVertices() {
+			int n = size();
+			int[] community = new int[n];
+			double[] sum = new double[n]; // the total degree of every community
+			for (int v = 0; v < n; v++) {
+				community[v] = v;
+				sum[v] = degree[v];
+			}
+			double[] weight = new double[n]; // weight of the edges from the vertex to every community
+			int[] touched = new int[n];
+			for (int pass = 0; pass < MAX_PASSES && total > 0; pass++) {
+				int moves = 0;
+				for (int v = 0; v < n; v++) {
+					int numTouched = 0;
+					for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+						if (targets[i] != v) {
+							int c = community[targets[i]];
+							if (weight[c] == 0) {
+								touched[numTouched++] = c;
+							}
+							weight[c] += weights[i];
+						}
+					}
+					int current = community[v], best = current;
+					sum[current] -= degree[v];
+					// the gain of joining c is proportional to weight[c] - sum[c] * degree[v] / total
+					double bestGain = weight[current] - sum[current] * degree[v] / total;
+					for (int t = 0; t < numTouched; t++) {
+						int c = touched[t];
+						double gain = weight[c] - sum[c] * degree[v] / total;
+						if (gain > bestGain + MIN_GAIN) {
+							best = c;
+							bestGain = gain;
+						}
+						weight[c] = 0;
+					}
+					weight[current] = 0;
+					sum[best] += degree[v];
+					if (best != current) {
+						community[v] = best;
+						moves++;
+					}
+				}
+				if (moves == 0) {
+					break;
+				}
+			}
+			int[] renumber = new int[n];
+			Arrays.fill(renumber, -1);
+			int count = 0;
+			for (int v = 0; v < n; v++) {
+				if (renumber[community[v]] < 0) {
+					renumber[community[v]] = count++;
+				}
+				community[v] = renumber[community[v]];
+			}
+			return community;
+		}
+
+		/**
+		 * Collapses every community into one vertex, adding up the weights of the edges
+		 * between them
+		 */
+		Level collapse(int[] community, int count) {
+			int n = size();
+			int[] memberOffsets = new int[count + 1]; // the vertices grouped by community
+			for (int v = 0; v < n; v++) {
+				memberOffsets[community[v] + 1]++;
+			}
+			for (int c = 0; c < count; c++) {
+				memberOffsets[c + 1] += memberOffsets[c];
+			}
+			int[] members = new int[n];
+			int[] next = Arrays.copyOf(memberOffsets, count);
+			for (int v = 0; v < n; v++) {
+				members[next[community[v]]++] = v;
+			}
+			int[] collapsedOffsets = new int[count + 1];
+			int[] collapsedTargets = new int[targets.length];
+			double[] collapsedWeights = new double[targets.length];
+			double[] weight = new double[count];
+			int m = 0;
+			for (int c = 0; c < count; c++) {
+				int start = m;
+				for (int k = memberOffsets[c]; k < memberOffsets[c + 1]; k++) {
+					int v = members[k];
+					for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+						int d = community[targets[i]];
+						if (weight[d] == 0) {
+							collapsedTargets[m++] = d;
+						}
+						weight[d] += weights[i];
+					}
+				}
+				for (int i = start; i < m; i++) {
+					collapsedWeights[i] = weight[collapsedTargets[i]];
+					weight[collapsedTargets[i]] = 0;
+				}
+				collapsedOffsets[c + 1] = m;
+			}
+			return new Level(collapsedOffsets, Arrays.copyOf(collapsedTargets, m), Arrays.copyOf(collapsedWeights, m));
+		}
+
+		/**
+		 * Returns the modularity of a division of the vertices into communities
+		 */
+		double modularity(int[] community) {
+			if (total == 0) {
+				return 0;
+			}
+			int n = size();
+			double inside = 0;
+			double[] sum = new double[n];
+			for (int v = 0; v < n; v++) {
+				int c = community[v];
+				if (c < 0) {
+					continue;
+				}
+				sum[c] += degree[v];
+				for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+					if (community[targets[i]] == c) {
+						inside += weights[i];
+					}
+				}
+			}
+			double expected = 0;
+			for (int c = 0; c < n; c++) {
+				expected += (sum[c] / total) * (sum[c] / total);
+			}
+			return inside / total - expected;
+		}
+	}
+}
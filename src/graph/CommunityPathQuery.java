@@ -0,0 +1,120 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answers path queries in two steps, first over the condensed graph of the communities and
+ * then over the movies. A shortest route from the community of the source to the community
+ * of the target is found in the small condensed graph, and the path between the movies is
+ * then searched for only inside the communities on that route, so a query never wanders
+ * into the rest of the graph. The path found is the shortest one through those
+ * communities, which may be longer than the shortest path overall; when the route cannot
+ * be followed, because a community falls apart without the movies outside it, the query
+ * falls back to an exact {@link PathQuery}. Both searches are bidirectional.
+ *
+ * Queries may be run from several threads at once.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class CommunityPathQuery {
+	private final CsrGraph graph, condensed;
+	private final int[] community;
+	private final PathQuery routes, paths;
+	private final ThreadLocal<Corridor> corridors;
+
+	/**
+	 * Prepares queries over an unweighted graph
+	 *
+	 * @param G           the graph
+	 * @param communities communities found in G
+	 */
+	public CommunityPathQuery(CsrGraph G, Communities communities) {
+		graph = G;
+		community = communities.getCommunities();
+		condensed = communities.condense(G);
+		routes = new PathQuery(condensed);
+		paths = new PathQuery(G);
+		corridors = ThreadLocal.withInitial(Corridor::new);
+	}
+
+	/**
+	 * Finds a short path from source to target through the communities on the way
+	 *
+	 * @param source the first vertex of the path
+	 * @param target the last vertex of the path
+	 * @return the vertices of the path from source to target, or an empty list if target
+	 *         cannot be reached from source
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public List<Integer> shortestPath(int source, int target) {
+		if (!graph.hasVertex(source)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot shortestPath()");
+		} else if (!graph.hasVertex(target)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot shortestPath()");
+		}
+		List<Integer> route = routes.shortestPath(community[source], community[target]);
+		if (route.isEmpty()) { // every path in G would show up as a route between the communities
+			return Collections.emptyList();
+		}
+		Corridor corridor = corridors.get();
+		corridor.begin(route);
+		List<Integer> path = paths.shortestPath(source, target, corridor);
+		return path.isEmpty() ? paths.shortestPath(source, target) : path;
+	}
+
+	/**
+	 * Returns the graph the queries are about
+	 *
+	 * @return the graph
+	 */
+	public CsrGraph graph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the graph of the communities
+	 *
+	 * @return the condensed graph, one vertex per community
+	 */
+	public CsrGraph condensed() {
+		return condensed;
+	}
+
+	/**
+	 * Returns the number of vertices the calling thread's last query reached, a measure of
+	 * how much of the graph it touched
+	 *
+	 * @return the number of vertices reached
+	 */
+	public int lastQueryVisited() {
+		return paths.lastQueryVisited();
+	}
+
+	/**
+	 * Passes the vertices of the communities on one route. A community is on the current
+	 * route when its stamp equals the route's stamp, so the array never needs to be
+	 * cleared. Every thread has its own.
+	 */
+	private class Corridor implements VertexFilter {
+		final int[] allowed = new int[condensed.vertexBound()];
+		int stamp;
+
+		void begin(List<Integer> route) {
+			if (++stamp == Integer.MAX_VALUE) { // wrapped around, forget every old stamp
+				Arrays.fill(allowed, 0);
+				stamp = 1;
+			}
+			for (int c : route) {
+				allowed[c] = stamp;
+			}
+		}
+
+		@Override
+		public boolean accepts(int v) {
+			return allowed[community[v]] == stamp;
+		}
+	}
+}
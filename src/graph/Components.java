@@ -0,0 +1,347 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import util.Parallel;
+
+/**
+ * The connected components of a graph, and how large they are. Weakly connected
+ * components ignore the direction of the edges and are found with a concurrent union-find:
+ * the edges are split across a fork-join pool and every worker links the roots of the two
+ * ends of its edges with a compare-and-set, always hanging the larger root under the
+ * smaller, so no locks are taken and the forest never has a cycle. Finds halve the paths
+ * they walk, which keeps the trees shallow and the whole pass close to linear in the
+ * number of edges.
+ *
+ * Strongly connected components follow the direction of the edges and are found with
+ * Tarjan's algorithm, written with an explicit stack so that long paths do not overflow the
+ * call stack. It runs in O(V + E) time on one thread.
+ *
+ * Components are numbered 0 ... count()-1 in the order of their smallest vertex. A result
+ * never changes once it is computed.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Components {
+	private final int[] component; // component[v] is the component of v, -1 if v is not a vertex
+	private final int[] sizes; // sizes[c] is the number of vertices in component c
+	private final int largest; // the largest component, the first of them on a tie
+
+	/**
+	 * Numbers the components given by an arbitrary label per vertex
+	 *
+	 * @param labels a label in [0, labels.length) per vertex, equal for the vertices of one
+	 *               component, -1 for ids that are not vertices
+	 */
+	private Components(int[] labels) {
+		int n = labels.length;
+		int[] renumber = new int[n];
+		Arrays.fill(renumber, -1);
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			if (labels[v] >= 0 && renumber[labels[v]] < 0) {
+				renumber[labels[v]] = count++;
+			}
+		}
+		component = new int[n];
+		sizes = new int[count];
+		for (int v = 0; v < n; v++) {
+			component[v] = labels[v] < 0 ? -1 : renumber[labels[v]];
+			if (component[v] >= 0) {
+				sizes[component[v]]++;
+			}
+		}
+		int best = -1;
+		for (int c = 0; c < count; c++) {
+			if (best < 0 || sizes[c] > sizes[best]) {
+				best = c;
+			}
+		}
+		largest = best;
+	}
+
+	/**
+	 * Finds the weakly connected components of a graph
+	 *
+	 * @param G           the graph
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the weakly connected components
+	 */
+	public static Components weak(GraphIfc<Integer> G, int parallelism) {
+		return weak(compact(G), parallelism);
+	}
+
+	/**
+	 * Finds the weakly connected components of a graph with a lock-free union-find
+	 *
+	 * @param G           the graph
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the weakly connected components
+	 */
+	public static Components weak(CsrGraph G, int parallelism) {
+		int n = G.vertexBound();
+		int[] offsets = G.offsets, targets = G.targets;
+		AtomicIntegerArray parent = new AtomicIntegerArray(n);
+		for (int v = 0; v < n; v++) {
+			parent.set(v, v);
+		}
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, n, Parallel.grain(n, pool.getParallelism()), (from, to) -> {
+				for (int u = from; u < to; u++) {
+					for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+						union(parent, u, targets[i]);
+					}
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		int[] labels = new int[n];
+		for (int v = 0; v < n; v++) {
+			labels[v] = G.hasVertex(v) ? find(parent, v) : -1;
+		}
+		return new Components(labels);
+	}
+
+	/**
+	 * Finds the strongly connected components of a graph
+	 *
+	 * @param G the graph
+	 * @return the strongly connected components
+	 */
+	public static Components strong(GraphIfc<Integer> G) {
+		return strong(compact(G));
+	}
+
+	/**
+	 * Finds the strongly connected components of a graph with an iterative version of
+	 * Tarjan's algorithm
+	 *
+	 * @param G the graph
+	 * @return the strongly connected components
+	 */
+	public static Components strong(CsrGraph G) {
+		int n = G.vertexBound();
+		int[] offsets = G.offsets, targets = G.targets;
+		int[] index = new int[n]; // order in which the search reached v, plus one; 0 if not yet reached
+		int[] low = new int[n]; // smallest index reachable from the subtree of v through the stack
+		int[] labels = new int[n];
+		Arrays.fill(labels, -1);
+		int[] stack = new int[n]; // vertices whose component is not known yet
+		boolean[] onStack = new boolean[n];
+		int[] calls = new int[n]; // the vertices being searched, deepest last
+		int[] next = new int[n]; // next[v] is the position in targets of the next edge of v to follow
+		int reached = 0, top = 0;
+		for (int root = 0; root < n; root++) {
+			if (!G.hasVertex(root) || index[root] != 0) {
+				continue;
+			}
+			int depth = 0;
+			calls[depth++] = root;
+			index[root] = low[root] = ++reached;
+			next[root] = offsets[root];
+			stack[top++] = root;
+			onStack[root] = true;
+			while (depth > 0) {
+				int u = calls[depth - 1];
+				if (next[u] < offsets[u + 1]) {
+					int v = targets[next[u]++];
+					if (index[v] == 0) { // descend into v
+						index[v] = low[v] = ++reached;
+						next[v] = offsets[v];
+						stack[top++] = v;
+						onStack[v] = true;
+						calls[depth++] = v;
+					} else if (onStack[v]) {
+						low[u] = Math.min(low[u], index[v]);
+					}
+					continue;
+				}
+				// every edge of u has been followed; return to its caller
+				depth--;
+				if (low[u] == index[u]) { // u is the root of a component, which is on top of the stack
+					int w;
+					do {
+						w = stack[--top];
+						onStack[w] = false;
+						labels[w] = u;
+					} while (w != u);
+				}
+				if (depth > 0) {
+					int caller = calls[depth - 1];
+					low[caller] = Math.min(low[caller], low[u]);
+				}
+			}
+		}
+		return new Components(labels);
+	}
+
+	/**
+	 * Returns the number of components
+	 *
+	 * @return the number of components
+	 */
+	public int count() {
+		return sizes.length;
+	}
+
+	/**
+	 * Returns the component of a vertex
+	 *
+	 * @param v a vertex
+	 * @return the component, 0 ... count()-1
+	 * @throws IllegalArgumentException if v is not a vertex
+	 */
+	public int componentOf(int v) {
+		if (v < 0 || v >= component.length || component[v] < 0) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot componentOf()");
+		}
+		return component[v];
+	}
+
+	/**
+	 * Returns whether two vertices are in the same component
+	 *
+	 * @param u a vertex
+	 * @param v a vertex
+	 * @return true if they are in the same component
+	 * @throws IllegalArgumentException if either is not a vertex
+	 */
+	public boolean connected(int u, int v) {
+		return componentOf(u) == componentOf(v);
+	}
+
+	/**
+	 * Returns the number of vertices in a component
+	 *
+	 * @param c a component
+	 * @return its size
+	 */
+	public int size(int c) {
+		return sizes[c];
+	}
+
+	/**
+	 * Returns the largest component
+	 *
+	 * @return the largest component, the one with the smallest vertex on a tie, or -1 if
+	 *         the graph is empty
+	 */
+	public int largest() {
+		return largest;
+	}
+
+	/**
+	 * Returns the number of vertices in the largest component
+	 *
+	 * @return the size of the largest component, 0 if the graph is empty
+	 */
+	public int largestSize() {
+		return largest < 0 ? 0 : sizes[largest];
+	}
+
+	/**
+	 * Returns the vertices of a component in increasing order
+	 *
+	 * @param c a component
+	 * @return a new array of its vertices
+	 */
+	public int[] members(int c) {
+		int[] members = new int[sizes[c]];
+		int m = 0;
+		for (int v = 0; v < component.length && m < members.length; v++) {
+			if (component[v] == c) {
+				members[m++] = v;
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Returns how many components there are of every size
+	 *
+	 * @return map from component size to the number of components of that size, largest
+	 *         size first
+	 */
+	public SortedMap<Integer, Integer> histogram() {
+		SortedMap<Integer, Integer> histogram = new TreeMap<>(Collections.reverseOrder());
+		for (int size : sizes) {
+			histogram.merge(size, 1, Integer::sum);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Returns the number of components and their sizes
+	 *
+	 * @return a one-line summary such as "3 components: 1 x 950, 2 x 1"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(sizes.length).append(sizes.length == 1 ? " component" : " components");
+		String separator = ": ";
+		for (Map.Entry<Integer, Integer> bucket : histogram().entrySet()) {
+			s.append(separator).append(bucket.getValue()).append(" x ").append(bucket.getKey());
+			separator = ", ";
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Returns the root of the tree holding v, pointing every vertex on the way at its
+	 * grandparent
+	 */
+	private static int find(AtomicIntegerArray parent, int v) {
+		while (true) {
+			int p = parent.get(v);
+			if (p == v) {
+				return v;
+			}
+			int grandparent = parent.get(p);
+			if (grandparent != p) {
+				parent.compareAndSet(v, p, grandparent); // losing the race only skips the halving
+			}
+			v = grandparent;
+		}
+	}
+
+	/**
+	 * Merges the trees holding u and v. A root is only ever hung under a smaller root, and
+	 * only while it is still a root, so concurrent unions cannot form a cycle.
+	 */
+	private static void union(AtomicIntegerArray parent, int u, int v) {
+		while (true) {
+			int ru = find(parent, u), rv = find(parent, v);
+			if (ru == rv) {
+				return;
+			}
+			if (ru < rv) {
+				int swap = ru;
+				ru = rv;
+				rv = swap;
+			}
+			if (parent.compareAndSet(ru, ru, rv)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns G in compressed sparse row form
+	 */
+	private static CsrGraph compact(GraphIfc<Integer> G) {
+		if (G instanceof CsrGraph) {
+			return (CsrGraph) G;
+		}
+		return G instanceof ConcurrentGraph ? ((ConcurrentGraph) G).snapshot() : CsrGraph.fromGraph(G);
+	}
+}
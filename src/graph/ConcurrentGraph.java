@@ -0,0 +1,300 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A graph over integer vertices that any number of threads can read while others change
+ * it. The neighbors of every vertex are kept in a sorted int array that is never modified
+ * once published: adding or removing an edge copies the array and swaps the copy in. Reads
+ * take no lock at all, they look the array up in a {@link ConcurrentHashMap} and search or
+ * iterate it, so readers never wait for writers or for each other. Changes to one vertex
+ * are serialized by the map, which locks only that vertex's bin, so writers to different
+ * vertices rarely contend either.
+ *
+ * Every method is atomic on its own. getNeighbors returns the neighbors as they were when
+ * it was called, and later changes do not show up in it. The vertex and edge counts are
+ * kept in atomic counters that are updated under the same per-vertex lock as the arrays,
+ * so numVertices and numEdges never scan the graph.
+ *
+ * Copying a neighbor array costs time proportional to the degree of the vertex, which
+ * suits graphs that are read far more often than they are changed. To load a whole graph
+ * at once use {@link #ConcurrentGraph(CsrGraph)}.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class ConcurrentGraph implements GraphIfc<Integer> {
+	private static final int[] NONE = new int[0];
+
+	private final ConcurrentHashMap<Integer, int[]> adjacency;
+	private final AtomicInteger numVertices = new AtomicInteger();
+	private final AtomicInteger numEdges = new AtomicInteger();
+
+	/**
+	 * Creates an empty graph
+	 */
+	public ConcurrentGraph() {
+		adjacency = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Creates a graph with the vertices and edges of a compressed graph
+	 *
+	 * @param graph the graph to copy
+	 */
+	public ConcurrentGraph(CsrGraph graph) {
+		adjacency = new ConcurrentHashMap<>(Math.max(16, graph.numVertices() * 4 / 3 + 1));
+		int[] offsets = graph.getOffsets(), targets = graph.getTargets();
+		for (int v = 0; v < graph.vertexBound(); v++) {
+			if (graph.hasVertex(v)) {
+				int[] neighbors = offsets[v] == offsets[v + 1] ? NONE : Arrays.copyOfRange(targets, offsets[v], offsets[v + 1]);
+				adjacency.put(v, neighbors);
+			}
+		}
+		numVertices.set(graph.numVertices());
+		numEdges.set(graph.numEdges());
+	}
+
+	/**
+	 * Returns the number of vertices in the graph
+	 *
+	 * @return The number of vertices in the graph
+	 */
+	public int numVertices() {
+		return numVertices.get();
+	}
+
+	/**
+	 * Returns the number of edges in the graph
+	 *
+	 * @return The number of edges in the graph
+	 */
+	public int numEdges() {
+		return numEdges.get();
+	}
+
+	/**
+	 * Removes all vertices from the graph. Changes made by other threads while the graph
+	 * is being cleared may or may not survive.
+	 */
+	public void clear() {
+		for (Integer v : adjacency.keySet()) {
+			int[] removed = adjacency.remove(v);
+			if (removed != null) {
+				numVertices.decrementAndGet();
+				numEdges.addAndGet(-removed.length);
+			}
+		}
+	}
+
+	/**
+	 * Adds a vertex to the graph. This method has no effect if the vertex already exists
+	 * in the graph.
+	 *
+	 * @param v The vertex to be added
+	 */
+	public void addVertex(Integer v) {
+		if (adjacency.putIfAbsent(v, NONE) == null) {
+			numVertices.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Adds an edge from u to v, unless it already exists
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph.
+	 */
+	public void addEdge(Integer u, Integer v) {
+		if (!adjacency.containsKey(v)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot addEdge()");
+		}
+		int target = v;
+		int[] result = adjacency.computeIfPresent(u, (vertex, neighbors) -> {
+			int i = Arrays.binarySearch(neighbors, target);
+			if (i >= 0) {
+				return neighbors;
+			}
+			i = -i - 1;
+			int[] copy = new int[neighbors.length + 1];
+			System.arraycopy(neighbors, 0, copy, 0, i);
+			copy[i] = target;
+			System.arraycopy(neighbors, i, copy, i + 1, neighbors.length - i);
+			numEdges.incrementAndGet();
+			return copy;
+		});
+		if (result == null) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot addEdge()");
+		}
+	}
+
+	/**
+	 * Removes the edge from u to v, if there is one
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @return True if the edge existed, false otherwise
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph.
+	 */
+	public boolean removeEdge(Integer u, Integer v) {
+		if (!adjacency.containsKey(v)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot removeEdge()");
+		}
+		int target = v;
+		boolean[] removed = new boolean[1];
+		int[] result = adjacency.computeIfPresent(u, (vertex, neighbors) -> {
+			int i = Arrays.binarySearch(neighbors, target);
+			if (i < 0) {
+				return neighbors;
+			}
+			int[] copy = neighbors.length == 1 ? NONE : new int[neighbors.length - 1];
+			System.arraycopy(neighbors, 0, copy, 0, i);
+			System.arraycopy(neighbors, i + 1, copy, i, neighbors.length - i - 1);
+			numEdges.decrementAndGet();
+			removed[0] = true;
+			return copy;
+		});
+		if (result == null) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot removeEdge()");
+		}
+		return removed[0];
+	}
+
+	/**
+	 * Returns the set of all vertices in the graph. The set reflects later changes, and
+	 * iterating it while vertices are added is safe.
+	 *
+	 * @return A set containing all vertices in the graph
+	 */
+	public Collection<Integer> getVertices() {
+		return Collections.unmodifiableSet(adjacency.keySet());
+	}
+
+	/**
+	 * Returns the neighbors of v in increasing order, as they are at the time of the call
+	 *
+	 * @param v An existing node in the graph
+	 * @return All neighbors of v in the graph.
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public Collection<Integer> getNeighbors(Integer v) {
+		int[] neighbors = neighbors(v);
+		return new IntArrayView(neighbors, 0, neighbors.length, true);
+	}
+
+	/**
+	 * Determines whether the given vertex is contained in the graph.
+	 *
+	 * @param v The vertex to be tested.
+	 * @return True if v exists in the graph, false otherwise.
+	 */
+	public boolean containsVertex(Integer v) {
+		return v != null && adjacency.containsKey(v);
+	}
+
+	/**
+	 * Determines whether an edge exists from v to u, using a binary search of the
+	 * neighbors of v.
+	 *
+	 * @param v A node in the graph
+	 * @param u A node in the graph
+	 * @return True if an edge exists between the two vertices
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public boolean edgeExists(Integer v, Integer u) {
+		if (!adjacency.containsKey(u)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, edgeExists() failed");
+		}
+		int[] neighbors = adjacency.get(v);
+		if (neighbors == null) {
+			throw new IllegalArgumentException("Source node not contained in Graph, edgeExists() failed");
+		}
+		return Arrays.binarySearch(neighbors, u) >= 0;
+	}
+
+	/**
+	 * Returns the outdegree of the vertex.
+	 *
+	 * @param v A vertex in the graph
+	 * @return The degree of the vertex
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public int degree(Integer v) {
+		return neighbors(v).length;
+	}
+
+	/**
+	 * Returns the sorted neighbors of v as they are at the time of the call, without
+	 * boxing them. The array must not be modified.
+	 *
+	 * @param v A vertex in the graph
+	 * @return the neighbors of v
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public int[] neighbors(int v) {
+		int[] neighbors = adjacency.get(v);
+		if (neighbors == null) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot getNeighbors()");
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Copies the graph into compressed sparse row form. Each vertex's neighbors are read
+	 * once, so the copy is consistent vertex by vertex even while the graph changes.
+	 *
+	 * @return an immutable copy of the graph
+	 * @throws IllegalArgumentException if the graph has a negative vertex
+	 */
+	public CsrGraph snapshot() {
+		Map<Integer, int[]> rows = new HashMap<>(adjacency);
+		int bound = 0;
+		for (Integer v : rows.keySet()) {
+			if (v < 0) {
+				throw new IllegalArgumentException("vertex " + v + " is negative, cannot convert to CsrGraph");
+			}
+			bound = Math.max(bound, v + 1);
+		}
+		BitSet present = new BitSet(bound);
+		int[] offsets = new int[bound + 1];
+		for (Map.Entry<Integer, int[]> row : rows.entrySet()) {
+			present.set(row.getKey());
+			offsets[row.getKey() + 1] = row.getValue().length;
+		}
+		for (int v = 0; v < bound; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] targets = new int[offsets[bound]];
+		for (Map.Entry<Integer, int[]> row : rows.entrySet()) {
+			int[] neighbors = row.getValue();
+			System.arraycopy(neighbors, 0, targets, offsets[row.getKey()], neighbors.length);
+		}
+		return new CsrGraph(offsets, targets, present.cardinality() == bound ? null : present);
+	}
+
+	/**
+	 * Returns a string representation of the graph. The string representation shows
+	 * all vertices and edges in the graph.
+	 *
+	 * @return A string representation of the graph
+	 */
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		for (Map.Entry<Integer, int[]> row : adjacency.entrySet()) {
+			str.append(row.getKey()).append("-> ");
+			for (int u : row.getValue()) {
+				str.append(u).append(' ');
+			}
+			str.append('\n');
+		}
+		return str.toString();
+	}
+}
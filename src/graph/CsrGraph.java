@@ -0,0 +1,367 @@
+package graph;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable graph over non-negative integer vertices stored in compressed sparse row
+ * form. The neighbors of vertex v are targets[offsets[v] ... offsets[v+1]-1], sorted in
+ * increasing order, so the whole graph is two int arrays instead of a map of boxed sets.
+ *
+ * Vertex ids index the offsets array directly. Ids that were never added to the graph
+ * have no neighbors and are reported as absent.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class CsrGraph implements GraphIfc<Integer> {
+	final int[] offsets;
+	final int[] targets;
+	private final BitSet present; // null when every id in [0, vertexBound()) is a vertex
+	private final int numVertices;
+
+	/**
+	 * Creates a graph over the vertices 0 ... offsets.length-2 from its adjacency arrays.
+	 * Each neighbor range is sorted in place and must not contain duplicates.
+	 *
+	 * @param offsets start of each vertex's neighbors, with offsets[n] == targets.length
+	 * @param targets the neighbors of every vertex, grouped by vertex
+	 * @throws IllegalArgumentException if the arrays are not a valid adjacency structure
+	 */
+	public CsrGraph(int[] offsets, int[] targets) {
+		this(offsets, targets, null);
+	}
+
+	/**
+	 * Creates a graph from adjacency arrays and the set of ids that are vertices
+	 *
+	 * @param offsets start of each vertex's neighbors
+	 * @param targets the neighbors of every vertex, grouped by vertex
+	 * @param present the ids that are vertices, or null if all of them are
+	 * @throws IllegalArgumentException if the arrays are not a valid adjacency structure
+	 */
+	public CsrGraph(int[] offsets, int[] targets, BitSet present) {
+		int n = offsets.length - 1;
+		if (n < 0 || offsets[0] != 0 || offsets[n] != targets.length) {
+			throw new IllegalArgumentException("offsets do not match targets, cannot create CsrGraph");
+		}
+		for (int v = 0; v < n; v++) {
+			if (offsets[v] > offsets[v + 1]) {
+				throw new IllegalArgumentException("offsets must be non-decreasing, cannot create CsrGraph");
+			}
+			Arrays.sort(targets, offsets[v], offsets[v + 1]);
+		}
+		for (int u : targets) {
+			if (u < 0 || u >= n || (present != null && !present.get(u))) {
+				throw new IllegalArgumentException("edge to unknown vertex " + u + ", cannot create CsrGraph");
+			}
+		}
+		this.offsets = offsets;
+		this.targets = targets;
+		this.present = present;
+		this.numVertices = present == null ? n : present.cardinality();
+	}
+
+	/**
+	 * Copies any integer graph into compressed sparse row form
+	 *
+	 * @param G a graph whose vertices are non-negative integers
+	 * @return an immutable copy of G
+	 * @throws IllegalArgumentException if G has a negative vertex
+	 */
+	public static CsrGraph fromGraph(GraphIfc<Integer> G) {
+		int bound = 0;
+		for (Integer v : G.getVertices()) {
+			if (v < 0) {
+				throw new IllegalArgumentException("vertex " + v + " is negative, cannot convert to CsrGraph");
+			}
+			bound = Math.max(bound, v + 1);
+		}
+		BitSet present = new BitSet(bound);
+		int[] offsets = new int[bound + 1];
+		for (Integer v : G.getVertices()) {
+			present.set(v);
+			offsets[v + 1] = G.degree(v);
+		}
+		for (int v = 0; v < bound; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] targets = new int[offsets[bound]];
+		for (Integer v : G.getVertices()) {
+			int pos = offsets[v];
+			for (Integer u : G.getNeighbors(v)) {
+				targets[pos++] = u;
+			}
+		}
+		return new CsrGraph(offsets, targets, present.cardinality() == bound ? null : present);
+	}
+
+	/**
+	 * Returns the graph with every edge reversed. The neighbors of v in the transpose are
+	 * the vertices with an edge to v in this graph.
+	 *
+	 * @return the transpose of the graph
+	 */
+	public CsrGraph transpose() {
+		int n = vertexBound();
+		int[] reverseOffsets = new int[n + 1];
+		for (int u : targets) {
+			reverseOffsets[u + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			reverseOffsets[v + 1] += reverseOffsets[v];
+		}
+		int[] reverseTargets = new int[targets.length];
+		int[] next = Arrays.copyOf(reverseOffsets, n);
+		for (int v = 0; v < n; v++) { // visiting sources in order keeps each range sorted
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				reverseTargets[next[targets[i]]++] = v;
+			}
+		}
+		return new CsrGraph(reverseOffsets, reverseTargets, present);
+	}
+
+	/**
+	 * Returns the number of vertices in the graph
+	 *
+	 * @return The number of vertices in the graph
+	 */
+	public int numVertices() {
+		return numVertices;
+	}
+
+	/**
+	 * Returns the number of edges in the graph
+	 *
+	 * @return The number of edges in the graph
+	 */
+	public int numEdges() {
+		return targets.length;
+	}
+
+	/**
+	 * Not supported, the graph is immutable
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	public void clear() {
+		throw new UnsupportedOperationException("CsrGraph is immutable, cannot clear()");
+	}
+
+	/**
+	 * Not supported, the graph is immutable
+	 *
+	 * @param v The vertex to be added
+	 * @throws UnsupportedOperationException always
+	 */
+	public void addVertex(Integer v) {
+		throw new UnsupportedOperationException("CsrGraph is immutable, cannot addVertex()");
+	}
+
+	/**
+	 * Not supported, the graph is immutable
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @throws UnsupportedOperationException always
+	 */
+	public void addEdge(Integer u, Integer v) {
+		throw new UnsupportedOperationException("CsrGraph is immutable, cannot addEdge()");
+	}
+
+	/**
+	 * Not supported, the graph is immutable
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @return never
+	 * @throws UnsupportedOperationException always
+	 */
+	public boolean removeEdge(Integer u, Integer v) {
+		throw new UnsupportedOperationException("CsrGraph is immutable, cannot removeEdge()");
+	}
+
+	/**
+	 * Returns the set of all vertices in the graph, in increasing order.
+	 *
+	 * @return A collection containing all vertices in the graph
+	 */
+	public Collection<Integer> getVertices() {
+		return new AbstractCollection<Integer>() {
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					private int next = nextVertex(0);
+
+					public boolean hasNext() {
+						return next >= 0;
+					}
+
+					public Integer next() {
+						if (next < 0) {
+							throw new NoSuchElementException();
+						}
+						int v = next;
+						next = nextVertex(v + 1);
+						return v;
+					}
+				};
+			}
+
+			public int size() {
+				return numVertices;
+			}
+
+			public boolean contains(Object o) {
+				return o instanceof Integer && hasVertex((Integer) o);
+			}
+		};
+	}
+
+	/**
+	 * Returns the neighbors of v in increasing order.
+	 *
+	 * @param v An existing node in the graph
+	 * @return All neighbors of v in the graph.
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public Collection<Integer> getNeighbors(Integer v) {
+		if (!hasVertex(v)) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot getNeighbors()");
+		}
+		return new IntArrayView(targets, offsets[v], offsets[v + 1], true);
+	}
+
+	/**
+	 * Determines whether the given vertex is contained in the graph.
+	 *
+	 * @param v The vertex to be tested.
+	 * @return True if v exists in the graph, false otherwise.
+	 */
+	public boolean containsVertex(Integer v) {
+		return v != null && hasVertex(v);
+	}
+
+	/**
+	 * Determines whether an edge exists from v to u, using a binary search of the
+	 * neighbors of v.
+	 *
+	 * @param v A node in the graph
+	 * @param u A node in the graph
+	 * @return True if an edge exists between the two vertices
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public boolean edgeExists(Integer v, Integer u) {
+		if (!hasVertex(u)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, edgeExists() failed");
+		} else if (!hasVertex(v)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, edgeExists() failed");
+		}
+		return Arrays.binarySearch(targets, offsets[v], offsets[v + 1], u) >= 0;
+	}
+
+	/**
+	 * Returns the outdegree of the vertex.
+	 *
+	 * @param v A vertex in the graph
+	 * @return The degree of the vertex
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public int degree(Integer v) {
+		if (!hasVertex(v)) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot degree()");
+		}
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/*********************************************************
+	 * Primitive access for algorithms that loop over the arrays
+	 *********************************************************/
+
+	/**
+	 * Returns one more than the largest possible vertex id. Every vertex is in
+	 * [0, vertexBound()), although not every id in that range has to be a vertex.
+	 *
+	 * @return the bound on vertex ids
+	 */
+	public int vertexBound() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Determines whether an id is a vertex, without boxing
+	 *
+	 * @param v the id to test
+	 * @return true if v is a vertex of the graph
+	 */
+	public boolean hasVertex(int v) {
+		return v >= 0 && v < vertexBound() && (present == null || present.get(v));
+	}
+
+	/**
+	 * Calls the action on every neighbor of v in increasing order, without boxing
+	 *
+	 * @param v      A vertex in the graph
+	 * @param action called once per neighbor
+	 */
+	public void forEachNeighbor(int v, IntConsumer action) {
+		for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+			action.accept(targets[i]);
+		}
+	}
+
+	/**
+	 * Returns the offsets array. The neighbors of v are
+	 * getTargets()[getOffsets()[v] ... getOffsets()[v+1]-1]. The array must not be modified.
+	 *
+	 * @return the offsets array
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * Returns the targets array holding the sorted neighbor ranges. The array must not be
+	 * modified.
+	 *
+	 * @return the targets array
+	 */
+	public int[] getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Returns a string representation of the graph. The string representation shows
+	 * all vertices and edges in the graph.
+	 *
+	 * @return A string representation of the graph
+	 */
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		for (int v = nextVertex(0); v >= 0; v = nextVertex(v + 1)) {
+			str.append(v).append("-> ");
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				str.append(targets[i]).append(' ');
+			}
+			str.append('\n');
+		}
+		return str.toString();
+	}
+
+	/**
+	 * Finds the first vertex with an id of at least v
+	 *
+	 * @param v the id to start from
+	 * @return the next vertex or -1 if there is none
+	 */
+	private int nextVertex(int v) {
+		if (present != null) {
+			return present.nextSetBit(v);
+		}
+		return v < vertexBound() ? v : -1;
+	}
+}
@@ -0,0 +1,122 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import data.Genres;
+
+/**
+ * Restricts graph queries to the movies of some genres. The genres of every movie are
+ * packed into one long[] indexed by movie id, as made by {@link Genres#masks}, so whether
+ * a vertex passes the filter is a single AND of its mask with the required genres. The
+ * filter is applied inside the traversals rather than by building a smaller graph first,
+ * so a filtered neighbor listing or {@link PathQuery#shortestPath(int, int, VertexFilter)}
+ * does the same work as an unfiltered one.
+ *
+ * A filter is immutable and may be shared by any number of threads.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class GenreFilter implements VertexFilter {
+	private final long[] masks; // masks[v] holds the genres of movie v
+	private final long required; // a vertex passes if it has any of these genres
+
+	/**
+	 * Creates a filter that passes the movies with at least one of the required genres
+	 *
+	 * @param masks    the genre mask of every movie, indexed by movie id
+	 * @param required the genres to keep
+	 * @throws IllegalArgumentException if no genre is required
+	 */
+	public GenreFilter(long[] masks, long required) {
+		if (required == 0) {
+			throw new IllegalArgumentException("no genre is required, cannot create GenreFilter");
+		}
+		this.masks = masks;
+		this.required = required;
+	}
+
+	/**
+	 * Returns whether a vertex passes the filter
+	 *
+	 * @param v a vertex
+	 * @return true if the movie has one of the required genres
+	 */
+	@Override
+	public boolean accepts(int v) {
+		return v < masks.length && (masks[v] & required) != 0;
+	}
+
+	/**
+	 * Returns the genres the filter keeps
+	 *
+	 * @return the mask of the required genres
+	 */
+	public long required() {
+		return required;
+	}
+
+	/**
+	 * Returns the neighbors of a vertex that pass the filter, in increasing order
+	 *
+	 * @param G the graph
+	 * @param v a vertex of G
+	 * @return a new array of the neighbors of v that pass
+	 * @throws IllegalArgumentException if the vertex does not occur in the graph
+	 */
+	public int[] neighbors(CsrGraph G, int v) {
+		if (!G.hasVertex(v)) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot getNeighbors()");
+		}
+		int[] kept = new int[G.offsets[v + 1] - G.offsets[v]];
+		int n = 0;
+		for (int i = G.offsets[v]; i < G.offsets[v + 1]; i++) {
+			int u = G.targets[i];
+			if (accepts(u)) {
+				kept[n++] = u;
+			}
+		}
+		return n == kept.length ? kept : Arrays.copyOf(kept, n);
+	}
+
+	/**
+	 * Returns the subgraph of the vertices that pass the filter and the edges between them,
+	 * keeping the vertex ids. The statistics of the subgraph are the statistics of the
+	 * filtered graph.
+	 *
+	 * @param G the graph
+	 * @return the induced subgraph
+	 */
+	public CsrGraph subgraph(CsrGraph G) {
+		int n = G.vertexBound();
+		BitSet present = new BitSet(n);
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[G.numEdges()];
+		int m = 0;
+		for (int v = 0; v < n; v++) {
+			boolean keep = G.hasVertex(v) && accepts(v);
+			if (keep) {
+				present.set(v);
+				for (int i = G.offsets[v]; i < G.offsets[v + 1]; i++) {
+					int u = G.targets[i];
+					if (accepts(u)) {
+						targets[m++] = u;
+					}
+				}
+			}
+			offsets[v + 1] = m;
+		}
+		return new CsrGraph(offsets, Arrays.copyOf(targets, m), present);
+	}
+
+	/**
+	 * Returns the required genres
+	 *
+	 * @return the genres separated by '|'
+	 */
+	@Override
+	public String toString() {
+		return String.join("|", Genres.names(required));
+	}
+}
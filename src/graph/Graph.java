@@ -82,6 +82,35 @@ public class Graph<V> implements GraphIfc<V> {
 //		}
 	}
 
+	/**
+	 * Removes the edge from u to v, if there is one.
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @return True if the edge existed, false otherwise
+	 * @throws IllegalArgumentException if either vertex does not occur in the
+	 *                                  graph.
+	 */
+	public boolean removeEdge(V u, V v) {
+		if (!G.containsKey(u)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot removeEdge()");
+		} else if (!G.containsKey(v)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot removeEdge()");
+		}
+		return G.get(u).remove(v);
+	}
+
+	/**
+	 * Replaces the adjacency set of a vertex, adding the vertex if needed. Used by
+	 * builders that compute whole rows of the graph at once.
+	 *
+	 * @param v         A vertex
+	 * @param neighbors The new neighbors of v, all of which must be vertices in the graph
+	 */
+	void setNeighbors(V v, Set<V> neighbors) {
+		G.put(v, neighbors);
+	}
+
 	/**
 	 * Returns the set of all vertices in the graph.
 	 * 
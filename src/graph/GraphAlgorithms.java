@@ -1,6 +1,8 @@
 package graph;
 //import graph.Graph;
 
+import java.util.Arrays;
+
 import util.*;
 
 public class GraphAlgorithms {
@@ -42,10 +44,8 @@ public class GraphAlgorithms {
             			if(alt < dist[i][j]) {
             				dist[i][j] = alt;
             			}
-        			}
         		}
         	}
-    		
     	}
     	return dist;
     }
@@ -56,18 +56,15 @@ public class GraphAlgorithms {
  * @return list of nodes on shortest
  */
     public static Integer[] dijkstrasAlgorithm(Graph<Integer> G, int source) {
-		Integer[] dist = new Integer[G.numVertices()];
+		int[] dist = new int[G.numVertices()];
 		Integer[] prev = new Integer [G.numVertices()];
-		PriorityQueue Q = new PriorityQueue(); 
+		IntPriorityQueue Q = new IntPriorityQueue(G.numVertices());
 		
-		dist[source] = 0;
 		for(int v : G.getVertices()) {
-			if(v != source) {
-				dist[v] = INF;
-				prev[v] = null;
-			}
-			Q.push(dist[v], v);
+			dist[v] = INF;
 		}
+		dist[source] = 0;
+		Q.heapify(dist); //every vertex starts in the queue
 		while(!Q.isEmpty()) {
 			int u = Q.pop();
 			for(Integer v : G.getNeighbors(u)) {
@@ -90,5 +87,40 @@ public class GraphAlgorithms {
 	    	return prev;
     }
 
+/**
+ * Runs Dijkstra's Algorithm over the edge weights of a weighted graph. Vertices enter the
+ * queue when they are first reached, so only the reachable part of the graph is touched.
+ * @param G weighted graph
+ * @param source node
+ * @return prev[v] is the node before v on a shortest path from source, null for the
+ * source and for nodes that cannot be reached
+ */
+    public static Integer[] dijkstrasAlgorithm(WeightedGraph G, int source) {
+		int n = G.vertexBound();
+		float[] dist = new float[n];
+		Integer[] prev = new Integer[n];
+		FloatPriorityQueue Q = new FloatPriorityQueue(n);
+		Arrays.fill(dist, Float.POSITIVE_INFINITY);
+		dist[source] = 0;
+		Q.push(0, source);
+		while(!Q.isEmpty()) {
+			int u = Q.pop();
+			for(int i = G.offsets[u]; i < G.offsets[u + 1]; i++) {
+				int v = G.targets[i];
+				float alt = dist[u] + G.weights[i];
+				if(alt < dist[v]) { //v has not been popped, since weights are not negative
+					dist[v] = alt;
+					prev[v] = u;
+					if(Q.isPresent(v)) {
+						Q.changePriority(alt, v);
+					}
+					else {
+						Q.push(alt, v);
+					}
+				}
+			}
+		}
+		return prev;
+    }
 
 }
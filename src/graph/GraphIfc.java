@@ -39,6 +39,17 @@ public interface GraphIfc<V> {
 	 */
 	public void addEdge(V u, V v);	
 
+	/**
+	 * Removes the edge between vertices u and v, if there is one. In a directed graph only
+	 * the edge from u to v is removed.
+	 *
+	 * @param u A vertex in the graph
+	 * @param v A vertex in the graph
+	 * @return True if the edge existed, false otherwise
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph.
+	 */
+	public boolean removeEdge(V u, V v);
+
 	/**
 	 * Returns the set of all vertices in the graph.
 	 * @return A set containing all vertices in the graph
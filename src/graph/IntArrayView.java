@@ -0,0 +1,63 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list view of a range of an int array, used to hand primitive adjacency
+ * arrays out through the <code>Collection</code> based methods of {@link GraphIfc}.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+class IntArrayView extends AbstractList<Integer> implements RandomAccess {
+	private final int[] array;
+	private final int from, to;
+	private final boolean sorted;
+
+	/**
+	 * Creates a view of array[from ... to-1]
+	 *
+	 * @param array  the backing array
+	 * @param from   first index of the range
+	 * @param to     one past the last index of the range
+	 * @param sorted true if the range is sorted, which lets contains() binary search
+	 */
+	IntArrayView(int[] array, int from, int to, boolean sorted) {
+		this.array = array;
+		this.from = from;
+		this.to = to;
+		this.sorted = sorted;
+	}
+
+	@Override
+	public Integer get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("index " + index + " out of range, cannot get()");
+		}
+		return array[from + index];
+	}
+
+	@Override
+	public int size() {
+		return to - from;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Integer)) {
+			return false;
+		}
+		int key = (Integer) o;
+		if (sorted) {
+			return Arrays.binarySearch(array, from, to, key) >= 0;
+		}
+		for (int i = from; i < to; i++) {
+			if (array[i] == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
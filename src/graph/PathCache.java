@@ -0,0 +1,372 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import util.FloatPriorityQueue;
+import util.LongIntHashMap;
+
+/**
+ * Caches single-source shortest path trees, so that repeated queries from the same
+ * popular movies cost only the length of the path. A tree holds the distance and the
+ * predecessor of every vertex, about 8 bytes per vertex, and the cache keeps as many trees
+ * as fit in its memory budget, evicting the least recently used ones first.
+ *
+ * A full search from a source costs much more than one {@link PathQuery}, so a tree is
+ * only built once a source has missed the cache {@link #ADMIT_AFTER} times. Sources seen
+ * only once are answered by a bidirectional search and remembered in a small table of
+ * recent misses that is cleared whenever it fills up, so one-off queries never push hot
+ * trees out.
+ *
+ * Every query names the graph it is about. The cache holds trees for one graph at a time
+ * and drops all of them as soon as it is asked about another, so a rebuilt graph never
+ * gets stale answers; a CsrGraph never changes, so the graph itself tells them apart. The methods are synchronized, so the cache may be shared
+ * by several threads.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class PathCache {
+	/** The default memory budget, 64 MB */
+	public static final long DEFAULT_BUDGET = 64L << 20;
+	/** The number of misses from a source before its tree is cached */
+	public static final int ADMIT_AFTER = 2;
+	private static final int RECENT_MISSES = 4096; // sources remembered by the admission table
+	private static final long TREE_OVERHEAD = 64; // bytes of a tree besides its arrays
+
+	private final long budget;
+	private final LinkedHashMap<Integer, Tree> trees = new LinkedHashMap<>(16, 0.75f, true); // least recent first
+	private final LongIntHashMap recentMisses = new LongIntHashMap(RECENT_MISSES);
+	private CsrGraph graph; // the graph the trees belong to
+	private float[] weights;
+	private PathQuery query; // answers the misses that do not build a tree
+	private long bytes, hits, misses, evictions, invalidations;
+
+	/**
+	 * Creates a cache that holds at most the default budget of trees
+	 */
+	public PathCache() {
+		this(DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Creates a cache that holds at most the given number of bytes of trees
+	 *
+	 * @param budget the memory budget in bytes
+	 * @throws IllegalArgumentException if the budget is negative
+	 */
+	public PathCache(long budget) {
+		if (budget < 0) {
+			throw new IllegalArgumentException("budget must not be negative, cannot create PathCache");
+		}
+		this.budget = budget;
+	}
+
+	/**
+	 * Finds a shortest path from source to target, from a cached tree when there is one
+	 *
+	 * @param G       the graph
+	 * @param weights the edge weights in the order of G.getTargets(), or null for unit
+	 *                weights
+	 * @param source  the first vertex of the path
+	 * @param target  the last vertex of the path
+	 * @return the vertices of the path from source to target, or an empty list if target
+	 *         cannot be reached from source
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph or the
+	 *                                  weights do not match the edges
+	 */
+	public synchronized List<Integer> shortestPath(CsrGraph G, float[] weights, int source, int target) {
+		if (!G.hasVertex(source)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot shortestPath()");
+		} else if (!G.hasVertex(target)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot shortestPath()");
+		}
+		use(G, weights);
+		Tree tree = trees.get(source);
+		if (tree != null) {
+			hits++;
+			return tree.path(target);
+		}
+		misses++;
+		if (recentMisses.size() >= RECENT_MISSES) { // forget old misses so the table stays small
+			recentMisses.clear();
+		}
+		if (recentMisses.add(source, 1) < ADMIT_AFTER) {
+			if (query == null) {
+				query = new PathQuery(G, weights);
+			}
+			return query.shortestPath(source, target);
+		}
+		return admit(source, build(source)).path(target);
+	}
+
+	/**
+	 * Returns the shortest path tree of a source, building and caching it on a miss
+	 *
+	 * @param G       the graph
+	 * @param weights the edge weights in the order of G.getTargets(), or null for unit
+	 *                weights
+	 * @param source  the root of the tree
+	 * @return the tree
+	 * @throws IllegalArgumentException if the source does not occur in the graph or the
+	 *                                  weights do not match the edges
+	 */
+	public synchronized Tree tree(CsrGraph G, float[] weights, int source) {
+		if (!G.hasVertex(source)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot tree()");
+		}
+		use(G, weights);
+		Tree tree = trees.get(source);
+		if (tree != null) {
+			hits++;
+			return tree;
+		}
+		misses++;
+		return admit(source, build(source));
+	}
+
+	/**
+	 * Drops every cached tree
+	 */
+	public synchronized void clear() {
+		trees.clear();
+		recentMisses.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Returns the number of queries answered from a cached tree
+	 *
+	 * @return the number of hits
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of queries whose source had no cached tree
+	 *
+	 * @return the number of misses
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of trees evicted to stay within the budget
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the number of times the cache was emptied because the graph changed
+	 *
+	 * @return the number of invalidations
+	 */
+	public synchronized long invalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * Returns the number of cached trees
+	 *
+	 * @return the number of trees
+	 */
+	public synchronized int size() {
+		return trees.size();
+	}
+
+	/**
+	 * Returns the memory held by the cached trees
+	 *
+	 * @return the size of the trees in bytes
+	 */
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the memory budget
+	 *
+	 * @return the budget in bytes
+	 */
+	public long budget() {
+		return budget;
+	}
+
+	/**
+	 * Returns the counters of the cache
+	 *
+	 * @return a one-line summary
+	 */
+	@Override
+	public synchronized String toString() {
+		long queries = hits + misses;
+		return String.format("%d trees in %.1f of %.1f MB, %d hits, %d misses (%.1f%% hit rate), %d evictions, %d invalidations",
+				trees.size(), bytes / 1048576.0, budget / 1048576.0, hits, misses, queries == 0 ? 0.0 : 100.0 * hits / queries,
+				evictions, invalidations);
+	}
+
+	/**
+	 * Makes the graph the one the cache is about, dropping every tree of another graph
+	 */
+	private void use(CsrGraph G, float[] weights) {
+		if (weights != null && weights.length != G.numEdges()) {
+			throw new IllegalArgumentException("one weight per edge is required, cannot use PathCache");
+		}
+		if (G == graph && weights == this.weights) {
+			return;
+		}
+		if (graph != null) {
+			invalidations++;
+		}
+		clear();
+		graph = G;
+		this.weights = weights;
+		query = null;
+	}
+
+	/**
+	 * Adds a tree, evicting the least recently used trees until it fits. A tree larger
+	 * than the whole budget is returned without being cached.
+	 */
+	private Tree admit(int source, Tree tree) {
+		if (tree.bytes() > budget) {
+			return tree;
+		}
+		Iterator<Tree> lru = trees.values().iterator();
+		while (bytes + tree.bytes() > budget) {
+			bytes -= lru.next().bytes();
+			lru.remove();
+			evictions++;
+		}
+		trees.put(source, tree);
+		bytes += tree.bytes();
+		recentMisses.add(source, -recentMisses.get(source));
+		return tree;
+	}
+
+	/**
+	 * Runs a breadth first search or Dijkstra's algorithm from the source over the whole
+	 * graph
+	 */
+	private Tree build(int source) {
+		int n = graph.vertexBound();
+		int[] parent = new int[n];
+		float[] dist = new float[n];
+		Arrays.fill(parent, -1);
+		Arrays.fill(dist, Float.POSITIVE_INFINITY);
+		parent[source] = source;
+		dist[source] = 0;
+		int[] offsets = graph.offsets, targets = graph.targets;
+		if (weights == null) {
+			int[] queue = new int[n];
+			int head = 0, tail = 0;
+			queue[tail++] = source;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+					int v = targets[i];
+					if (parent[v] < 0) {
+						parent[v] = u;
+						dist[v] = dist[u] + 1;
+						queue[tail++] = v;
+					}
+				}
+			}
+		} else {
+			FloatPriorityQueue Q = new FloatPriorityQueue(n);
+			Q.push(0, source);
+			while (!Q.isEmpty()) {
+				int u = Q.pop();
+				for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+					int v = targets[i];
+					float alt = dist[u] + weights[i];
+					if (alt < dist[v]) {
+						boolean queued = parent[v] >= 0;
+						dist[v] = alt;
+						parent[v] = u;
+						if (!queued) {
+							Q.push(alt, v);
+						} else if (Q.isPresent(v)) {
+							Q.changePriority(alt, v);
+						}
+					}
+				}
+			}
+		}
+		return new Tree(source, parent, dist);
+	}
+
+	/**
+	 * The shortest paths from one source to every vertex of a graph. A tree never changes
+	 * once it is built.
+	 */
+	public static class Tree {
+		private final int source;
+		private final int[] parent; // the vertex before v on its path, -1 if v is unreachable
+		private final float[] dist;
+
+		Tree(int source, int[] parent, float[] dist) {
+			this.source = source;
+			this.parent = parent;
+			this.dist = dist;
+		}
+
+		/**
+		 * Returns the root of the tree
+		 *
+		 * @return the source
+		 */
+		public int source() {
+			return source;
+		}
+
+		/**
+		 * Returns the length of the shortest path to a vertex
+		 *
+		 * @param v a vertex
+		 * @return the distance from the source, infinite if v cannot be reached
+		 */
+		public float distance(int v) {
+			return dist[v];
+		}
+
+		/**
+		 * Returns the shortest path from the source to a vertex, in time proportional to its
+		 * length
+		 *
+		 * @param target the last vertex of the path
+		 * @return the vertices of the path from the source to target, or an empty list if
+		 *         target cannot be reached
+		 */
+		public List<Integer> path(int target) {
+			if (parent[target] < 0) {
+				return Collections.emptyList();
+			}
+			List<Integer> path = new ArrayList<Integer>();
+			for (int v = target; v != source; v = parent[v]) {
+				path.add(v);
+			}
+			path.add(source);
+			Collections.reverse(path);
+			return path;
+		}
+
+		/**
+		 * Returns the memory held by the tree
+		 *
+		 * @return the size in bytes
+		 */
+		public long bytes() {
+			return TREE_OVERHEAD + 4L * parent.length + 4L * dist.length;
+		}
+	}
+}
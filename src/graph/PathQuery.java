@@ -0,0 +1,363 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import util.FloatPriorityQueue;
+
+/**
+ * Answers point-to-point shortest path queries by searching from both ends at once and
+ * stopping as soon as the two searches meet, so a query only touches the vertices near
+ * the source and the target rather than the whole graph. Unweighted graphs use a
+ * bidirectional breadth first search and weighted graphs a bidirectional Dijkstra.
+ *
+ * Queries may be run from several threads at once. Each query borrows a set of scratch
+ * arrays from a pool and returns it when done; the arrays are marked with a per-query
+ * stamp so they never need to be cleared. The pool holds at most one set per processor,
+ * and a query waits for a set when all are in use, so memory stays bounded however many
+ * threads query at once, which matters for servers with a virtual thread per client.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class PathQuery {
+	private final CsrGraph forward, backward;
+	private final float[] forwardWeights, backwardWeights; // null for unit weights
+	private final ConcurrentLinkedQueue<Scratch> idle = new ConcurrentLinkedQueue<>(); // scratch not in use
+	private final Semaphore permits; // one per scratch that may exist
+	private final ThreadLocal<int[]> visited = ThreadLocal.withInitial(() -> new int[1]); // per thread, of its last query
+
+	/**
+	 * Prepares queries over an unweighted graph
+	 *
+	 * @param G the graph
+	 */
+	public PathQuery(CsrGraph G) {
+		this(G, null);
+	}
+
+	/**
+	 * Prepares queries over a weighted graph. weights[i] is the weight of the edge stored
+	 * at G.getTargets()[i] and must not be negative.
+	 *
+	 * @param G       the graph
+	 * @param weights the edge weights, or null for unit weights
+	 * @throws IllegalArgumentException if the weights do not match the edges
+	 */
+	public PathQuery(CsrGraph G, float[] weights) {
+		if (weights != null && weights.length != G.numEdges()) {
+			throw new IllegalArgumentException("one weight per edge is required, cannot create PathQuery");
+		}
+		forward = G;
+		forwardWeights = weights;
+		if (weights == null) {
+			backward = G.transpose();
+			backwardWeights = null;
+		} else {
+			// build the transpose by hand so the weights follow their edges
+			int n = G.vertexBound();
+			int[] offsets = new int[n + 1];
+			for (int u : G.targets) {
+				offsets[u + 1]++;
+			}
+			for (int v = 0; v < n; v++) {
+				offsets[v + 1] += offsets[v];
+			}
+			int[] targets = new int[G.numEdges()];
+			backwardWeights = new float[G.numEdges()];
+			int[] next = Arrays.copyOf(offsets, n);
+			for (int v = 0; v < n; v++) {
+				for (int i = G.offsets[v]; i < G.offsets[v + 1]; i++) {
+					int slot = next[G.targets[i]]++;
+					targets[slot] = v;
+					backwardWeights[slot] = weights[i];
+				}
+			}
+			backward = new CsrGraph(offsets, targets);
+		}
+		permits = new Semaphore(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Finds a shortest path from source to target
+	 *
+	 * @param source the first vertex of the path
+	 * @param target the last vertex of the path
+	 * @return the vertices of the path from source to target, or an empty list if target
+	 *         cannot be reached from source
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public List<Integer> shortestPath(int source, int target) {
+		return shortestPath(source, target, null);
+	}
+
+	/**
+	 * Finds a shortest path from source to target whose inner vertices all pass a filter,
+	 * such as a {@link GenreFilter}. The source and target themselves need not pass.
+	 *
+	 * @param source the first vertex of the path
+	 * @param target the last vertex of the path
+	 * @param filter the vertices the path may go through, or null for any vertex
+	 * @return the vertices of the path from source to target, or an empty list if target
+	 *         cannot be reached from source through vertices that pass the filter
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public List<Integer> shortestPath(int source, int target, VertexFilter filter) {
+		if (!forward.hasVertex(source)) {
+			throw new IllegalArgumentException("Source node not contained in Graph, cannot shortestPath()");
+		} else if (!forward.hasVertex(target)) {
+			throw new IllegalArgumentException("Destination node not contained in Graph, cannot shortestPath()");
+		}
+		if (source == target) {
+			visited.get()[0] = 0;
+			return Collections.singletonList(source);
+		}
+		Scratch s = borrow();
+		try {
+			s.begin();
+			int meet = forwardWeights == null ? bidirectionalBfs(s, source, target, filter)
+					: bidirectionalDijkstra(s, source, target, filter);
+			visited.get()[0] = s.visited;
+			return meet < 0 ? Collections.<Integer>emptyList() : s.path(meet);
+		} finally {
+			idle.add(s);
+			permits.release();
+		}
+	}
+
+	/**
+	 * Takes a scratch from the pool, waiting while every scratch is in use and making a new
+	 * one while fewer exist than the pool may hold
+	 */
+	private Scratch borrow() {
+		permits.acquireUninterruptibly();
+		Scratch s = idle.poll();
+		return s != null ? s : new Scratch(forward.vertexBound());
+	}
+
+	/**
+	 * Returns the graph the queries are about
+	 *
+	 * @return the graph
+	 */
+	public CsrGraph graph() {
+		return forward;
+	}
+
+	/**
+	 * Returns the number of vertices the calling thread's last query reached from either
+	 * side, a measure of how much of the graph it touched
+	 *
+	 * @return the number of vertices reached
+	 */
+	public int lastQueryVisited() {
+		return visited.get()[0];
+	}
+
+	/**
+	 * Runs a breadth first search from each end, always growing the smaller frontier by a
+	 * whole level. Once the frontiers touch, the rest of that level is finished and the
+	 * meeting vertex with the shortest total distance is chosen. Vertices the filter
+	 * rejects are never entered.
+	 *
+	 * @return the vertex where the searches met, or -1 if they never did
+	 */
+	private int bidirectionalBfs(Scratch s, int source, int target, VertexFilter filter) {
+		s.reachForward(source, -1, 0);
+		s.reachBackward(target, -1, 0);
+		int[] forwardQueue = s.forwardQueue, backwardQueue = s.backwardQueue;
+		forwardQueue[0] = source;
+		backwardQueue[0] = target;
+		int forwardHead = 0, forwardTail = 1, backwardHead = 0, backwardTail = 1;
+		int meet = -1;
+		float best = Float.POSITIVE_INFINITY;
+		while (meet < 0 && forwardHead < forwardTail && backwardHead < backwardTail) {
+			boolean growForward = forwardTail - forwardHead <= backwardTail - backwardHead;
+			CsrGraph G = growForward ? forward : backward;
+			int[] queue = growForward ? forwardQueue : backwardQueue;
+			int head = growForward ? forwardHead : backwardHead;
+			int tail = growForward ? forwardTail : backwardTail;
+			int levelEnd = tail;
+			while (head < levelEnd) {
+				int u = queue[head++];
+				float d = s.distance(growForward, u) + 1;
+				for (int i = G.offsets[u]; i < G.offsets[u + 1]; i++) {
+					int v = G.targets[i];
+					if (s.reached(growForward, v) || filter != null && v != target && v != source && !filter.accepts(v)) {
+						continue;
+					}
+					if (growForward) {
+						s.reachForward(v, u, d);
+					} else {
+						s.reachBackward(v, u, d);
+					}
+					queue[tail++] = v;
+					if (s.reached(!growForward, v) && d + s.distance(!growForward, v) < best) {
+						best = d + s.distance(!growForward, v);
+						meet = v;
+					}
+				}
+			}
+			if (growForward) {
+				forwardHead = head;
+				forwardTail = tail;
+			} else {
+				backwardHead = head;
+				backwardTail = tail;
+			}
+		}
+		return meet;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from each end, alternating between the two queues. The
+	 * searches stop once the smallest keys of the two queues add up to at least the best
+	 * path found so far, at which point no shorter path can exist.
+	 *
+	 * @return the vertex on the best path where the searches met, or -1 if they never did
+	 */
+	private int bidirectionalDijkstra(Scratch s, int source, int target, VertexFilter filter) {
+		FloatPriorityQueue forwardQueue = s.forwardHeap(), backwardQueue = s.backwardHeap();
+		s.reachForward(source, -1, 0);
+		s.reachBackward(target, -1, 0);
+		forwardQueue.push(0, source);
+		backwardQueue.push(0, target);
+		int meet = -1;
+		float best = Float.POSITIVE_INFINITY;
+		while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+				&& forwardQueue.topPriority() + backwardQueue.topPriority() < best) {
+			boolean growForward = forwardQueue.size() <= backwardQueue.size();
+			FloatPriorityQueue Q = growForward ? forwardQueue : backwardQueue;
+			CsrGraph G = growForward ? forward : backward;
+			float[] weights = growForward ? forwardWeights : backwardWeights;
+			int u = Q.pop();
+			float du = s.distance(growForward, u);
+			for (int i = G.offsets[u]; i < G.offsets[u + 1]; i++) {
+				int v = G.targets[i];
+				if (filter != null && v != target && v != source && !filter.accepts(v)) {
+					continue;
+				}
+				float alt = du + weights[i];
+				if (!s.reached(growForward, v)) {
+					if (growForward) {
+						s.reachForward(v, u, alt);
+					} else {
+						s.reachBackward(v, u, alt);
+					}
+					Q.push(alt, v);
+				} else if (alt < s.distance(growForward, v)) {
+					if (growForward) {
+						s.reachForward(v, u, alt);
+					} else {
+						s.reachBackward(v, u, alt);
+					}
+					if (Q.isPresent(v)) {
+						Q.changePriority(alt, v);
+					}
+				} else {
+					continue;
+				}
+				if (s.reached(!growForward, v) && alt + s.distance(!growForward, v) < best) {
+					best = alt + s.distance(!growForward, v);
+					meet = v;
+				}
+			}
+		}
+		return meet;
+	}
+
+	/**
+	 * Search state for both directions, used by one query at a time. A vertex has been reached by a search
+	 * in the current query when its stamp equals the query's stamp.
+	 */
+	private static class Scratch {
+		final int[] forwardStamp, backwardStamp;
+		final int[] forwardParent, backwardParent;
+		final float[] forwardDist, backwardDist;
+		final int[] forwardQueue, backwardQueue;
+		private FloatPriorityQueue forwardHeap, backwardHeap;
+		int stamp, visited;
+
+		Scratch(int n) {
+			forwardStamp = new int[n];
+			backwardStamp = new int[n];
+			forwardParent = new int[n];
+			backwardParent = new int[n];
+			forwardDist = new float[n];
+			backwardDist = new float[n];
+			forwardQueue = new int[n];
+			backwardQueue = new int[n];
+		}
+
+		void begin() {
+			if (++stamp == Integer.MAX_VALUE) { // wrapped around, forget every old stamp
+				Arrays.fill(forwardStamp, 0);
+				Arrays.fill(backwardStamp, 0);
+				stamp = 1;
+			}
+			visited = 0;
+			if (forwardHeap != null) {
+				forwardHeap.clear();
+				backwardHeap.clear();
+			}
+		}
+
+		FloatPriorityQueue forwardHeap() {
+			if (forwardHeap == null) {
+				forwardHeap = new FloatPriorityQueue(forwardStamp.length);
+				backwardHeap = new FloatPriorityQueue(forwardStamp.length);
+			}
+			return forwardHeap;
+		}
+
+		FloatPriorityQueue backwardHeap() {
+			forwardHeap();
+			return backwardHeap;
+		}
+
+		boolean reached(boolean forward, int v) {
+			return (forward ? forwardStamp[v] : backwardStamp[v]) == stamp;
+		}
+
+		float distance(boolean forward, int v) {
+			return forward ? forwardDist[v] : backwardDist[v];
+		}
+
+		void reachForward(int v, int parent, float dist) {
+			if (forwardStamp[v] != stamp) {
+				forwardStamp[v] = stamp;
+				visited++;
+			}
+			forwardParent[v] = parent;
+			forwardDist[v] = dist;
+		}
+
+		void reachBackward(int v, int parent, float dist) {
+			if (backwardStamp[v] != stamp) {
+				backwardStamp[v] = stamp;
+				visited++;
+			}
+			backwardParent[v] = parent;
+			backwardDist[v] = dist;
+		}
+
+		/**
+		 * Joins the forward path to the meeting vertex with the backward path from it
+		 */
+		List<Integer> path(int meet) {
+			List<Integer> path = new ArrayList<Integer>();
+			for (int v = meet; v >= 0; v = forwardParent[v]) {
+				path.add(v);
+			}
+			Collections.reverse(path);
+			for (int v = backwardParent[meet]; v >= 0; v = backwardParent[v]) {
+				path.add(v);
+			}
+			return path;
+		}
+	}
+}
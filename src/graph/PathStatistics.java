@@ -0,0 +1,114 @@
+package graph;
+
+/**
+ * Accumulates shortest path lengths between pairs of vertices: the number of reachable
+ * pairs, their total length and the longest of them. Accumulators for different sources
+ * can be merged, so each worker of a parallel all-pairs search keeps its own.
+ *
+ * A pair is only counted if the target is reachable from the source and differs from it.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class PathStatistics {
+	private long numPaths;
+	private long totalLength;
+	private int diameter;
+	private int diameterSource = -1, diameterTarget = -1;
+
+	/**
+	 * Records the shortest path length from source to target. Among paths of equal length
+	 * the diameter keeps the one with the smallest source, then the smallest target.
+	 *
+	 * @param source the source vertex
+	 * @param target the target vertex
+	 * @param length the length of the shortest path
+	 */
+	public void add(int source, int target, int length) {
+		numPaths++;
+		totalLength += length;
+		if (length > diameter || (length == diameter && isBefore(source, target))) {
+			diameter = length;
+			diameterSource = source;
+			diameterTarget = target;
+		}
+	}
+
+	/**
+	 * Adds all paths recorded by another accumulator to this one
+	 *
+	 * @param other an accumulator for a disjoint set of pairs
+	 */
+	public void merge(PathStatistics other) {
+		numPaths += other.numPaths;
+		totalLength += other.totalLength;
+		if (other.numPaths > 0 && (other.diameter > diameter
+				|| (other.diameter == diameter && isBefore(other.diameterSource, other.diameterTarget)))) {
+			diameter = other.diameter;
+			diameterSource = other.diameterSource;
+			diameterTarget = other.diameterTarget;
+		}
+	}
+
+	/**
+	 * Returns the number of ordered pairs (u, v), u != v, such that v is reachable from u
+	 *
+	 * @return the number of reachable pairs
+	 */
+	public long numPaths() {
+		return numPaths;
+	}
+
+	/**
+	 * Returns the sum of the shortest path lengths over all reachable pairs
+	 *
+	 * @return the total path length
+	 */
+	public long totalLength() {
+		return totalLength;
+	}
+
+	/**
+	 * Returns the average shortest path length over all reachable pairs
+	 *
+	 * @return the average path length, or 0 if there are no reachable pairs
+	 */
+	public double averagePathLength() {
+		return numPaths == 0 ? 0 : (double) totalLength / numPaths;
+	}
+
+	/**
+	 * Returns the longest shortest path between any reachable pair
+	 *
+	 * @return the diameter
+	 */
+	public int diameter() {
+		return diameter;
+	}
+
+	/**
+	 * Returns the source of a longest shortest path
+	 *
+	 * @return the source vertex or -1 if there are no reachable pairs
+	 */
+	public int diameterSource() {
+		return diameterSource;
+	}
+
+	/**
+	 * Returns the target of a longest shortest path
+	 *
+	 * @return the target vertex or -1 if there are no reachable pairs
+	 */
+	public int diameterTarget() {
+		return diameterTarget;
+	}
+
+	/**
+	 * Determines whether a pair comes before the current diameter endpoints
+	 */
+	private boolean isBefore(int source, int target) {
+		return diameterSource < 0 || source < diameterSource
+				|| (source == diameterSource && target < diameterTarget);
+	}
+}
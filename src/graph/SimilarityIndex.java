@@ -0,0 +1,348 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import data.RatingMatrix;
+import data.Similarity;
+import util.Pair;
+import util.Parallel;
+
+/**
+ * The k most similar movies of every movie, precomputed so that "movies similar to X"
+ * is an array lookup. The index is stored like a {@link CsrGraph}: the neighbors of movie
+ * m are neighbors[offsets[m] ... offsets[m+1]-1] in decreasing order of score, with their
+ * scores at the same positions of scores.
+ *
+ * It is built by multiplying the transposed reviewer-by-movie rating matrix with itself,
+ * one row of the product at a time. Row m of the product is the sum of the rating rows of
+ * the reviewers of m, so it is accumulated by walking those reviewers' movie lists. The
+ * columns of a row are produced in blocks of {@link #BLOCK} movies, which keeps each
+ * thread's accumulators small enough to stay in cache however many movies there are.
+ * Finished blocks are offered to a bounded min-heap of the row's k best scores.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class SimilarityIndex {
+	/** The number of product columns accumulated at once */
+	public static final int BLOCK = 1 << 14;
+
+	private final int[] offsets;
+	private final int[] neighbors;
+	private final float[] scores;
+
+	/**
+	 * Wraps index arrays, for example ones read back from a file
+	 *
+	 * @param offsets   start of each movie's neighbors, of length numMovies+1
+	 * @param neighbors the neighbors of every movie, best first
+	 * @param scores    the score of each neighbor
+	 * @throws IllegalArgumentException if the arrays do not fit together
+	 */
+	public SimilarityIndex(int[] offsets, int[] neighbors, float[] scores) {
+		int n = offsets.length - 1;
+		if (n < 0 || offsets[0] != 0 || offsets[n] != neighbors.length || scores.length != neighbors.length) {
+			throw new IllegalArgumentException("arrays do not describe an index, cannot create SimilarityIndex");
+		}
+		for (int i = 0; i < n; i++) {
+			if (offsets[i] > offsets[i + 1]) {
+				throw new IllegalArgumentException("offsets must be non-decreasing, cannot create SimilarityIndex");
+			}
+		}
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+		this.scores = scores;
+	}
+
+	/**
+	 * Builds the index in parallel
+	 *
+	 * @param ratings     the ratings
+	 * @param similarity  the similarity measure
+	 * @param k           the number of neighbors to keep per movie
+	 * @param minShared   the number of reviewers two movies must share to be compared
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the index; only neighbors with a positive score are kept
+	 * @throws IllegalArgumentException if k or minShared is less than 1
+	 */
+	public static SimilarityIndex build(RatingMatrix ratings, Similarity similarity, int k, int minShared,
+			int parallelism) {
+		if (k < 1 || minShared < 1) {
+			throw new IllegalArgumentException("k and minShared must be at least 1, cannot build()");
+		}
+		int numMovies = ratings.numMovies();
+		double[] centers = similarity.centers(ratings);
+		double[] norms = Similarity.norms(ratings, centers);
+		int maxCount = 0;
+		for (int movie = 0; movie < numMovies; movie++) {
+			maxCount = Math.max(maxCount, ratings.movieCount(movie));
+		}
+		int cursors = maxCount;
+
+		int[][] rowNeighbors = new int[numMovies][];
+		float[][] rowScores = new float[numMovies][];
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, numMovies, Parallel.grain(numMovies, pool.getParallelism()), (from, to) -> {
+				Accumulator acc = new Accumulator(ratings, similarity, centers, norms, k, minShared, cursors);
+				for (int movie = from; movie < to; movie++) {
+					acc.row(movie);
+					rowNeighbors[movie] = acc.heapNeighbors();
+					rowScores[movie] = acc.heapScores();
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+
+		int[] offsets = new int[numMovies + 1];
+		for (int movie = 0; movie < numMovies; movie++) {
+			offsets[movie + 1] = offsets[movie] + rowNeighbors[movie].length;
+		}
+		int[] neighbors = new int[offsets[numMovies]];
+		float[] scores = new float[offsets[numMovies]];
+		for (int movie = 0; movie < numMovies; movie++) {
+			System.arraycopy(rowNeighbors[movie], 0, neighbors, offsets[movie], rowNeighbors[movie].length);
+			System.arraycopy(rowScores[movie], 0, scores, offsets[movie], rowScores[movie].length);
+		}
+		return new SimilarityIndex(offsets, neighbors, scores);
+	}
+
+	/**
+	 * Returns the number of movies in the index
+	 *
+	 * @return the number of movies
+	 */
+	public int numMovies() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Returns the number of neighbors stored for a movie, at most k
+	 *
+	 * @param movie the movie id
+	 * @return the number of neighbors
+	 */
+	public int size(int movie) {
+		return offsets[movie + 1] - offsets[movie];
+	}
+
+	/**
+	 * Returns a neighbor of a movie
+	 *
+	 * @param movie the movie id
+	 * @param rank  0 for the most similar neighbor, up to size(movie)-1
+	 * @return the neighbor's movie id
+	 */
+	public int neighbor(int movie, int rank) {
+		return neighbors[offsets[movie] + rank];
+	}
+
+	/**
+	 * Returns the score of a neighbor of a movie
+	 *
+	 * @param movie the movie id
+	 * @param rank  0 for the most similar neighbor, up to size(movie)-1
+	 * @return the similarity of the movie and its neighbor
+	 */
+	public float score(int movie, int rank) {
+		return scores[offsets[movie] + rank];
+	}
+
+	/**
+	 * Returns the neighbors of a movie, best first
+	 *
+	 * @param movie the movie id
+	 * @return pairs of score and neighbor id
+	 * @throws IllegalArgumentException if the movie is not in the index
+	 */
+	public List<Pair<Float, Integer>> neighbors(int movie) {
+		if (movie < 0 || movie >= numMovies()) {
+			throw new IllegalArgumentException("movie " + movie + " is not in the index, cannot neighbors()");
+		}
+		List<Pair<Float, Integer>> list = new ArrayList<>(size(movie));
+		for (int i = offsets[movie]; i < offsets[movie + 1]; i++) {
+			list.add(new Pair<Float, Integer>(scores[i], neighbors[i]));
+		}
+		return list;
+	}
+
+	/*********************************************************
+	 * Primitive access for saving the index.
+	 * None of the returned arrays may be modified.
+	 *********************************************************/
+
+	/**
+	 * @return the start of each movie's neighbors, of length numMovies()+1
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * @return the neighbors of every movie, best first
+	 */
+	public int[] getNeighbors() {
+		return neighbors;
+	}
+
+	/**
+	 * @return the score of each neighbor
+	 */
+	public float[] getScores() {
+		return scores;
+	}
+
+	/**
+	 * One worker's scratch space: accumulators for a block of product columns, a cursor
+	 * into each reviewer's movie list, and the heap of the current row's best neighbors
+	 */
+	private static class Accumulator {
+		final RatingMatrix ratings;
+		final Similarity similarity;
+		final double[] centers, norms;
+		final int k, minShared;
+		final int[] counts = new int[BLOCK];
+		final float[] dots = new float[BLOCK];
+		final int[] touched = new int[BLOCK];
+		final int[] cursor;
+		final int[] heapIds;
+		final float[] heapScores;
+		int heapSize;
+
+		Accumulator(RatingMatrix ratings, Similarity similarity, double[] centers, double[] norms, int k, int minShared,
+				int cursors) {
+			this.ratings = ratings;
+			this.similarity = similarity;
+			this.centers = centers;
+			this.norms = norms;
+			this.k = k;
+			this.minShared = minShared;
+			cursor = new int[cursors];
+			heapIds = new int[k];
+			heapScores = new float[k];
+		}
+
+		/**
+		 * Computes row m of the product block by block and leaves its k best columns in the
+		 * heap arrays, best first
+		 */
+		void row(int m) {
+			int[] movieOffsets = ratings.getMovieOffsets(), movieUsers = ratings.getMovieUsers();
+			int[] userOffsets = ratings.getUserOffsets(), userMovies = ratings.getUserMovies();
+			byte[] movieRatings = ratings.getMovieRatings(), userRatings = ratings.getUserRatings();
+			int first = movieOffsets[m], numUsers = movieOffsets[m + 1] - first;
+			for (int j = 0; j < numUsers; j++) {
+				cursor[j] = userOffsets[movieUsers[first + j]];
+			}
+			heapSize = 0;
+			int numMovies = ratings.numMovies();
+			for (int blockStart = 0; blockStart < numMovies; blockStart += BLOCK) {
+				int blockEnd = Math.min(numMovies, blockStart + BLOCK);
+				int numTouched = 0;
+				for (int j = 0; j < numUsers; j++) {
+					int reviewer = movieUsers[first + j];
+					float a = (float) (movieRatings[first + j] - centers[m]);
+					int q = cursor[j], end = userOffsets[reviewer + 1];
+					for (; q < end && userMovies[q] < blockEnd; q++) {
+						int other = userMovies[q];
+						if (other == m) {
+							continue;
+						}
+						int column = other - blockStart;
+						if (counts[column]++ == 0) {
+							touched[numTouched++] = column;
+						}
+						dots[column] += a * (float) (userRatings[q] - centers[other]);
+					}
+					cursor[j] = q;
+				}
+				for (int i = 0; i < numTouched; i++) {
+					int column = touched[i], other = column + blockStart;
+					if (counts[column] >= minShared) {
+						double score = similarity.of(counts[column], numUsers, ratings.movieCount(other), dots[column],
+								norms[m], norms[other]);
+						if (score > 0) {
+							offer((float) score, other);
+						}
+					}
+					counts[column] = 0;
+					dots[column] = 0;
+				}
+			}
+			drain();
+		}
+
+		/**
+		 * Adds a candidate to the bounded heap, whose root is the worst neighbor kept
+		 */
+		void offer(float score, int id) {
+			if (heapSize < k) {
+				int i = heapSize++;
+				while (i > 0 && worse(score, id, heapScores[(i - 1) / 2], heapIds[(i - 1) / 2])) {
+					heapScores[i] = heapScores[(i - 1) / 2];
+					heapIds[i] = heapIds[(i - 1) / 2];
+					i = (i - 1) / 2;
+				}
+				heapScores[i] = score;
+				heapIds[i] = id;
+			} else if (worse(heapScores[0], heapIds[0], score, id)) {
+				siftDown(0, heapSize, score, id);
+			}
+		}
+
+		/**
+		 * Places a candidate at position i of the heap and moves it down to its place
+		 */
+		void siftDown(int i, int size, float score, int id) {
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && worse(heapScores[child + 1], heapIds[child + 1], heapScores[child], heapIds[child])) {
+					child++;
+				}
+				if (!worse(heapScores[child], heapIds[child], score, id)) {
+					break;
+				}
+				heapScores[i] = heapScores[child];
+				heapIds[i] = heapIds[child];
+				i = child;
+			}
+			heapScores[i] = score;
+			heapIds[i] = id;
+		}
+
+		/**
+		 * Orders neighbors by score, breaking ties in favor of the smaller id
+		 */
+		static boolean worse(float scoreA, int idA, float scoreB, int idB) {
+			return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+		}
+
+		/**
+		 * Empties the heap from the worst neighbor up so that the arrays end up best first
+		 */
+		void drain() {
+			for (int size = heapSize; size > 1; size--) {
+				float score = heapScores[size - 1];
+				int id = heapIds[size - 1];
+				heapScores[size - 1] = heapScores[0];
+				heapIds[size - 1] = heapIds[0];
+				siftDown(0, size - 1, score, id);
+			}
+		}
+
+		int[] heapNeighbors() {
+			int[] ids = new int[heapSize];
+			System.arraycopy(heapIds, 0, ids, 0, heapSize);
+			return ids;
+		}
+
+		float[] heapScores() {
+			float[] copy = new float[heapSize];
+			System.arraycopy(heapScores, 0, copy, 0, heapSize);
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import data.TagIndex;
+import util.Parallel;
+
+/**
+ * Builds a graph in which two movies are adjacent when reviewers gave them enough of the
+ * same tags. It works like {@link CoRatingGraphBuilder} with tags in place of reviewers:
+ * the row of a movie is found by walking the movie lists of its tags in the
+ * {@link TagIndex} and counting how often every other movie shows up, so the work is
+ * proportional to the number of pairs of movies that share a tag. Rows are computed in
+ * parallel, each worker with its own scratch arrays, and laid out directly in compressed
+ * sparse row form.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class TagGraphBuilder {
+	/** The number of shared tags needed for an edge unless another is given */
+	public static final int DEFAULT_THRESHOLD = 1;
+
+	private TagGraphBuilder() {
+	}
+
+	/**
+	 * Builds the tag-overlap graph. Every movie of the index becomes a vertex and there is
+	 * an edge between u and v whenever they share at least <code>threshold</code> distinct
+	 * tags.
+	 *
+	 * @param tags        the tags of the movies
+	 * @param threshold   the number of shared tags needed for an edge
+	 * @param parallelism the number of worker threads, or 0 to use every processor
+	 * @return the tag-overlap graph
+	 * @throws IllegalArgumentException if the threshold is less than 1
+	 */
+	public static CsrGraph build(TagIndex tags, int threshold, int parallelism) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be at least 1, cannot build()");
+		}
+		int numMovies = tags.numMovies();
+		int[] movieOffsets = tags.getMovieOffsets(), movieTags = tags.getMovieTags();
+		int[] tagOffsets = tags.getTagOffsets(), tagMovies = tags.getTagMovies();
+		int[][] rows = new int[numMovies][];
+		// scratch of each worker, kept for all of its movies; a row leaves counts all zero again
+		ThreadLocal<int[]> countScratch = ThreadLocal.withInitial(() -> new int[numMovies]);
+		ThreadLocal<int[]> touchedScratch = ThreadLocal.withInitial(() -> new int[numMovies]);
+		ForkJoinPool pool = Parallel.newPool(parallelism);
+		try {
+			Parallel.forRange(pool, 0, numMovies, Parallel.grain(numMovies, pool.getParallelism()), (from, to) -> {
+				int[] counts = countScratch.get();
+				int[] touched = touchedScratch.get();
+				for (int movie = from; movie < to; movie++) {
+					int numTouched = 0;
+					for (int i = movieOffsets[movie]; i < movieOffsets[movie + 1]; i++) {
+						int tag = movieTags[i];
+						for (int j = tagOffsets[tag]; j < tagOffsets[tag + 1]; j++) {
+							int other = tagMovies[j];
+							if (other != movie && counts[other]++ == 0) {
+								touched[numTouched++] = other;
+							}
+						}
+					}
+					int size = 0;
+					for (int k = 0; k < numTouched; k++) {
+						int other = touched[k];
+						if (counts[other] >= threshold) {
+							touched[size++] = other;
+						}
+						counts[other] = 0;
+					}
+					rows[movie] = Arrays.copyOf(touched, size);
+				}
+			});
+		} finally {
+			pool.shutdown();
+			countScratch.remove(); // in case the calling thread ran a piece itself
+			touchedScratch.remove();
+		}
+
+		int[] offsets = new int[numMovies + 1];
+		for (int movie = 0; movie < numMovies; movie++) {
+			offsets[movie + 1] = offsets[movie] + rows[movie].length;
+		}
+		int[] targets = new int[offsets[numMovies]];
+		for (int movie = 0; movie < numMovies; movie++) {
+			System.arraycopy(rows[movie], 0, targets, offsets[movie], rows[movie].length);
+		}
+		return new CsrGraph(offsets, targets);
+	}
+}
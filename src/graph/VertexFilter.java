@@ -0,0 +1,19 @@
+package graph;
+
+/**
+ * Decides which vertices a search may pass through, such as the movies of some genres or
+ * the communities on a route. {@link PathQuery#shortestPath(int, int, VertexFilter)} never
+ * enters a vertex the filter rejects.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public interface VertexFilter {
+	/**
+	 * Returns whether a vertex passes the filter
+	 *
+	 * @param v a vertex
+	 * @return true if searches may pass through v
+	 */
+	boolean accepts(int v);
+}
@@ -0,0 +1,129 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * An immutable graph in compressed sparse row form with a float weight on every edge.
+ * weights[i] is the weight of the edge to targets[i], so the weights of the neighbors of
+ * v are weights[offsets[v] ... offsets[v+1]-1], kept in the same order as the sorted
+ * neighbors.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class WeightedGraph extends CsrGraph {
+	final float[] weights;
+
+	/**
+	 * Creates a weighted graph over the vertices 0 ... offsets.length-2. Each neighbor range
+	 * is sorted in place together with its weights.
+	 *
+	 * @param offsets start of each vertex's neighbors, with offsets[n] == targets.length
+	 * @param targets the neighbors of every vertex, grouped by vertex
+	 * @param weights the weight of each edge in targets
+	 * @throws IllegalArgumentException if the arrays are not a valid adjacency structure or
+	 *                                  a weight is negative or NaN
+	 */
+	public WeightedGraph(int[] offsets, int[] targets, float[] weights) {
+		this(offsets, targets, weights, null);
+	}
+
+	/**
+	 * Creates a weighted graph from adjacency arrays and the set of ids that are vertices
+	 *
+	 * @param offsets start of each vertex's neighbors
+	 * @param targets the neighbors of every vertex, grouped by vertex
+	 * @param weights the weight of each edge in targets
+	 * @param present the ids that are vertices, or null if all of them are
+	 * @throws IllegalArgumentException if the arrays are not a valid adjacency structure or
+	 *                                  a weight is negative or NaN
+	 */
+	public WeightedGraph(int[] offsets, int[] targets, float[] weights, BitSet present) {
+		super(offsets, sortRanges(offsets, targets, weights), present);
+		this.weights = weights;
+	}
+
+	/**
+	 * Sorts each neighbor range by target, moving the weights along, before the superclass
+	 * sorts the targets on its own
+	 */
+	private static int[] sortRanges(int[] offsets, int[] targets, float[] weights) {
+		if (weights.length != targets.length) {
+			throw new IllegalArgumentException("one weight per edge is required, cannot create WeightedGraph");
+		}
+		for (float w : weights) {
+			if (!(w >= 0)) {
+				throw new IllegalArgumentException("weight " + w + " is negative, cannot create WeightedGraph");
+			}
+		}
+		long[] keys = new long[0];
+		for (int v = 0; v + 1 < offsets.length; v++) {
+			int from = offsets[v], length = offsets[v + 1] - from;
+			if (from < 0 || length < 0 || from + length > targets.length) {
+				break; // the superclass reports the bad offsets
+			}
+			if (keys.length < length) {
+				keys = new long[Math.max(length, 2 * keys.length)];
+			}
+			for (int i = 0; i < length; i++) {
+				// non-negative float bits order like the floats, so the pair sorts by target
+				keys[i] = (long) targets[from + i] << 32 | (Float.floatToIntBits(weights[from + i]) & 0xffffffffL);
+			}
+			Arrays.sort(keys, 0, length);
+			for (int i = 0; i < length; i++) {
+				targets[from + i] = (int) (keys[i] >> 32);
+				weights[from + i] = Float.intBitsToFloat((int) keys[i]);
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * Returns the weight of the edge from v to u
+	 *
+	 * @param v A vertex in the graph
+	 * @param u A vertex in the graph
+	 * @return the weight of the edge, or positive infinity if there is no such edge
+	 * @throws IllegalArgumentException if either vertex does not occur in the graph
+	 */
+	public float weight(int v, int u) {
+		if (!hasVertex(v) || !hasVertex(u)) {
+			throw new IllegalArgumentException("vertex is not contained in Graph, cannot weight()");
+		}
+		int i = Arrays.binarySearch(targets, offsets[v], offsets[v + 1], u);
+		return i < 0 ? Float.POSITIVE_INFINITY : weights[i];
+	}
+
+	/**
+	 * Returns the weights array, parallel to {@link #getTargets()}. The array must not be
+	 * modified.
+	 *
+	 * @return the weights array
+	 */
+	public float[] getWeights() {
+		return weights;
+	}
+
+	/**
+	 * Returns a string representation of the graph, with the weight of each edge after
+	 * its target.
+	 *
+	 * @return A string representation of the graph
+	 */
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder();
+		for (int v = 0; v < vertexBound(); v++) {
+			if (!hasVertex(v)) {
+				continue;
+			}
+			str.append(v).append("-> ");
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				str.append(targets[i]).append(':').append(weights[i]).append(' ');
+			}
+			str.append('\n');
+		}
+		return str.toString();
+	}
+}
@@ -0,0 +1,409 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Writes synthetic movies.csv, ratings.csv and tags.csv files in the format read by
+ * {@link DataLoader}, for testing at sizes beyond the bundled data set.
+ *
+ * Movie popularity and reviewer activity both follow Zipf distributions, so a few movies
+ * collect most of the ratings and a few reviewers write most of them, as in the real
+ * MovieLens data. A rating is the sum of a global mean, a per-movie quality, a per-reviewer
+ * bias and noise, rounded to whole stars most of the time and to half stars otherwise,
+ * which gives a distribution close to the bundled ratings. No reviewer rates a movie twice.
+ *
+ * The output depends only on the parameters and the seed. Ratings are written one reviewer
+ * at a time, so memory grows with the number of movies and reviewers but not with the
+ * number of ratings.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class DataGenerator {
+	private static final String[] GENRES = { "Action", "Adventure", "Animation", "Children", "Comedy", "Crime",
+			"Documentary", "Drama", "Fantasy", "Film-Noir", "Horror", "IMAX", "Musical", "Mystery", "Romance",
+			"Sci-Fi", "Thriller", "War", "Western" };
+	// How often each genre occurs in the bundled movies, in the order of GENRES
+	private static final double[] GENRE_WEIGHTS = { 280, 233, 66, 87, 399, 173, 6, 455, 110, 14, 63, 35, 47, 86, 202,
+			160, 260, 52, 21 };
+	private static final String[] WORDS = { "Love", "Night", "Man", "Star", "Dark", "Return", "City", "Last", "King",
+			"Blue", "House", "Dead", "Story", "Life", "War", "World", "Girl", "Time", "Day", "Wild", "Secret", "Big",
+			"Lost", "Heart", "Moon", "River", "Ghost", "Dream", "Street", "Game", "Fire", "Road", "Summer", "Little",
+			"Black", "Blood", "Island", "Money", "Power", "Hunter" };
+	private static final int TAG_VOCABULARY = 2000;
+	private static final long FIRST_TIMESTAMP = 820454400L; // 1996-01-01
+	private static final long LAST_TIMESTAMP = 1483228800L; // 2017-01-01
+
+	private final int numMovies, numUsers;
+	private final long numRatings, numTags, seed;
+	private double movieSkew = 1.0, userSkew = 0.8;
+
+	/**
+	 * Creates a generator
+	 *
+	 * @param numMovies  the number of movies
+	 * @param numUsers   the number of reviewers
+	 * @param numRatings the number of ratings
+	 * @param numTags    the number of tags
+	 * @param seed       the seed of the random numbers
+	 * @throws IllegalArgumentException if a count is negative, there are no movies or
+	 *                                  reviewers, or there are more ratings than
+	 *                                  (reviewer, movie) pairs
+	 */
+	public DataGenerator(int numMovies, int numUsers, long numRatings, long numTags, long seed) {
+		if (numMovies < 1 || numUsers < 1 || numRatings < 0 || numTags < 0) {
+			throw new IllegalArgumentException("counts must be positive, cannot create DataGenerator");
+		}
+		if (numRatings > (long) numMovies * numUsers) {
+			throw new IllegalArgumentException(numRatings + " ratings do not fit " + numUsers + " reviewers and "
+					+ numMovies + " movies, cannot create DataGenerator");
+		}
+		this.numMovies = numMovies;
+		this.numUsers = numUsers;
+		this.numRatings = numRatings;
+		this.numTags = numTags;
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the Zipf exponent of movie popularity; 0 makes every movie equally popular
+	 *
+	 * @param skew the exponent, 1.0 by default
+	 */
+	public void setMovieSkew(double skew) {
+		movieSkew = skew;
+	}
+
+	/**
+	 * Sets the Zipf exponent of reviewer activity; 0 gives every reviewer the same number
+	 * of ratings
+	 *
+	 * @param skew the exponent, 0.8 by default
+	 */
+	public void setUserSkew(double skew) {
+		userSkew = skew;
+	}
+
+	/**
+	 * Writes movies.csv, ratings.csv and tags.csv into a directory
+	 *
+	 * @param directory the directory, which is created if needed
+	 * @throws IOException if a file cannot be written
+	 */
+	public void writeAll(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		writeMovies(directory.resolve("movies.csv"));
+		writeRatings(directory.resolve("ratings.csv"));
+		writeTags(directory.resolve("tags.csv"));
+	}
+
+	/**
+	 * Writes the movies file: movieId,title,genres with the year in the title
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeMovies(Path file) throws IOException {
+		Random random = new Random(seed);
+		ZipfSampler genres = new ZipfSampler(GENRE_WEIGHTS);
+		StringBuilder line = new StringBuilder();
+		try (Writer out = open(file)) {
+			out.write("movieId,title,genres\n");
+			for (int movie = 1; movie <= numMovies; movie++) {
+				line.setLength(0);
+				line.append(movie).append(',');
+				int words = 1 + random.nextInt(3);
+				for (int w = 0; w < words; w++) {
+					line.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+				}
+				line.append("(").append(1920 + random.nextInt(97)).append("),");
+				long chosen = 0;
+				for (int g = 1 + random.nextInt(3); g > 0; g--) {
+					chosen |= 1L << genres.sample(random);
+				}
+				boolean first = true;
+				for (int g = 0; g < GENRES.length; g++) {
+					if ((chosen & 1L << g) != 0) {
+						line.append(first ? "" : "|").append(GENRES[g]);
+						first = false;
+					}
+				}
+				out.append(line).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * Writes the ratings file: userId,movieId,rating,timestamp sorted by reviewer and then
+	 * by movie, like the MovieLens files
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeRatings(Path file) throws IOException {
+		Random random = new Random(seed + 1);
+		int[] popularMovies = permutation(numMovies, random); // popularity rank -> movie id - 1
+		ZipfSampler movies = new ZipfSampler(numMovies, movieSkew);
+		int[] counts = ratingsPerUser(random);
+		float[] quality = new float[numMovies];
+		for (int m = 0; m < numMovies; m++) {
+			quality[m] = (float) (0.45 * random.nextGaussian());
+		}
+
+		BitSet rated = new BitSet(numMovies);
+		int[] chosen = new int[0];
+		StringBuilder line = new StringBuilder();
+		try (Writer out = open(file)) {
+			out.write("userId,movieId,rating,timestamp\n");
+			for (int user = 0; user < numUsers; user++) {
+				int count = counts[user];
+				if (count == 0) {
+					continue;
+				}
+				if (chosen.length < count) {
+					chosen = new int[Math.max(count, 2 * chosen.length)];
+				}
+				for (int i = 0; i < count; i++) {
+					int movie = -1;
+					for (int attempt = 0; attempt < 64 && movie < 0; attempt++) {
+						int candidate = popularMovies[movies.sample(random)];
+						if (!rated.get(candidate)) {
+							movie = candidate;
+						}
+					}
+					if (movie < 0) { // the popular movies are used up, take the next unrated one
+						movie = rated.nextClearBit(random.nextInt(numMovies));
+						if (movie >= numMovies) {
+							movie = rated.nextClearBit(0);
+						}
+					}
+					rated.set(movie);
+					chosen[i] = movie;
+				}
+				Arrays.sort(chosen, 0, count);
+
+				double bias = 0.35 * random.nextGaussian();
+				long start = FIRST_TIMESTAMP + (long) (random.nextDouble() * (LAST_TIMESTAMP - FIRST_TIMESTAMP));
+				long span = Math.min(LAST_TIMESTAMP - start, 86400L * (1 + random.nextInt(1000)));
+				for (int i = 0; i < count; i++) {
+					int movie = chosen[i];
+					rated.clear(movie);
+					double score = 3.55 + quality[movie] + bias + 0.85 * random.nextGaussian();
+					int halfStars = (int) Math.round(score * 2);
+					if (halfStars % 2 != 0 && random.nextDouble() < 0.6) {
+						halfStars += random.nextBoolean() ? 1 : -1; // most reviewers give whole stars
+					}
+					halfStars = Math.max(1, Math.min(10, halfStars));
+					line.setLength(0);
+					line.append(user + 1).append(',').append(movie + 1).append(',').append(halfStars / 2)
+							.append(halfStars % 2 == 0 ? ".0," : ".5,")
+							.append(start + (long) (random.nextDouble() * span)).append('\n');
+					out.append(line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the tags file: userId,movieId,tag,timestamp. Tags are drawn from a Zipf
+	 * distributed vocabulary and placed on movies by popularity.
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeTags(Path file) throws IOException {
+		Random random = new Random(seed + 2);
+		int[] popularMovies = permutation(numMovies, random);
+		ZipfSampler movies = new ZipfSampler(numMovies, movieSkew);
+		ZipfSampler tags = new ZipfSampler(TAG_VOCABULARY, 1.0);
+		StringBuilder line = new StringBuilder();
+		try (Writer out = open(file)) {
+			out.write("userId,movieId,tag,timestamp\n");
+			for (long t = 0; t < numTags; t++) {
+				int tag = tags.sample(random);
+				line.setLength(0);
+				line.append(1 + random.nextInt(numUsers)).append(',').append(popularMovies[movies.sample(random)] + 1)
+						.append(',').append(WORDS[tag % WORDS.length].toLowerCase());
+				if (tag >= WORDS.length) {
+					line.append(' ').append(tag / WORDS.length);
+				}
+				line.append(',').append(FIRST_TIMESTAMP + (long) (random.nextDouble() * (LAST_TIMESTAMP - FIRST_TIMESTAMP)))
+						.append('\n');
+				out.append(line);
+			}
+		}
+	}
+
+	/**
+	 * Splits the ratings among the reviewers in proportion to Zipf weights, giving every
+	 * reviewer at least one rating when there are enough and none more than numMovies
+	 *
+	 * @return the number of ratings of each reviewer
+	 */
+	private int[] ratingsPerUser(Random random) {
+		int[] rank = permutation(numUsers, random); // reviewer -> activity rank
+		double total = 0;
+		for (int r = 1; r <= numUsers; r++) {
+			total += Math.pow(r, -userSkew);
+		}
+		int[] counts = new int[numUsers];
+		long assigned = 0;
+		boolean floor = numRatings >= numUsers;
+		for (int u = 0; u < numUsers; u++) {
+			long share = (long) (numRatings * Math.pow(rank[u] + 1, -userSkew) / total);
+			counts[u] = (int) Math.min(numMovies, Math.max(floor ? 1 : 0, share));
+			assigned += counts[u];
+		}
+		// hand out what rounding left over, most active reviewers first, or take back the
+		// ratings the floor of one added
+		int[] byRank = new int[numUsers];
+		for (int u = 0; u < numUsers; u++) {
+			byRank[rank[u]] = u;
+		}
+		for (int i = 0; assigned < numRatings; i = (i + 1) % numUsers) {
+			int u = byRank[i];
+			if (counts[u] < numMovies) {
+				counts[u]++;
+				assigned++;
+			}
+		}
+		for (int i = numUsers - 1; assigned > numRatings; i = (i + numUsers - 1) % numUsers) {
+			int u = byRank[i];
+			if (counts[u] > 1) {
+				counts[u]--;
+				assigned--;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns a random permutation of 0 ... n-1
+	 */
+	private static int[] permutation(int n, Random random) {
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		return order;
+	}
+
+	private static Writer open(Path file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/**
+	 * Draws ranks from a discrete distribution by binary search of its cumulative
+	 * distribution function
+	 */
+	private static class ZipfSampler {
+		private final double[] cdf;
+
+		/**
+		 * Ranks 0 ... n-1 with weights 1/(rank+1)^skew
+		 */
+		ZipfSampler(int n, double skew) {
+			this(zipfWeights(n, skew));
+		}
+
+		ZipfSampler(double[] weights) {
+			cdf = new double[weights.length];
+			double sum = 0;
+			for (int i = 0; i < weights.length; i++) {
+				sum += weights[i];
+				cdf[i] = sum;
+			}
+			for (int i = 0; i < cdf.length; i++) {
+				cdf[i] /= sum;
+			}
+		}
+
+		private static double[] zipfWeights(int n, double skew) {
+			double[] weights = new double[n];
+			for (int i = 0; i < n; i++) {
+				weights[i] = Math.pow(i + 1, -skew);
+			}
+			return weights;
+		}
+
+		int sample(Random random) {
+			int i = Arrays.binarySearch(cdf, random.nextDouble());
+			i = i < 0 ? -i - 1 : i + 1; // the first entry above the draw
+			return Math.min(i, cdf.length - 1);
+		}
+	}
+
+	/**
+	 * Generates a data set from the command line
+	 *
+	 * @param args the options and the output directory
+	 */
+	public static void main(String[] args) {
+		int movies = 1000, users = 700;
+		long ratings = 100000, tags = 1300, seed = 42;
+		double movieSkew = 1.0, userSkew = 0.8;
+		String directory = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--movies":
+					movies = Integer.parseInt(args[++i]);
+					break;
+				case "--users":
+					users = Integer.parseInt(args[++i]);
+					break;
+				case "--ratings":
+					ratings = Long.parseLong(args[++i]);
+					break;
+				case "--tags":
+					tags = Long.parseLong(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--movie-skew":
+					movieSkew = Double.parseDouble(args[++i]);
+					break;
+				case "--user-skew":
+					userSkew = Double.parseDouble(args[++i]);
+					break;
+				default:
+					if (directory != null) {
+						throw new IllegalArgumentException("more than one output directory");
+					}
+					directory = args[i];
+				}
+			}
+			if (directory == null) {
+				throw new IllegalArgumentException("no output directory");
+			}
+			DataGenerator generator = new DataGenerator(movies, users, ratings, tags, seed);
+			generator.setMovieSkew(movieSkew);
+			generator.setUserSkew(userSkew);
+			generator.writeAll(Paths.get(directory));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java util.DataGenerator [--movies N] [--users N] [--ratings N] [--tags N] "
+					+ "[--seed N] [--movie-skew S] [--user-skew S] output_directory");
+			System.exit(-1);
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+	}
+}
@@ -3,18 +3,30 @@ package util;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import data.Genres;
 import data.Movie;
+import data.RatingMatrix;
 import data.Reviewer;
+import data.TagIndex;
 
 
 /**
@@ -22,7 +34,9 @@ import data.Reviewer;
  * the number of movies in movies.csv to change the size of the data set. Only the
  * ratings for movies in movies.csv are retained. 
  * 
- * All movie ids are renumbered to be sequential from 0...M whereas user ids are not renumbered
+ * All movie ids are renumbered to be sequential from 0...M whereas user ids are not renumbered.
+ * The ratings are stored once in a shared {@link RatingMatrix} that the movies and reviewers
+ * read from.
  * 
  * @author alchambers
  * @version 2018
@@ -32,6 +46,16 @@ public class DataLoader {
 	private Map<Integer, Movie> movies;
 	private Map<Integer, Reviewer> reviewers;	
 	private Map<Integer, Integer> renumber;
+	private int[] renumberTable; // renumberTable[external id] is the internal id or -1
+	private RatingMatrix matrix;
+	private RatingBuffer others; // ratings the matrix cannot hold, in file order
+
+	// Chunks of the ratings file smaller than this are not worth a thread of their own
+	private static final int MIN_CHUNK_BYTES = 1 << 20;
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+			1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+	// An id parsed from a mapped file is held here once it no longer fits in an int
+	private static final long TOO_LARGE = Integer.MAX_VALUE + 1L;
 
 	/**
 	 * Constructor 
@@ -54,6 +78,68 @@ public class DataLoader {
 	}
 
 
+	/**
+	 * Loads the movie title and ratings data, reading the ratings file through a memory
+	 * map. The file is split at line boundaries into chunks that are parsed in parallel
+	 * straight from the mapped bytes, without making a String per line. The loaded movies
+	 * and reviewers are the same as with {@link #loadData(String, String)}.
+	 * 
+	 * @param ratingsFilename The filename for the ratings file
+	 * @param movieFilename The filename for the movie titles file
+	 * @param parallelism The number of threads used for parsing, 0 uses every processor
+	 */
+	public void loadDataMapped(String ratingsFilename, String movieFilename, int parallelism){
+		// These files *must* be read in this order
+		readMovieTitlesFile(movieFilename);
+		readRatingsMapped(ratingsFilename, parallelism);
+	}
+
+	/**
+	 * Loads the tags reviewers gave to the movies. The tags file is read through a memory
+	 * map and split into chunks that are parsed in parallel, each chunk interning its tags
+	 * in a table of its own; the tables are then merged so that every distinct tag is kept
+	 * as one String. Tags are compared ignoring case and surrounding spaces, and tags of
+	 * movies that are not in the movie titles file are dropped.
+	 * @param tagsFilename The filename for the tags file
+	 * @param movieFilename The filename for the movie titles file
+	 * @param parallelism The number of threads used for parsing, 0 uses every processor
+	 * @return The tags of the movies
+	 * @throws IOException if a file cannot be read
+	 */
+	public TagIndex loadTags(String tagsFilename, String movieFilename, int parallelism) throws IOException {
+		prepareRenumbering(movieFilename);
+		List<TagChunk> parts = readChunks(tagsFilename, parallelism, this::parseTags);
+
+		// give every distinct tag one global id, keeping the String of the first chunk it appears in
+		Map<String, Integer> ids = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		int total = 0;
+		for(TagChunk part : parts) {
+			total += part.size;
+		}
+		int[] movieIds = new int[total], tags = new int[total];
+		int count = 0;
+		for(TagChunk part : parts) {
+			int[] global = new int[part.names.size()];
+			for(int t = 0; t < global.length; t++) {
+				String name = part.names.get(t);
+				Integer id = ids.get(name);
+				if(id == null) {
+					id = names.size();
+					ids.put(name, id);
+					names.add(name);
+				}
+				global[t] = id;
+			}
+			for(int i = 0; i < part.size; i++) {
+				movieIds[count] = part.movies[i];
+				tags[count] = global[part.tags[i]];
+				count++;
+			}
+		}
+		return TagIndex.build(movies.size(), names.toArray(new String[0]), movieIds, tags, count);
+	}
+
 	/**
 	 * Prints the list of reviewers 
 	 */
@@ -88,6 +174,13 @@ public class DataLoader {
 		return movies;
 	}
 
+	/**
+	 * Returns the matrix holding every loaded rating
+	 */
+	public RatingMatrix getRatingMatrix(){
+		return matrix;
+	}
+
 
 
 	/**************************************************************
@@ -99,6 +192,8 @@ public class DataLoader {
 	 * Reads and parses the ratings data 
 	 */
 	private void readRatings(String filename){
+		buildRenumberTable();
+		RatingBuffer ratings = new RatingBuffer();
 		try{
 			BufferedReader input = new BufferedReader(new FileReader(filename));
 			input.readLine(); //read the header line
@@ -125,19 +220,8 @@ public class DataLoader {
 				}
 
 				// Only care about the movies that were in our movie title file
-				if(renumber.containsKey(movieId)) {
-					movieId = renumber.get(movieId);
-					// A new reviewer
-					if(!reviewers.containsKey(userId)) {
-						Reviewer r = new Reviewer(userId);
-						r.addMovie(movieId, rating);
-						reviewers.put(userId, r);					
-					}				
-					// An existing reviewer
-					else {
-						reviewers.get(userId).addMovie(movieId, rating);
-					}
-					movies.get(movieId).addRating(userId, rating);
+				if(userId >= 0 && rating >= 0 && movieId >= 0 && movieId < renumberTable.length && renumberTable[movieId] >= 0) {
+					ratings.add(userId, renumberTable[movieId], rating);
 				}
 				line = input.readLine();
 			}
@@ -147,6 +231,449 @@ public class DataLoader {
 			System.out.println(System.getProperty("user.dir"));
 			System.out.println(e);
 		}
+		buildModel(new RatingBuffer[] { ratings });
+	}
+
+	/**
+	 * Stores the parsed ratings in a shared rating matrix and attaches every movie and
+	 * reviewer to it. If a reviewer rated a movie more than once, the last rating in whole
+	 * half stars counts; the ratings that are not count only when there is no such rating,
+	 * and then the last of them does.
+	 * @param parts The ratings, in file order, with movie ids already renumbered
+	 */
+	private void buildModel(RatingBuffer[] parts){
+		int total = 0;
+		for(RatingBuffer part : parts) {
+			total += part.size();
+		}
+		int[] users = new int[total];
+		int[] movieIds = new int[total];
+		byte[] halfStars = new byte[total];
+		int count = 0;
+		RatingBuffer others = new RatingBuffer(16);
+		for(RatingBuffer part : parts) {
+			for(int i = 0; i < part.size(); i++) {
+				if(RatingMatrix.isHalfStars(part.rating(i))) {
+					users[count] = part.userId(i);
+					movieIds[count] = part.movieId(i);
+					halfStars[count] = RatingMatrix.toHalfStars(part.rating(i));
+					count++;
+				} else {
+					others.add(part.userId(i), part.movieId(i), part.rating(i));
+				}
+			}
+		}
+		attachModel(RatingMatrix.build(movies.size(), users, movieIds, halfStars, count), others);
+	}
+
+	/**
+	 * Attaches every movie to the rating matrix, creates the reviewers and adds the
+	 * ratings the matrix cannot hold
+	 * @param matrix The rating matrix
+	 * @param others Ratings that are not whole half stars, in file order
+	 */
+	private void attachModel(RatingMatrix matrix, RatingBuffer others){
+		this.matrix = matrix;
+		this.others = others;
+		for(Movie movie : movies.values()) {
+			movie.setRatingMatrix(matrix);
+		}
+		for(int r = 0; r < matrix.numUsers(); r++) {
+			int userId = matrix.userId(r);
+			reviewers.put(userId, new Reviewer(userId, matrix));
+		}
+		for(int i = 0; i < others.size(); i++) {
+			int userId = others.userId(i), movieId = others.movieId(i);
+			if(matrix.getRating(movieId, userId) >= 0) {
+				continue; // the pair already has a rating in half stars
+			}
+			Reviewer r = reviewers.get(userId);
+			if(r == null) {
+				r = new Reviewer(userId, matrix);
+				reviewers.put(userId, r);
+			}
+			r.addMovie(movieId, others.rating(i));
+			movies.get(movieId).addRating(userId, others.rating(i));
+		}
+	}
+
+	/**
+	 * Replaces the loaded data with movies and ratings read back from a {@link Snapshot}
+	 * @param loaded The movies, with their renumbered ids
+	 * @param matrix The rating matrix
+	 * @param others Ratings that are not whole half stars
+	 */
+	void restoreModel(List<Movie> loaded, RatingMatrix matrix, RatingBuffer others){
+		movies.clear();
+		reviewers.clear();
+		renumber.clear();
+		renumberTable = null;
+		for(Movie movie : loaded) {
+			movies.put(movie.getMovieId(), movie);
+		}
+		attachModel(matrix, others);
+	}
+
+	/**
+	 * Returns the ratings that are not stored in the matrix
+	 */
+	RatingBuffer getOtherRatings(){
+		return others;
+	}
+
+	/**
+	 * Makes sure that ratings parsed from now on can be renumbered. Data restored from a
+	 * snapshot does not keep the external movie ids, so they are read again from the first
+	 * column of the movie titles file, whose line order gives the internal ids.
+	 * @param movieFilename The filename for the movie titles file
+	 */
+	void prepareRenumbering(String movieFilename) throws IOException {
+		if(renumber.isEmpty()) {
+			try(BufferedReader input = new BufferedReader(new FileReader(movieFilename))) {
+				input.readLine(); // read the header row
+				int id = 0;
+				for(String line = input.readLine(); line != null; line = input.readLine()) {
+					int movieId = -1;
+					try {
+						movieId = Integer.parseInt(line.substring(0, line.indexOf(",")));
+					}
+					catch(NumberFormatException | StringIndexOutOfBoundsException e){
+						// the loader numbers the line anyway
+					}
+					renumber.put(movieId, id++);
+				}
+			}
+		}
+		if(renumberTable == null) {
+			buildRenumberTable();
+		}
+	}
+
+	/**
+	 * Reads the ratings file through a memory map, parsing chunks of it in parallel
+	 */
+	private void readRatingsMapped(String filename, int parallelism){
+		buildRenumberTable();
+		try {
+			List<RatingBuffer> parts = readChunks(filename, parallelism, this::parseRatings);
+			// the chunks are passed in file order so a repeated rating keeps its last value
+			buildModel(parts.toArray(new RatingBuffer[0]));
+		}
+		catch(IOException e){
+			System.out.println(System.getProperty("user.dir"));
+			System.out.println(e);
+		}
+	}
+
+	/**
+	 * Reads a file with a header line through memory maps. The file is split at line
+	 * boundaries into a few chunks per worker, none larger than a mapping can hold, and the
+	 * chunks are mapped and parsed in parallel.
+	 * @param filename The file to read
+	 * @param parallelism The number of threads used for parsing, 0 uses every processor
+	 * @param parser Parses the bytes of the whole lines of one chunk
+	 * @return What the parser made of each chunk, in file order
+	 * @throws IOException if the file cannot be read
+	 */
+	private static <T> List<T> readChunks(String filename, int parallelism, Function<ByteBuffer, T> parser) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)){
+			long size = channel.size();
+			long start = nextLine(channel, 0); // skip the header line
+			int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+			long chunks = Math.max(1, Math.min(workers * 4L, (size - start) / MIN_CHUNK_BYTES));
+			chunks = Math.max(chunks, (size - start) / (Integer.MAX_VALUE / 2) + 1); // a mapping holds at most 2GB
+			long[] bounds = new long[(int) chunks + 1];
+			bounds[0] = start;
+			for(int i = 1; i < chunks; i++) {
+				bounds[i] = Math.max(bounds[i - 1], nextLine(channel, start + (size - start) * i / chunks));
+			}
+			bounds[(int) chunks] = size;
+
+			List<T> parts = new ArrayList<>(Collections.<T>nCopies((int) chunks, null));
+			IOException[] failure = new IOException[1];
+			ForkJoinPool pool = Parallel.newPool(parallelism);
+			try {
+				Parallel.forRange(pool, 0, parts.size(), 1, (from, to) -> {
+					for(int i = from; i < to; i++) {
+						try {
+							parts.set(i, parser.apply(channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i])));
+						}
+						catch(IOException e) {
+							failure[0] = e;
+						}
+					}
+				});
+			} finally {
+				pool.shutdown();
+			}
+			if(failure[0] != null) {
+				throw failure[0];
+			}
+			return parts;
+		}
+	}
+
+	/**
+	 * Parses the lines of one chunk of the ratings file. The format of each line is
+	 * userId, movieId, rating, timestamp. Ratings for movies that are not in the movie
+	 * titles file are dropped here and the movie ids of the rest are renumbered.
+	 * @param buffer The bytes of whole lines of the ratings file
+	 * @return The ratings in the chunk
+	 */
+	RatingBuffer parseRatings(ByteBuffer buffer){
+		RatingBuffer ratings = new RatingBuffer(buffer.limit() / 24);
+		int pos = 0, end = buffer.limit();
+		while(pos < end) {
+			int lineStart = pos;
+			int digits = 0, scale = -1;
+			long movieId = 0, mantissa = 0;
+			byte b = 0;
+
+			// userId
+			int fieldEnd = digitsEnd(buffer, pos, end);
+			long userId = parseId(buffer, pos, fieldEnd);
+			boolean valid = fieldEnd > pos && fieldEnd < end && buffer.get(fieldEnd) == ',' && userId < TOO_LARGE;
+			pos = fieldEnd + 1;
+			// movieId
+			if(valid) {
+				fieldEnd = digitsEnd(buffer, pos, end);
+				movieId = parseId(buffer, pos, fieldEnd);
+				valid = fieldEnd > pos && fieldEnd < end && buffer.get(fieldEnd) == ',' && movieId < TOO_LARGE;
+				pos = fieldEnd + 1;
+			}
+			// rating, kept as a whole number of units of 10^-scale
+			while(valid && pos < end) {
+				b = buffer.get(pos);
+				if(b >= '0' && b <= '9') {
+					mantissa = mantissa * 10 + (b - '0');
+					digits++;
+					if(scale >= 0) {
+						scale++;
+					}
+				} else if(b == '.' && scale < 0) {
+					scale = 0;
+				} else {
+					break;
+				}
+				pos++;
+			}
+			valid = valid && digits > 0 && digits <= 15 && (pos == end || b == ',' || b == '\n' || b == '\r');
+
+			// skip the timestamp and the end of the line; a bad line may have been read past
+			// its first field, so search for its end from the start instead
+			int lineEnd = valid ? pos : lineStart;
+			while(lineEnd < end && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			pos = lineEnd + 1;
+
+			if(!valid) {
+				String text = line(buffer, lineStart, lineEnd);
+				if(!text.isEmpty()) { // blank lines are not worth a message
+					System.out.println("Skipping malformed ratings line: " + text);
+				}
+				continue;
+			}
+			// Only care about the movies that were in our movie title file
+			if(movieId < renumberTable.length && renumberTable[(int) movieId] >= 0) {
+				// mantissa and 10^scale are exact doubles, so the quotient rounds exactly
+				// like Double.parseDouble
+				double rating = mantissa / POWERS_OF_TEN[Math.max(scale, 0)];
+				ratings.add((int) userId, renumberTable[(int) movieId], rating);
+			}
+		}
+		return ratings;
+	}
+
+	/**
+	 * Parses the lines of one chunk of the tags file. The format of each line is userId,
+	 * movieId, tag, timestamp, where the tag is quoted if it holds a comma or a quote.
+	 * @param buffer The bytes of whole lines of the tags file
+	 * @return The (movie, tag) pairs of the chunk with the tags numbered within the chunk
+	 */
+	private TagChunk parseTags(ByteBuffer buffer){
+		TagChunk chunk = new TagChunk(buffer.limit() / 32);
+		Map<String, Integer> local = new HashMap<>();
+		byte[] text = new byte[64];
+		int pos = 0, end = buffer.limit();
+		while(pos < end) {
+			int lineStart = pos, lineEnd = pos;
+			while(lineEnd < end && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			pos = lineEnd + 1;
+
+			// skip the userId, then read the movieId
+			int at = lineStart;
+			while(at < lineEnd && buffer.get(at) != ',') {
+				at++;
+			}
+			int fieldStart = ++at;
+			at = digitsEnd(buffer, fieldStart, lineEnd);
+			long movieId = parseId(buffer, fieldStart, at);
+			boolean valid = at > fieldStart && at < lineEnd && buffer.get(at) == ',' && movieId < TOO_LARGE;
+			at++;
+			byte b;
+			// the tag runs to the last comma unless it is quoted
+			int length = 0;
+			if(valid && at < lineEnd && buffer.get(at) == '"') {
+				valid = false;
+				for(at++; at < lineEnd; at++) {
+					b = buffer.get(at);
+					if(b == '"') {
+						if(at + 1 < lineEnd && buffer.get(at + 1) == '"') {
+							at++; // a doubled quote stands for one quote
+						} else {
+							valid = true;
+							break;
+						}
+					}
+					if(length == text.length) {
+						text = Arrays.copyOf(text, length * 2);
+					}
+					text[length++] = b;
+				}
+			} else if(valid) {
+				int last = lineEnd;
+				while(last > at && buffer.get(last - 1) != ',') {
+					last--;
+				}
+				valid = last > at;
+				for(; at < last - 1; at++) {
+					if(length == text.length) {
+						text = Arrays.copyOf(text, length * 2);
+					}
+					text[length++] = buffer.get(at);
+				}
+			}
+			if(!valid) {
+				String line = line(buffer, lineStart, lineEnd);
+				if(!line.isEmpty()) { // blank lines are not worth a message
+					System.out.println("Skipping malformed tags line: " + line);
+				}
+				continue;
+			}
+			// Only care about the movies that were in our movie title file
+			if(movieId < renumberTable.length && renumberTable[(int) movieId] >= 0) {
+				String name = TagIndex.normalize(new String(text, 0, length, StandardCharsets.UTF_8));
+				if(name.isEmpty()) {
+					continue;
+				}
+				Integer tag = local.get(name);
+				if(tag == null) {
+					tag = chunk.names.size();
+					local.put(name, tag);
+					chunk.names.add(name);
+				}
+				chunk.add(renumberTable[(int) movieId], tag);
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * The (movie, tag) pairs parsed from one chunk of the tags file, with the tags numbered
+	 * in the order the chunk first saw them
+	 */
+	private static class TagChunk {
+		final List<String> names = new ArrayList<>();
+		int[] movies, tags;
+		int size;
+
+		TagChunk(int capacity) {
+			movies = new int[Math.max(16, capacity)];
+			tags = new int[movies.length];
+		}
+
+		void add(int movie, int tag) {
+			if(size == movies.length) {
+				movies = Arrays.copyOf(movies, size * 2);
+				tags = Arrays.copyOf(tags, size * 2);
+			}
+			movies[size] = movie;
+			tags[size] = tag;
+			size++;
+		}
+	}
+
+	/**
+	 * Decodes one line of a buffer for an error message
+	 */
+	private static String line(ByteBuffer buffer, int from, int to){
+		byte[] bytes = new byte[to - from];
+		for(int i = from; i < to; i++) {
+			bytes[i - from] = buffer.get(i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * Finds the start of the first line beginning after the given position
+	 * @param channel The open file
+	 * @param position A position in the file
+	 * @return The position just after the next newline, or the file size if there is none
+	 */
+	private static long nextLine(FileChannel channel, long position) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate(4096);
+		long size = channel.size();
+		while(position < size) {
+			window.clear();
+			int read = channel.read(window, position);
+			if(read <= 0) {
+				break;
+			}
+			for(int i = 0; i < read; i++) {
+				if(window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the position just past the run of digits that starts at pos
+	 */
+	private static int digitsEnd(ByteBuffer buffer, int pos, int end) {
+		while(pos < end) {
+			byte b = buffer.get(pos);
+			if(b < '0' || b > '9') {
+				break;
+			}
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Parses the digits from (inclusive) to (exclusive) as an id, which is held at
+	 * TOO_LARGE once it no longer fits in an int
+	 */
+	private static long parseId(ByteBuffer buffer, int from, int to) {
+		long id = 0;
+		for(int pos = from; pos < to; pos++) {
+			id = Math.min(id * 10 + (buffer.get(pos) - '0'), TOO_LARGE);
+		}
+		return id;
+	}
+
+	/**
+	 * Builds an array from external movie ids to internal ids so that parsing threads
+	 * can renumber without touching the renumber map
+	 */
+	private void buildRenumberTable(){
+		int max = -1;
+		for(Integer external : renumber.keySet()) {
+			max = Math.max(max, external);
+		}
+		renumberTable = new int[max + 1];
+		Arrays.fill(renumberTable, -1);
+		for(Map.Entry<Integer, Integer> entry : renumber.entrySet()) {
+			if(entry.getKey() >= 0) {
+				renumberTable[entry.getKey()] = entry.getValue();
+			}
+		}
 	}
 
 	/**
@@ -186,10 +713,7 @@ public class DataLoader {
 
 				renumber.put(movieId, id); // maps from external to internal id
 				Movie m = new Movie(id, year, title);				
-				String[] genre_list = genres.split("\\|");
-				for(String genre : genre_list) {
-					m.addGenre(genre);
-				}
+				m.setGenreMask(Genres.parse(genres)); // interned into one bit per genre
 				
 				movies.put(id, m);
 				id++;
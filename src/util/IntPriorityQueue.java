@@ -0,0 +1,251 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * An indexed min priority queue over the int elements 0 ... capacity-1, implemented
+ * with a binary heap in primitive arrays. The position of every element in the heap is
+ * kept in an array, so isPresent, getPriority and changePriority never search the heap
+ * and nothing is allocated after construction. Priorities cannot be negative.
+ *
+ * The public methods mirror {@link PriorityQueue} so the two can be swapped.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class IntPriorityQueue {
+	private final int[] elements;   // heap of elements
+	private final int[] priorities; // priorities[i] is the priority of elements[i]
+	private final int[] location;   // location[e] is the heap index of e, or -1
+	private int size;
+
+	/**
+	 * Constructs an empty priority queue for the elements 0 ... capacity-1
+	 *
+	 * @param capacity one more than the largest element that can be inserted
+	 */
+	public IntPriorityQueue(int capacity) {
+		elements = new int[capacity];
+		priorities = new int[capacity];
+		location = new int[capacity];
+		Arrays.fill(location, -1);
+	}
+
+	/**
+	 * Replaces the contents of the queue with the elements 0 ... priorities.length-1, where
+	 * element e has priority priorities[e]. The heap is built bottom up in linear time.
+	 *
+	 * @param priorities the priority of each element
+	 */
+	public void heapify(int[] priorities) {
+		if (priorities.length > elements.length) {
+			throw new AssertionError("more elements than the capacity, cannot heapify()");
+		}
+		clear();
+		for (int e = 0; e < priorities.length; e++) {
+			if (priorities[e] < 0) {
+				throw new AssertionError("priority of " + e + " is negative, cannot heapify()");
+			}
+			elements[e] = e;
+			this.priorities[e] = priorities[e];
+			location[e] = e;
+		}
+		size = priorities.length;
+		for (int i = size / 2 - 1; i >= 0; i--) {
+			pushDown(i);
+		}
+	}
+
+	/**
+	 * Insert a new element into the queue with the given priority.
+	 *
+	 * @param priority priority of element to be inserted
+	 * @param element  element to be inserted
+	 */
+	public void push(int priority, int element) {
+		if (priority < 0 || element < 0 || element >= elements.length || isPresent(element)) {
+			throw new AssertionError("cannot push() element " + element + " with priority " + priority);
+		}
+		elements[size] = element;
+		priorities[size] = priority;
+		location[element] = size;
+		size++;
+		percolateUp(size - 1);
+	}
+
+	/**
+	 * Remove the highest priority element
+	 *
+	 * @return the element with the highest priority
+	 */
+	public int pop() {
+		if (isEmpty()) {
+			throw new AssertionError("Cannot pop() on empty queue");
+		}
+		int root = elements[0];
+		size--;
+		if (size > 0) {
+			move(size, 0);
+			pushDown(0);
+		}
+		location[root] = -1;
+		return root;
+	}
+
+	/**
+	 * Find element with highest priority
+	 *
+	 * @return priority of the element with highest priority
+	 */
+	public int topPriority() {
+		if (isEmpty()) {
+			throw new AssertionError("queue is empty, no node with topPriority()");
+		}
+		return priorities[0];
+	}
+
+	/**
+	 * Find element on top of queue
+	 *
+	 * @return element on top of queue
+	 */
+	public int topElement() {
+		if (isEmpty()) {
+			throw new AssertionError("queue is empty, no node with topElement()");
+		}
+		return elements[0];
+	}
+
+	/**
+	 * Change priority of an element in the queue
+	 *
+	 * @param newpriority the new priority
+	 * @param element     the element to change
+	 */
+	public void changePriority(int newpriority, int element) {
+		if (!isPresent(element)) {
+			throw new AssertionError(element + " is not present, cannot changePriority()");
+		} else if (newpriority < 0) {
+			throw new AssertionError("new priority is less than 0, cannot changePriority()");
+		}
+		int indx = location[element];
+		int old = priorities[indx];
+		priorities[indx] = newpriority;
+		if (newpriority > old) {
+			pushDown(indx);
+		} else {
+			percolateUp(indx);
+		}
+	}
+
+	/**
+	 * get priority of element
+	 *
+	 * @param element
+	 * @return element priority
+	 */
+	public int getPriority(int element) {
+		if (!isPresent(element)) {
+			throw new AssertionError("element does not exist, cannot getPriority()");
+		}
+		return priorities[location[element]];
+	}
+
+	/**
+	 * asks if queue is empty
+	 *
+	 * @return true if so false if not
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Searches for element in queue
+	 *
+	 * @param element
+	 * @return true if element exists false otherwise
+	 */
+	public boolean isPresent(int element) {
+		return element >= 0 && element < location.length && location[element] >= 0;
+	}
+
+	/**
+	 * clears all elements from queue
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			location[elements[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns number of elements in queue
+	 *
+	 * @return size of queue
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Push down element at given index until both children have larger priorities
+	 *
+	 * @param index start index
+	 */
+	private void pushDown(int index) {
+		int element = elements[index];
+		int priority = priorities[index];
+		int child = 2 * index + 1;
+		while (child < size) {
+			if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+				child++;
+			}
+			if (priorities[child] >= priority) {
+				break;
+			}
+			move(child, index);
+			index = child;
+			child = 2 * index + 1;
+		}
+		place(element, priority, index);
+	}
+
+	/**
+	 * Percolate up element at given index until its parent has a smaller priority
+	 *
+	 * @param index start index
+	 */
+	private void percolateUp(int index) {
+		int element = elements[index];
+		int priority = priorities[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (priorities[parent] <= priority) {
+				break;
+			}
+			move(parent, index);
+			index = parent;
+		}
+		place(element, priority, index);
+	}
+
+	/**
+	 * Copies the entry at one heap index to another
+	 */
+	private void move(int from, int to) {
+		elements[to] = elements[from];
+		priorities[to] = priorities[from];
+		location[elements[to]] = to;
+	}
+
+	/**
+	 * Stores an entry at a heap index
+	 */
+	private void place(int element, int priority, int index) {
+		elements[index] = element;
+		priorities[index] = priority;
+		location[element] = index;
+	}
+}
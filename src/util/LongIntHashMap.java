@@ -0,0 +1,189 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to int values in two primitive arrays, with open addressing
+ * and linear probing. Nothing is allocated per entry, so a map of millions of counters
+ * costs about 24 bytes per entry instead of the boxed Long, Integer and node of a HashMap.
+ *
+ * An entry whose value reaches 0 is removed, so the map only holds non-zero counters and
+ * {@link #get(long)} returns 0 for absent keys. Long.MIN_VALUE cannot be used as a key.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class LongIntHashMap {
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	/**
+	 * Creates an empty map
+	 */
+	public LongIntHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty map with room for the given number of entries
+	 *
+	 * @param expected the number of entries the map can hold before it grows
+	 */
+	public LongIntHashMap(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1;
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Returns the value of a key
+	 *
+	 * @param key the key
+	 * @return the value, or 0 if the key is not in the map
+	 */
+	public int get(long key) {
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+			if (keys[i] == EMPTY) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Adds to the value of a key, treating an absent key as 0. The entry is removed if its
+	 * value becomes 0.
+	 *
+	 * @param key   the key
+	 * @param delta the amount to add
+	 * @return the new value
+	 * @throws IllegalArgumentException if the key is Long.MIN_VALUE
+	 */
+	public int add(long key, int delta) {
+		if (key == EMPTY) {
+			throw new IllegalArgumentException("Long.MIN_VALUE is reserved, cannot add()");
+		}
+		int i = slot(key);
+		for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				int value = values[i] + delta;
+				if (value == 0) {
+					delete(i);
+				} else {
+					values[i] = value;
+				}
+				return value;
+			}
+		}
+		if (delta != 0) {
+			keys[i] = key;
+			values[i] = delta;
+			if (++size > (mask + 1) / 2) {
+				grow();
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * Returns the number of keys with a non-zero value
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every entry, keeping the allocated space
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	/**
+	 * Calls the action on every entry, in no particular order. The map must not be changed
+	 * by the action.
+	 *
+	 * @param action called once per entry
+	 */
+	public void forEach(Visitor action) {
+		for (int i = 0; i <= mask; i++) {
+			if (keys[i] != EMPTY) {
+				action.visit(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Receives the entries of a map without boxing
+	 */
+	public interface Visitor {
+		/**
+		 * Visits one entry
+		 *
+		 * @param key   the key
+		 * @param value the value, never 0
+		 */
+		void visit(long key, int value);
+	}
+
+	/**
+	 * Returns the home slot of a key, mixing the bits so that keys packed from two ints
+	 * spread over the whole table
+	 */
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * Empties slot i and moves later entries of the same probe run back, so that lookups
+	 * never stop early at the hole
+	 */
+	private void delete(int i) {
+		size--;
+		int hole = i;
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			// the entry at j may fill the hole unless its home lies cyclically in (hole, j]
+			if (((j - home) & mask) >= ((j - hole) & mask)) {
+				keys[hole] = keys[j];
+				values[hole] = values[j];
+				hole = j;
+			}
+		}
+		keys[hole] = EMPTY;
+	}
+
+	/**
+	 * Doubles the table and reinserts every entry
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		values = new int[oldKeys.length * 2];
+		mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != EMPTY) {
+				int i = slot(oldKeys[j]);
+				while (keys[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+}
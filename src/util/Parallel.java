@@ -0,0 +1,134 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helpers for splitting a range of indices across a fork-join pool. The range is split
+ * in half until the pieces are no larger than the grain size, so idle workers can steal
+ * the remaining halves of busy workers. Also makes the executors for blocking tasks.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Parallel {
+
+	/**
+	 * Work performed on a contiguous piece of a range
+	 */
+	public interface RangeTask {
+		/**
+		 * Processes the indices from (inclusive) to (exclusive)
+		 *
+		 * @param from first index
+		 * @param to   one past the last index
+		 */
+		void run(int from, int to);
+	}
+
+	/**
+	 * Runs the task over [from, to) in pieces of at most grain indices and waits for all
+	 * of them to finish.
+	 *
+	 * @param pool  the pool to run in
+	 * @param from  first index
+	 * @param to    one past the last index
+	 * @param grain largest piece run by a single task
+	 * @param task  the work to run on each piece
+	 */
+	public static void forRange(ForkJoinPool pool, int from, int to, int grain, RangeTask task) {
+		if (from >= to) {
+			return;
+		}
+		pool.invoke(new RangeAction(from, to, Math.max(1, grain), task));
+	}
+
+	/**
+	 * Picks a grain size that gives each worker several pieces to balance uneven work
+	 *
+	 * @param size        number of indices in the range
+	 * @param parallelism number of workers
+	 * @return the grain size
+	 */
+	public static int grain(int size, int parallelism) {
+		return Math.max(1, size / (Math.max(1, parallelism) * 16));
+	}
+
+	/**
+	 * Creates a pool with the given parallelism, using all processors if it is not positive
+	 *
+	 * @param parallelism number of workers
+	 * @return a new pool
+	 */
+	public static ForkJoinPool newPool(int parallelism) {
+		if (parallelism < 1) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		return new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Creates an executor that runs every task on a thread of its own, for tasks that spend
+	 * most of their time blocked, such as serving a connection. On Java 21 and later the
+	 * threads are virtual threads, so thousands of tasks cost little more than their
+	 * stacks; on older versions they are daemon platform threads from a cached pool. The
+	 * method is looked up by reflection so the code still compiles for Java 8.
+	 *
+	 * @return a new executor
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(task);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Returns whether {@link #newThreadPerTaskExecutor()} runs tasks on virtual threads
+	 *
+	 * @return true on Java 21 and later
+	 */
+	public static boolean hasVirtualThreads() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Recursively splits a range until the pieces are small enough
+	 */
+	private static class RangeAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from, to, grain;
+		private final RangeTask task;
+
+		RangeAction(int from, int to, int grain, RangeTask task) {
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.task = task;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				task.run(from, to);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new RangeAction(from, mid, grain, task), new RangeAction(mid, to, grain, task));
+		}
+	}
+}
@@ -38,8 +38,8 @@ public class PriorityQueue {
 		}
 		Pair<Integer, Integer> temp = new Pair<Integer, Integer>(priority, element);
 		heap.add(temp);
+		location.put(element, size() - 1); // swap() keeps the location current from here
 		percolateUp(size() - 1);
-		location.put(element, heap.indexOf(temp));
 	}
 
 	/**
@@ -0,0 +1,102 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of (userId, movieId, rating) triples kept in parallel primitive
+ * arrays, so collecting ratings costs no objects per rating.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class RatingBuffer {
+	private int[] users;
+	private int[] movies;
+	private double[] ratings;
+	private int size;
+
+	/**
+	 * Creates an empty buffer
+	 */
+	public RatingBuffer() {
+		this(1024);
+	}
+
+	/**
+	 * Creates an empty buffer with room for the given number of ratings
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public RatingBuffer(int capacity) {
+		capacity = Math.max(16, capacity);
+		users = new int[capacity];
+		movies = new int[capacity];
+		ratings = new double[capacity];
+	}
+
+	/**
+	 * Appends a rating
+	 *
+	 * @param userId  the id of the user
+	 * @param movieId the id of the movie
+	 * @param rating  the rating
+	 */
+	public void add(int userId, int movieId, double rating) {
+		if (size == users.length) {
+			int capacity = size + (size >> 1);
+			users = Arrays.copyOf(users, capacity);
+			movies = Arrays.copyOf(movies, capacity);
+			ratings = Arrays.copyOf(ratings, capacity);
+		}
+		users[size] = userId;
+		movies[size] = movieId;
+		ratings[size] = rating;
+		size++;
+	}
+
+	/**
+	 * Returns the number of ratings in the buffer
+	 *
+	 * @return the number of ratings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every rating, keeping the allocated space
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the user of the i-th rating
+	 *
+	 * @param i index of the rating
+	 * @return the user id
+	 */
+	public int userId(int i) {
+		return users[i];
+	}
+
+	/**
+	 * Returns the movie of the i-th rating
+	 *
+	 * @param i index of the rating
+	 * @return the movie id
+	 */
+	public int movieId(int i) {
+		return movies[i];
+	}
+
+	/**
+	 * Returns the i-th rating
+	 *
+	 * @param i index of the rating
+	 * @return the rating
+	 */
+	public double rating(int i) {
+		return ratings[i];
+	}
+}
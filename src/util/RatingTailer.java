@@ -0,0 +1,528 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Follows a ratings file that is appended to while the program runs, the way
+ * <code>tail -f</code> does, and feeds the new ratings to a {@link Sink} in micro-batches.
+ *
+ * Each poll reads the bytes past the current offset in fixed-size chunks, parses the
+ * complete lines with the same parser as {@link DataLoader#loadDataMapped} and adds them to
+ * the pending batch. A partial last line is left for the next poll. The batch is handed to
+ * the sink when it holds {@link #setMaxBatch(int) maxBatch} ratings, or when its oldest
+ * rating has waited {@link #setMaxDelay(long) maxDelay} milliseconds. Memory is bounded by
+ * one chunk plus one batch however fast the file grows; if the sink falls behind, the file
+ * is simply read later.
+ *
+ * A batch is applied while holding a lock that readers of the model synchronize on, so
+ * they see either none or all of it. The tailer's own monitor is never held while that
+ * lock is taken, so a reader holding the model lock may ask the tailer for its progress
+ * at any time; poll and flush themselves take the model lock and must not be called while
+ * holding it. If the sink rejects a rating by throwing, the batch is applied again one
+ * rating at a time and the rejected ratings are skipped: {@link #ratingsSkipped()} counts
+ * them and {@link #getRejection()} tells why the last one was rejected. After each batch
+ * the offset just past its last line is saved to the offset file, through a temporary file
+ * that is moved into place, so a restarted tailer resumes where the last one stopped.
+ * Applying a rating twice has no effect, so a line is never lost, although one may be
+ * applied again after a crash.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class RatingTailer implements AutoCloseable {
+	/**
+	 * Receives each batch of new ratings
+	 */
+	public interface Sink {
+		/**
+		 * Applies a batch. The batch is reused once this method returns. Applying the same
+		 * rating twice must have no effect.
+		 *
+		 * @param batch the ratings, with movie ids renumbered like the loaded movies
+		 * @throws RuntimeException if a rating of the batch cannot be applied
+		 */
+		void apply(RatingBuffer batch);
+	}
+
+	private static final int CHUNK_BYTES = 1 << 16;
+
+	private final DataLoader loader;
+	private final Path file;
+	private final Sink sink;
+	private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES);
+	private final Object applying = new Object(); // held while a batch is applied, before this and lock
+	private RatingBuffer pending = new RatingBuffer(); // guarded by this
+	private RatingBuffer spare = new RatingBuffer(); // the batch being applied, guarded by applying
+	private final RatingBuffer single = new RatingBuffer(1); // one rating applied on its own
+	private volatile Object lock = new Object();
+	private volatile Path offsetFile;
+	private int maxBatch = 5000;
+	private long maxDelay = 1000;
+
+	private long position; // the next byte to read
+	private boolean aligned; // whether position is known to be at the start of a line
+	private long pendingSince; // when the oldest pending rating was read, in nanoseconds
+	private Thread thread;
+	private volatile boolean running;
+	private volatile Exception failure;
+	private volatile RuntimeException rejection; // why the last skipped rating was rejected
+
+	// counters, written by the polling thread only
+	private volatile long committed; // the offset just past the last applied line
+	private volatile long applied, batches, skippedBytes, skippedRatings, resets;
+	private volatile long appliedNanos; // time spent applying batches
+	private final long started = System.nanoTime();
+
+	/**
+	 * Creates a tailer that starts at the given offset of the ratings file
+	 *
+	 * @param loader          the loader that read the movies, used to renumber movie ids
+	 * @param ratingsFilename the ratings file to follow
+	 * @param movieFilename   the movie titles file the loader read
+	 * @param offset          the offset to start at, usually the size of the ratings file
+	 *                        when it was loaded; 0 reads the whole file
+	 * @param sink            receives the batches
+	 * @throws IOException if the movie ids cannot be read again
+	 */
+	public RatingTailer(DataLoader loader, String ratingsFilename, String movieFilename, long offset, Sink sink)
+			throws IOException {
+		if (offset < 0) {
+			throw new IllegalArgumentException("offset " + offset + " is negative, cannot create RatingTailer");
+		}
+		loader.prepareRenumbering(movieFilename);
+		this.loader = loader;
+		this.file = Paths.get(ratingsFilename);
+		this.sink = sink;
+		this.position = this.committed = offset;
+	}
+
+	/**
+	 * Sets the file the offset is saved to after every batch. If the file already holds an
+	 * offset further along than the current one, the tailer resumes from there, unless the
+	 * ratings file is now shorter than that offset and so has been replaced.
+	 *
+	 * @param offsetFile the file, or null to not save the offset
+	 * @throws IOException if the file exists but cannot be read
+	 */
+	public synchronized void setOffsetFile(Path offsetFile) throws IOException {
+		this.offsetFile = offsetFile;
+		if (offsetFile != null && Files.exists(offsetFile)) {
+			try {
+				long saved = Long.parseLong(new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8).trim());
+				if (saved > position && saved <= Files.size(file) && pending.size() == 0) {
+					position = committed = saved;
+					aligned = false;
+				}
+			} catch (NumberFormatException e) {
+				System.out.println("Ignoring unreadable offset file " + offsetFile);
+			}
+		}
+	}
+
+	/**
+	 * Sets the object synchronized on while a batch is applied
+	 *
+	 * @param lock the lock shared with the readers of the model
+	 */
+	public synchronized void setLock(Object lock) {
+		this.lock = lock;
+	}
+
+	/**
+	 * Sets the number of ratings that closes a batch
+	 *
+	 * @param maxBatch the batch size, 5000 by default
+	 * @throws IllegalArgumentException if maxBatch is less than 1
+	 */
+	public synchronized void setMaxBatch(int maxBatch) {
+		if (maxBatch < 1) {
+			throw new IllegalArgumentException("maxBatch must be at least 1, cannot setMaxBatch()");
+		}
+		this.maxBatch = maxBatch;
+	}
+
+	/**
+	 * Sets how long a rating may wait for its batch to fill up
+	 *
+	 * @param maxDelay the delay in milliseconds, 1000 by default; 0 applies every poll
+	 * @throws IllegalArgumentException if maxDelay is negative
+	 */
+	public synchronized void setMaxDelay(long maxDelay) {
+		if (maxDelay < 0) {
+			throw new IllegalArgumentException("maxDelay must not be negative, cannot setMaxDelay()");
+		}
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Reads the lines appended since the last poll and applies the pending batch whenever it
+	 * is full or old enough
+	 *
+	 * @return the number of bytes read
+	 * @throws IOException if the ratings file cannot be read or the offset cannot be saved
+	 */
+	public long poll() throws IOException {
+		long read = 0, step;
+		do {
+			step = readLines();
+			read += step;
+			if (batchDue()) {
+				flush();
+			}
+		} while (step > 0);
+		synchronized (applying) {
+			synchronized (this) {
+				if (pending.size() == 0) {
+					committed = position; // nothing is waiting, so the lines read are done
+				}
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Reads complete lines into the pending batch until the end of the file or until the
+	 * batch is full
+	 *
+	 * @return the number of bytes read
+	 */
+	private synchronized long readLines() throws IOException {
+		long read = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < position) { // the file was replaced, start over
+				position = committed = 0;
+				pending.clear();
+				resets++;
+			}
+			if (!aligned) {
+				position = committed = lineStart(channel, position);
+				aligned = true;
+			}
+			while (position < size && pending.size() < maxBatch) {
+				chunk.clear();
+				int length = channel.read(chunk, position);
+				if (length <= 0) {
+					break;
+				}
+				int end = length;
+				while (end > 0 && chunk.get(end - 1) != '\n') {
+					end--;
+				}
+				if (end == 0) {
+					if (length < CHUNK_BYTES) {
+						break; // the last line is still being written
+					}
+					position += length; // no line is this long, skip to the next one
+					skippedBytes += length;
+					continue;
+				}
+				int from = 0;
+				if (position == 0) { // skip the header line
+					while (chunk.get(from++) != '\n') {
+					}
+				}
+				chunk.position(from).limit(end);
+				RatingBuffer parsed = loader.parseRatings(chunk.slice());
+				if (parsed.size() > 0 && pending.size() == 0) {
+					pendingSince = System.nanoTime();
+				}
+				for (int i = 0; i < parsed.size(); i++) {
+					pending.add(parsed.userId(i), parsed.movieId(i), parsed.rating(i));
+				}
+				position += end;
+				read += end;
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Determines whether the pending batch is full or its oldest rating has waited long
+	 * enough
+	 */
+	private synchronized boolean batchDue() {
+		return pending.size() >= maxBatch
+				|| pending.size() > 0 && System.nanoTime() - pendingSince >= maxDelay * 1000000L;
+	}
+
+	/**
+	 * Applies the pending batch now, however small it is. Only the lock shared with the
+	 * readers is held while the sink runs, so they can still read the tailer's progress.
+	 *
+	 * @throws IOException if the offset cannot be saved
+	 */
+	public void flush() throws IOException {
+		synchronized (applying) {
+			RatingBuffer batch;
+			long end;
+			synchronized (this) { // take the batch, so reading can go on into an empty one
+				batch = pending;
+				pending = spare;
+				spare = batch;
+				end = position;
+			}
+			if (batch.size() > 0) {
+				long start = System.nanoTime();
+				int count = batch.size();
+				try {
+					synchronized (lock) {
+						sink.apply(batch);
+					}
+				} catch (RuntimeException e) { // a rating was rejected, find it and skip it
+					count = applyEach(batch);
+				}
+				appliedNanos += System.nanoTime() - start;
+				applied += count;
+				batches++;
+				batch.clear();
+			}
+			committed = end;
+			if (offsetFile != null) {
+				Path temporary = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+				Files.write(temporary, Long.toString(committed).getBytes(StandardCharsets.UTF_8));
+				try {
+					Files.move(temporary, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) { // the file system cannot move atomically
+					Files.move(temporary, offsetFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies a batch one rating at a time after the sink rejected it as a whole, skipping
+	 * the ratings it rejects and counting them in {@link #ratingsSkipped()}. The ratings it
+	 * had already applied are applied again, which has no effect.
+	 *
+	 * @return the number of ratings of the batch the sink accepted
+	 */
+	private int applyEach(RatingBuffer batch) {
+		int count = 0;
+		synchronized (lock) {
+			for (int i = 0; i < batch.size(); i++) {
+				single.clear();
+				single.add(batch.userId(i), batch.movieId(i), batch.rating(i));
+				try {
+					sink.apply(single);
+					count++;
+				} catch (RuntimeException e) {
+					rejection = e;
+					skippedRatings++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Starts polling on a background daemon thread
+	 *
+	 * @param pollMillis how long to wait after a poll that found nothing new
+	 */
+	public synchronized void start(long pollMillis) {
+		if (thread != null) {
+			return;
+		}
+		running = true;
+		thread = new Thread(() -> {
+			while (running) {
+				try {
+					if (poll() == 0) {
+						Thread.sleep(Math.max(1, Math.min(pollMillis, maxDelay)));
+					}
+					failure = null;
+				} catch (IOException | RuntimeException e) { // keep polling, the error is reported
+					failure = e;
+					try {
+						Thread.sleep(pollMillis);
+					} catch (InterruptedException stop) {
+						return;
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}, "rating-tailer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the background thread and applies whatever is pending
+	 *
+	 * @throws IOException if the offset cannot be saved
+	 */
+	@Override
+	public void close() throws IOException {
+		Thread t;
+		synchronized (this) {
+			running = false;
+			t = thread;
+			thread = null;
+		}
+		if (t != null) {
+			t.interrupt();
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+	}
+
+	/**
+	 * Returns whether the background thread is running
+	 *
+	 * @return true between start and close
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Returns the last error of the background thread, which keeps retrying
+	 *
+	 * @return the error of the last poll, or null if it succeeded
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Returns why the sink rejected the last rating it rejected
+	 *
+	 * @return the error, or null if no rating was rejected
+	 */
+	public RuntimeException getRejection() {
+		return rejection;
+	}
+
+	/**
+	 * Returns the offset just past the last line that was applied
+	 *
+	 * @return the offset in bytes
+	 */
+	public long getOffset() {
+		return committed;
+	}
+
+	/**
+	 * Returns how far the applied ratings are behind the end of the file
+	 *
+	 * @return the number of bytes not yet applied
+	 */
+	public long bytesBehind() {
+		try {
+			return Math.max(0, Files.size(file) - committed);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns how long the oldest rating that was read but not yet applied has waited
+	 *
+	 * @return the lag in milliseconds, 0 if nothing is pending
+	 */
+	public synchronized long lagMillis() {
+		return pending.size() == 0 ? 0 : (System.nanoTime() - pendingSince) / 1000000L;
+	}
+
+	/**
+	 * Returns the number of ratings applied so far
+	 *
+	 * @return the number of ratings
+	 */
+	public long ratingsApplied() {
+		return applied;
+	}
+
+	/**
+	 * Returns the number of batches applied so far
+	 *
+	 * @return the number of batches
+	 */
+	public long batchesApplied() {
+		return batches;
+	}
+
+	/**
+	 * Returns the number of bytes skipped because they were not part of a line short
+	 * enough to parse
+	 *
+	 * @return the number of bytes
+	 */
+	public long bytesSkipped() {
+		return skippedBytes;
+	}
+
+	/**
+	 * Returns the number of ratings skipped because the sink rejected them
+	 *
+	 * @return the number of ratings
+	 */
+	public long ratingsSkipped() {
+		return skippedRatings;
+	}
+
+	/**
+	 * Returns how often the file shrank and was read again from the start
+	 *
+	 * @return the number of restarts
+	 */
+	public long resets() {
+		return resets;
+	}
+
+	/**
+	 * Returns the average number of ratings applied per second since the tailer was made
+	 *
+	 * @return the throughput
+	 */
+	public double ratingsPerSecond() {
+		double seconds = (System.nanoTime() - started) / 1e9;
+		return seconds <= 0 ? 0 : applied / seconds;
+	}
+
+	/**
+	 * Returns the average number of ratings per second while batches were being applied,
+	 * the rate at which the sink can absorb ratings
+	 *
+	 * @return the throughput of the sink
+	 */
+	public double applyRatingsPerSecond() {
+		return appliedNanos == 0 ? 0 : applied / (appliedNanos / 1e9);
+	}
+
+	/**
+	 * Finds the start of the line containing the byte before the given position, so that a
+	 * start offset in the middle of a line rereads the whole line
+	 */
+	private static long lineStart(FileChannel channel, long position) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate(4096);
+		long end = position;
+		while (end > 0) {
+			long from = Math.max(0, end - window.capacity());
+			window.clear();
+			window.limit((int) (end - from));
+			channel.read(window, from);
+			for (int i = window.position() - 1; i >= 0; i--) {
+				if (window.get(i) == '\n') {
+					return from + i + 1;
+				}
+			}
+			end = from;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,449 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import data.Movie;
+import data.RatingMatrix;
+import graph.CsrGraph;
+import graph.SimilarityIndex;
+
+/**
+ * Reads and writes binary snapshots of a loaded data set and of built graphs, so a later
+ * run over the same input files can skip parsing the CSVs and building the graph.
+ *
+ * A snapshot is a little-endian file made of a header (magic number, format version,
+ * kind, key and payload length) followed by the payload. Data snapshots hold the
+ * renumbered movies, the arrays of the {@link RatingMatrix} and the ratings the matrix
+ * cannot hold; graph snapshots hold the arrays of a {@link CsrGraph}, and index snapshots
+ * those of a {@link SimilarityIndex}. The key is a checksum of the input files, and for
+ * graphs and indexes also of the options they were built with, so a snapshot whose
+ * inputs have changed is simply ignored.
+ *
+ * Snapshots are read through a memory map and copied straight into the arrays. They are
+ * written to a temporary file that is then moved into place, so a reader never sees a
+ * half-written snapshot.
+ *
+ * @author Madison Sanchez-Forman
+ * @version October 17, 2026
+ */
+public class Snapshot {
+	/** The format version; snapshots written with another version are ignored */
+	public static final int VERSION = 1;
+
+	private static final int MAGIC = 0x4e534c4d; // "MLSN" in little-endian order
+	private static final int DATA = 1, GRAPH = 2, INDEX = 3;
+	private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8;
+	private static final int MAX_MAP_BYTES = 1 << 30;
+
+	/**
+	 * Computes the key of a data set from the contents of its input files
+	 *
+	 * @param filenames the input files, in a fixed order
+	 * @return a 64 bit checksum of the files' contents and lengths
+	 * @throws IOException if a file cannot be read
+	 */
+	public static long checksum(String... filenames) throws IOException {
+		CRC32 contents = new CRC32(), lengths = new CRC32();
+		ByteBuffer number = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		for (String filename : filenames) {
+			try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+				long size = channel.size();
+				for (long pos = 0; pos < size; pos += MAX_MAP_BYTES) {
+					contents.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAX_MAP_BYTES, size - pos)));
+				}
+				number.clear();
+				number.putLong(size).flip();
+				lengths.update(number);
+			}
+		}
+		number.clear();
+		number.putInt(VERSION).putInt(filenames.length).flip();
+		lengths.update(number);
+		return contents.getValue() << 32 | lengths.getValue();
+	}
+
+	/**
+	 * Derives the key of a graph from the key of its data set and the way it was built
+	 *
+	 * @param dataKey   the key of the data set
+	 * @param adjacency the name of the adjacency option
+	 * @param threshold the number of reviewers needed for an edge
+	 * @return the key of the graph
+	 */
+	public static long graphKey(long dataKey, String adjacency, int threshold) {
+		return derivedKey(dataKey, adjacency, threshold);
+	}
+
+	/**
+	 * Derives the key of a similarity index from the key of its data set and the way it
+	 * was built
+	 *
+	 * @param dataKey    the key of the data set
+	 * @param similarity the name of the similarity measure
+	 * @param k          the number of neighbors per movie
+	 * @param minShared  the number of reviewers two movies must share
+	 * @return the key of the index
+	 */
+	public static long indexKey(long dataKey, String similarity, int k, int minShared) {
+		return derivedKey(dataKey, "index:" + similarity, k, minShared);
+	}
+
+	private static long derivedKey(long dataKey, String option, int... params) {
+		CRC32 crc = new CRC32();
+		crc.update(option.getBytes(StandardCharsets.UTF_8));
+		ByteBuffer number = ByteBuffer.allocate(4 * params.length).order(ByteOrder.LITTLE_ENDIAN);
+		for (int param : params) {
+			number.putInt(param);
+		}
+		number.flip();
+		crc.update(number);
+		return dataKey ^ (crc.getValue() << 16);
+	}
+
+	/**
+	 * Returns the directory snapshots of a data set are kept in, next to its ratings file
+	 *
+	 * @param ratingsFilename the ratings file
+	 * @return the snapshot directory
+	 */
+	public static Path directoryFor(String ratingsFilename) {
+		Path parent = Paths.get(ratingsFilename).toAbsolutePath().getParent();
+		return parent.resolve(".snapshots");
+	}
+
+	/**
+	 * Returns the file holding the snapshot with the given key
+	 *
+	 * @param directory the snapshot directory
+	 * @param key       the key of the snapshot
+	 * @return the snapshot file
+	 */
+	public static Path file(Path directory, long key) {
+		return directory.resolve(String.format("%016x.snap", key));
+	}
+
+	/*********************************************************
+	 * Data sets
+	 *********************************************************/
+
+	/**
+	 * Writes the movies and ratings of a loader
+	 *
+	 * @param file the snapshot file
+	 * @param key  the key of the data set
+	 * @param data a loader that has loaded its data
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeData(Path file, long key, DataLoader data) throws IOException {
+		List<Movie> movies = new ArrayList<>(data.getMovies().values());
+		byte[][] titles = new byte[movies.size()][];
+		byte[][][] genres = new byte[movies.size()][][];
+		long size = 4;
+		for (int i = 0; i < movies.size(); i++) {
+			Movie movie = movies.get(i);
+			titles[i] = movie.getTitle().getBytes(StandardCharsets.UTF_8);
+			genres[i] = new byte[movie.getGenres().size()][];
+			size += 4 + 4 + 4 + titles[i].length + 4;
+			int g = 0;
+			for (String genre : movie.getGenres()) {
+				genres[i][g] = genre.getBytes(StandardCharsets.UTF_8);
+				size += 4 + genres[i][g].length;
+				g++;
+			}
+		}
+		RatingMatrix matrix = data.getRatingMatrix();
+		RatingBuffer others = data.getOtherRatings();
+		int numRatings = matrix.numRatings();
+		size += 4 + 4L * (matrix.numMovies() + 1) + 4 + 5L * numRatings; // movie index
+		size += 4 + 4L * matrix.numUsers() + 4 + 4L * (matrix.numUsers() + 1) + 4 + 5L * numRatings; // reviewer index
+		size += 4 + 16L * others.size();
+
+		ByteBuffer out = create(file, DATA, key, size);
+		out.putInt(movies.size());
+		for (int i = 0; i < movies.size(); i++) {
+			Movie movie = movies.get(i);
+			out.putInt(movie.getMovieId()).putInt(movie.getYear());
+			putBytes(out, titles[i]);
+			out.putInt(genres[i].length);
+			for (byte[] genre : genres[i]) {
+				putBytes(out, genre);
+			}
+		}
+		putInts(out, matrix.getMovieOffsets());
+		putInts(out, matrix.getMovieUsers());
+		out.put(matrix.getMovieRatings());
+		putInts(out, matrix.getUserIds());
+		putInts(out, matrix.getUserOffsets());
+		putInts(out, matrix.getUserMovies());
+		out.put(matrix.getUserRatings());
+		out.putInt(others.size());
+		for (int i = 0; i < others.size(); i++) {
+			out.putInt(others.userId(i)).putInt(others.movieId(i)).putDouble(others.rating(i));
+		}
+		commit(file, out);
+	}
+
+	/**
+	 * Replaces the contents of a loader with a data snapshot
+	 *
+	 * @param file the snapshot file
+	 * @param key  the key the snapshot must have
+	 * @param data the loader to fill in
+	 * @return true if the snapshot was loaded, false if it is missing or was written for
+	 *         other input files or by another version
+	 * @throws IOException if the snapshot exists but cannot be read
+	 */
+	public static boolean readData(Path file, long key, DataLoader data) throws IOException {
+		ByteBuffer in = open(file, DATA, key);
+		if (in == null) {
+			return false;
+		}
+		try {
+			int numMovies = in.getInt();
+			List<Movie> movies = new ArrayList<>(numMovies);
+			for (int i = 0; i < numMovies; i++) {
+				int id = in.getInt(), year = in.getInt();
+				Movie movie = new Movie(id, year, getString(in));
+				for (int g = in.getInt(); g > 0; g--) {
+					movie.addGenre(getString(in));
+				}
+				movies.add(movie);
+			}
+			int[] movieOffsets = getInts(in);
+			int[] movieUsers = getInts(in);
+			byte[] movieRatings = getBytes(in, movieUsers.length);
+			int[] userIds = getInts(in);
+			int[] userOffsets = getInts(in);
+			int[] userMovies = getInts(in);
+			byte[] userRatings = getBytes(in, userMovies.length);
+			RatingMatrix matrix = RatingMatrix.fromArrays(movieOffsets, movieUsers, movieRatings, userIds, userOffsets,
+					userMovies, userRatings);
+			int numOthers = in.getInt();
+			RatingBuffer others = new RatingBuffer(numOthers);
+			for (int i = 0; i < numOthers; i++) {
+				others.add(in.getInt(), in.getInt(), in.getDouble());
+			}
+			data.restoreModel(movies, matrix, others);
+			return true;
+		} catch (RuntimeException e) { // the payload does not match its header
+			throw new IOException("corrupt snapshot " + file, e);
+		}
+	}
+
+	/*********************************************************
+	 * Graphs
+	 *********************************************************/
+
+	/**
+	 * Writes a graph
+	 *
+	 * @param file the snapshot file
+	 * @param key  the key of the graph, see {@link #graphKey(long, String, int)}
+	 * @param G    the graph
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeGraph(Path file, long key, CsrGraph G) throws IOException {
+		int bound = G.vertexBound();
+		BitSet present = new BitSet(bound);
+		for (int v = 0; v < bound; v++) {
+			if (G.hasVertex(v)) {
+				present.set(v);
+			}
+		}
+		long[] words = G.numVertices() == bound ? new long[0] : present.toLongArray();
+		long size = 4 + 8L * words.length + 4 + 4L * (bound + 1) + 4 + 4L * G.numEdges();
+		ByteBuffer out = create(file, GRAPH, key, size);
+		out.putInt(words.length);
+		for (long word : words) {
+			out.putLong(word);
+		}
+		putInts(out, G.getOffsets());
+		putInts(out, G.getTargets());
+		commit(file, out);
+	}
+
+	/**
+	 * Reads a graph
+	 *
+	 * @param file the snapshot file
+	 * @param key  the key the snapshot must have
+	 * @return the graph, or null if the snapshot is missing or was written for another key
+	 *         or by another version
+	 * @throws IOException if the snapshot exists but cannot be read
+	 */
+	public static CsrGraph readGraph(Path file, long key) throws IOException {
+		ByteBuffer in = open(file, GRAPH, key);
+		if (in == null) {
+			return null;
+		}
+		try {
+			long[] words = new long[in.getInt()];
+			in.asLongBuffer().get(words);
+			in.position(in.position() + 8 * words.length);
+			int[] offsets = getInts(in);
+			int[] targets = getInts(in);
+			return new CsrGraph(offsets, targets, words.length == 0 ? null : BitSet.valueOf(words));
+		} catch (RuntimeException e) { // the payload does not match its header
+			throw new IOException("corrupt snapshot " + file, e);
+		}
+	}
+
+	/*********************************************************
+	 * Similarity indexes
+	 *********************************************************/
+
+	/**
+	 * Writes a similarity index
+	 *
+	 * @param file  the snapshot file
+	 * @param key   the key of the index, see {@link #indexKey(long, String, int, int)}
+	 * @param index the index
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeIndex(Path file, long key, SimilarityIndex index) throws IOException {
+		int n = index.getNeighbors().length;
+		long size = 4 + 4L * index.getOffsets().length + 4 + 4L * n + 4 + 4L * n;
+		ByteBuffer out = create(file, INDEX, key, size);
+		putInts(out, index.getOffsets());
+		putInts(out, index.getNeighbors());
+		out.putInt(n);
+		out.asFloatBuffer().put(index.getScores());
+		out.position(out.position() + 4 * n);
+		commit(file, out);
+	}
+
+	/**
+	 * Reads a similarity index
+	 *
+	 * @param file the snapshot file
+	 * @param key  the key the snapshot must have
+	 * @return the index, or null if the snapshot is missing or was written for another key
+	 *         or by another version
+	 * @throws IOException if the snapshot exists but cannot be read
+	 */
+	public static SimilarityIndex readIndex(Path file, long key) throws IOException {
+		ByteBuffer in = open(file, INDEX, key);
+		if (in == null) {
+			return null;
+		}
+		try {
+			int[] offsets = getInts(in);
+			int[] neighbors = getInts(in);
+			float[] scores = new float[in.getInt()];
+			in.asFloatBuffer().get(scores);
+			in.position(in.position() + 4 * scores.length);
+			return new SimilarityIndex(offsets, neighbors, scores);
+		} catch (RuntimeException e) { // the payload does not match its header
+			throw new IOException("corrupt snapshot " + file, e);
+		}
+	}
+
+	/*********************************************************
+	 * Private helpers
+	 *********************************************************/
+
+	/**
+	 * Maps a new temporary file next to the snapshot and writes the header
+	 *
+	 * @return a buffer positioned at the start of the payload
+	 */
+	private static ByteBuffer create(Path file, int kind, long key, long payload) throws IOException {
+		if (HEADER_BYTES + payload > Integer.MAX_VALUE) {
+			throw new IOException("snapshot of " + payload + " bytes is too large for " + file);
+		}
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path temp = temporary(file);
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + payload);
+			out.order(ByteOrder.LITTLE_ENDIAN);
+			out.putInt(MAGIC).putInt(VERSION).putInt(kind).putLong(key).putLong(payload);
+			return out;
+		}
+	}
+
+	/**
+	 * Flushes a finished snapshot and moves it into place
+	 */
+	private static void commit(Path file, ByteBuffer out) throws IOException {
+		if (out.hasRemaining()) {
+			throw new IllegalStateException("snapshot size was miscounted by " + out.remaining() + " bytes");
+		}
+		((MappedByteBuffer) out).force();
+		try {
+			Files.move(temporary(file), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) { // the file system cannot move atomically
+			Files.move(temporary(file), file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Maps a snapshot and checks its header
+	 *
+	 * @return a buffer positioned at the start of the payload, or null if the file is
+	 *         missing or does not have the expected kind, key and version
+	 */
+	private static ByteBuffer open(Path file, int kind, long key) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+			if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getInt() != kind || in.getLong() != key
+					|| in.getLong() != size - HEADER_BYTES) {
+				return null;
+			}
+			return in;
+		}
+	}
+
+	private static Path temporary(Path file) {
+		return file.resolveSibling(file.getFileName() + ".tmp");
+	}
+
+	private static void putInts(ByteBuffer out, int[] values) {
+		out.putInt(values.length);
+		out.asIntBuffer().put(values);
+		out.position(out.position() + 4 * values.length);
+	}
+
+	private static int[] getInts(ByteBuffer in) {
+		int[] values = new int[in.getInt()];
+		in.asIntBuffer().get(values);
+		in.position(in.position() + 4 * values.length);
+		return values;
+	}
+
+	private static void putBytes(ByteBuffer out, byte[] bytes) {
+		out.putInt(bytes.length);
+		out.put(bytes);
+	}
+
+	private static byte[] getBytes(ByteBuffer in, int length) {
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return bytes;
+	}
+
+	private static String getString(ByteBuffer in) {
+		return new String(getBytes(in, in.getInt()), StandardCharsets.UTF_8);
+	}
+}